@@ -0,0 +1,113 @@
+package cz.michalmusil.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import cz.michalmusil.models.SearchResponseModel;
+import cz.michalmusil.models.SearchResultModel;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark parsovací a extrakční části scrapingu nad uloženými stránkami Google (src/test/resources/serp).
+ * Spuštění: {@code mvn -Pbenchmark verify}; alokace na operaci hlásí profiler {@code gc}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerpParsingBenchmark {
+
+    @Param({"google-desktop", "google-basic"})
+    private String fixture;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    // Benchmark volá jen parsování - prohlížeč, HTTP vrstva ani plánovač se nepoužijí
+    private final GoogleScraperService scraperService = new GoogleScraperService(null, null, null, null,
+            new SerpResultExtractor(), new SelectorProfileRegistry(), new BrowserResultExtractor(),
+            new ScrapeMetrics(), new PageArchive(objectMapper));
+
+    private String html;
+    private Document document;
+    private List<Element> containers;
+    private List<SearchResultModel> results;
+    private SearchResponseModel response;
+
+    @Setup
+    public void setUp() throws IOException {
+        try (InputStream input = SerpParsingBenchmark.class.getResourceAsStream("/serp/" + fixture + ".html")) {
+            if (input == null) {
+                throw new IllegalStateException("Chybí fixture " + fixture);
+            }
+            html = new String(input.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        document = Jsoup.parse(html);
+        containers = new SerpResultExtractor().findContainers(document, SerpSelectors.defaults());
+        results = scraperService.parseSearchResults(document);
+        if (results.isEmpty()) {
+            throw new IllegalStateException("Fixture " + fixture + " neobsahuje žádné výsledky");
+        }
+        response = new SearchResponseModel("java spring", results, true,
+                String.format("Úspěšně nalezeno %d výsledků", results.size()));
+    }
+
+    @Benchmark
+    public Document jsoupParse() {
+        return Jsoup.parse(html);
+    }
+
+    @Benchmark
+    public List<SearchResultModel> extractResults() {
+        return scraperService.parseSearchResults(document);
+    }
+
+    @Benchmark
+    public List<SearchResultModel> parseAndExtract() {
+        return scraperService.parseSearchResults(Jsoup.parse(html));
+    }
+
+    @Benchmark
+    public void isAdvertisement(Blackhole blackhole) {
+        for (Element container : containers) {
+            blackhole.consume(scraperService.isAdvertisement(container));
+        }
+    }
+
+    @Benchmark
+    public void isValidResult(Blackhole blackhole) {
+        for (SearchResultModel result : results) {
+            blackhole.consume(scraperService.isValidResult(result));
+        }
+    }
+
+    @Benchmark
+    public void cleanUrl(Blackhole blackhole) {
+        blackhole.consume(scraperService.cleanUrl("/url?q=https://www.example.org/article/1%3Fref%3Dserp&sa=U&ved=2ahUKE1&usg=AOvVaw1"));
+        blackhole.consume(scraperService.cleanUrl("https://www.example.org/article/1?ref=serp"));
+    }
+
+    @Benchmark
+    public byte[] serializeResponse() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(response);
+    }
+}
@@ -0,0 +1,123 @@
+package cz.michalmusil.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lokální náhrada za Google pro zátěžové testy. Na {@code /search} vrací uložené stránky
+ * (src/test/resources/serp) - výsledky, CAPTCHA nebo "did not match any documents" - v nastaveném
+ * poměru a s nastavenou latencí. Scraper se na něj nasměruje přes {@code scraper.google.base-url}.
+ */
+public class FakeSerpServer implements AutoCloseable {
+
+    private final byte[] resultsPage;
+    private final byte[] captchaPage;
+    private final byte[] noResultsPage;
+    private final long latencyMillis;
+    private final double captchaRatio;
+    private final double noResultsRatio;
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong captchas = new AtomicLong();
+    private final AtomicLong noResults = new AtomicLong();
+
+    private HttpServer server;
+    private ExecutorService executor;
+
+    public FakeSerpServer(String resultsFixture, long latencyMillis, double captchaRatio, double noResultsRatio) throws IOException {
+        this.resultsPage = fixture(resultsFixture);
+        this.captchaPage = fixture("google-captcha");
+        this.noResultsPage = fixture("google-no-results");
+        this.latencyMillis = latencyMillis;
+        this.captchaRatio = captchaRatio;
+        this.noResultsRatio = noResultsRatio;
+    }
+
+    /**
+     * Spustí server na volném portu.
+     *
+     * @return základní URL serveru (např. http://127.0.0.1:54321)
+     */
+    public String start() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        executor = Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, "fake-serp");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.createContext("/search", this::handleSearch);
+        server.start();
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        if (server != null) {
+            server.stop(0);
+        }
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    public long getRequests() {
+        return requests.get();
+    }
+
+    public long getCaptchas() {
+        return captchas.get();
+    }
+
+    public long getNoResults() {
+        return noResults.get();
+    }
+
+    private void handleSearch(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        try {
+            if (latencyMillis > 0) {
+                TimeUnit.MILLISECONDS.sleep(latencyMillis);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        double roll = ThreadLocalRandom.current().nextDouble();
+        byte[] body;
+        if (roll < captchaRatio) {
+            captchas.incrementAndGet();
+            body = captchaPage;
+        } else if (roll < captchaRatio + noResultsRatio) {
+            noResults.incrementAndGet();
+            body = noResultsPage;
+        } else {
+            body = resultsPage;
+        }
+
+        exchange.getResponseHeaders().set("Content-Type", "text/html; charset=UTF-8");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(body);
+        }
+    }
+
+    private static byte[] fixture(String name) throws IOException {
+        try (InputStream input = FakeSerpServer.class.getResourceAsStream("/serp/" + name + ".html")) {
+            if (input == null) {
+                throw new IOException("Chybí fixture " + name);
+            }
+            return input.readAllBytes();
+        }
+    }
+}
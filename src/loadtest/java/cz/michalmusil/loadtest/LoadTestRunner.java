@@ -0,0 +1,169 @@
+package cz.michalmusil.loadtest;
+
+import cz.michalmusil.Application;
+import cz.michalmusil.services.ScrapeMetrics;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Zátěžový test bez přístupu k síti: spustí {@link FakeSerpServer}, aplikaci nasměrovanou na něj
+ * a zadaným počtem souběžných klientů volá {@code /api/scrape}. Na konci vypíše propustnost,
+ * p50/p99 latence a rozložení odpovědí (HTTP status, X-Cache).
+ * <p>
+ * Spuštění: {@code mvn -Ploadtest verify -Dloadtest.args="concurrency=16 requests=2000"}.
+ * Parametry (klíč=hodnota): concurrency, requests, keywords (počet různých klíčových slov - méně znamená
+ * víc zásahů cache), latency-ms, captcha-ratio, no-results-ratio, fixture (google-desktop / google-basic),
+ * virtual-threads (true = aplikace běží na virtuálních vláknech), target (URL již běžící aplikace;
+ * pak se aplikace ani náhradní server nespouští).
+ * Eskalace na prohlížeč je ve spuštěné aplikaci vypnutá - CAPTCHA a nerozpoznané stránky Chrome
+ * nespouští, na konci se vypíše jen jejich počet.
+ */
+public class LoadTestRunner {
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseArgs(args);
+        int concurrency = Integer.parseInt(options.getOrDefault("concurrency", "8"));
+        int requests = Integer.parseInt(options.getOrDefault("requests", "500"));
+        int keywords = Integer.parseInt(options.getOrDefault("keywords", String.valueOf(requests)));
+        long latencyMillis = Long.parseLong(options.getOrDefault("latency-ms", "50"));
+        double captchaRatio = Double.parseDouble(options.getOrDefault("captcha-ratio", "0"));
+        double noResultsRatio = Double.parseDouble(options.getOrDefault("no-results-ratio", "0"));
+        String fixture = options.getOrDefault("fixture", "google-desktop");
+        String target = options.get("target");
+        boolean virtualThreads = Boolean.parseBoolean(options.getOrDefault("virtual-threads", "false"));
+
+        FakeSerpServer fakeServer = null;
+        ConfigurableApplicationContext application = null;
+        try {
+            if (target == null) {
+                fakeServer = new FakeSerpServer(fixture, latencyMillis, captchaRatio, noResultsRatio);
+                String fakeBaseUrl = fakeServer.start();
+                application = SpringApplication.run(Application.class,
+                        "--server.port=0",
+                        "--scraper.google.base-url=" + fakeBaseUrl,
+                        // Náhradní server zdvořilostní pauzy nepotřebuje - měříme samotnou aplikaci
+                        "--scraper.politeness.min-delay-seconds=0",
+                        "--scraper.politeness.max-delay-seconds=0",
+                        "--spring.threads.virtual.enabled=" + virtualThreads,
+                        // Výsledky zátěžového testu do historie nepatří
+                        "--scraper.history.enabled=false",
+                        // Fronta by omezila souběžnost na velikost poolu - test měří propustnost aplikace
+                        "--scraper.queue.enabled=false",
+                        // Všechny požadavky přichází z jedné IP adresy
+                        "--scraper.ratelimit.enabled=false",
+                        // CAPTCHA a nerozpoznané stránky by spouštěly Chrome - eskalace se jen počítají
+                        "--scraper.browser.escalation.enabled=false",
+                        "--logging.level.cz.michalmusil=WARN");
+                target = "http://127.0.0.1:" + application.getEnvironment().getProperty("local.server.port");
+                System.out.printf("Náhradní Google: %s, aplikace: %s%n", fakeBaseUrl, target);
+            }
+
+            run(target, concurrency, requests, keywords);
+
+            if (fakeServer != null) {
+                System.out.printf("Náhradní Google: %d požadavků (CAPTCHA %d, bez výsledků %d)%n",
+                        fakeServer.getRequests(), fakeServer.getCaptchas(), fakeServer.getNoResults());
+            }
+            if (application != null) {
+                System.out.printf("Eskalace na prohlížeč (vypnuté, jen započtené): %.0f%n",
+                        application.getBean(MeterRegistry.class).find(ScrapeMetrics.ESCALATION_COUNTER).counters().stream()
+                                .mapToDouble(Counter::count)
+                                .sum());
+            }
+        } finally {
+            if (application != null) {
+                application.close();
+            }
+            if (fakeServer != null) {
+                fakeServer.close();
+            }
+        }
+    }
+
+    private static void run(String target, int concurrency, int requests, int keywords) throws InterruptedException {
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+        long[] latencies = new long[requests];
+        AtomicInteger nextRequest = new AtomicInteger();
+        AtomicLong failures = new AtomicLong();
+        Map<String, AtomicLong> outcomes = new ConcurrentHashMap<>();
+
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        long started = System.nanoTime();
+        for (int worker = 0; worker < concurrency; worker++) {
+            workers.execute(() -> {
+                int index;
+                while ((index = nextRequest.getAndIncrement()) < requests) {
+                    String keyword = "loadtest keyword " + (index % Math.max(1, keywords));
+                    HttpRequest request = HttpRequest.newBuilder(URI.create(target + "/api/scrape?keyword="
+                                    + URLEncoder.encode(keyword, StandardCharsets.UTF_8)))
+                            .timeout(Duration.ofMinutes(5))
+                            .GET()
+                            .build();
+                    long requestStart = System.nanoTime();
+                    try {
+                        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+                        String outcome = response.statusCode() + " " + response.headers().firstValue("X-Cache").orElse("-");
+                        outcomes.computeIfAbsent(outcome, key -> new AtomicLong()).incrementAndGet();
+                    } catch (Exception e) {
+                        failures.incrementAndGet();
+                        if (e instanceof InterruptedException) {
+                            Thread.currentThread().interrupt();
+                            return;
+                        }
+                    }
+                    latencies[index] = System.nanoTime() - requestStart;
+                }
+            });
+        }
+        workers.shutdown();
+        workers.awaitTermination(1, TimeUnit.HOURS);
+        long elapsed = System.nanoTime() - started;
+
+        Arrays.sort(latencies);
+        double seconds = elapsed / 1_000_000_000.0;
+        System.out.printf("Požadavků: %d, souběžnost: %d, doba: %.2f s, propustnost: %.1f req/s%n",
+                requests, concurrency, seconds, requests / seconds);
+        System.out.printf("Latence: p50 %.1f ms, p99 %.1f ms, max %.1f ms%n",
+                millis(percentile(latencies, 0.50)), millis(percentile(latencies, 0.99)), millis(latencies[latencies.length - 1]));
+        System.out.printf("Odpovědi (status X-Cache): %s, chyby spojení: %d%n", outcomes, failures.get());
+    }
+
+    private static long percentile(long[] sorted, double percentile) {
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    private static Map<String, String> parseArgs(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator > 0) {
+                options.put(arg.substring(0, separator).trim(), arg.substring(separator + 1).trim());
+            }
+        }
+        return options;
+    }
+}
@@ -0,0 +1,97 @@
+package cz.michalmusil.controllers;
+
+import cz.michalmusil.models.HistoryResponseModel;
+import cz.michalmusil.models.SearchResponseModel;
+import cz.michalmusil.services.GoogleScraperService;
+import cz.michalmusil.services.PageArchive;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * REST Controller pro archiv stažených stránek ({@link PageArchive}).
+ * Přehrání znovu spustí parser nad uloženým HTML - bez nového požadavku na Google.
+ */
+@RestController
+@RequestMapping("/api/archive")
+@CrossOrigin(origins = "*") // Pro vývoj - v produkci specifikovat konkrétní domény
+public class ArchiveController {
+
+    private static final Logger logger = LoggerFactory.getLogger(ArchiveController.class);
+
+    @Autowired
+    private PageArchive pageArchive;
+
+    @Autowired
+    private GoogleScraperService scraperService;
+
+    /**
+     * Přeparsuje archivované stránky klíčového slova současnými profily selektorů
+     * @param keyword klíčové slovní spojení (porovnává se normalizované)
+     * @param from začátek rozsahu - ISO-8601 (2024-05-01T00:00:00Z) nebo ms od epochy; volitelný
+     * @param to konec rozsahu ve stejném formátu; volitelný
+     * @param limit nejvýše tolik nejnovějších zachycení (1 až scraper.archive.max-captures); volitelný
+     * @return 200 s výsledky po zachyceních, 400 pro neplatné parametry, 503 pokud je archiv vypnutý
+     */
+    @GetMapping("/replay")
+    public ResponseEntity<HistoryResponseModel> replay(@RequestParam String keyword,
+                                                       @RequestParam(required = false) String from,
+                                                       @RequestParam(required = false) String to,
+                                                       @RequestParam(required = false) Integer limit) {
+        if (keyword == null || keyword.trim().isEmpty()) {
+            return ResponseEntity.badRequest().body(error(keyword, "Klíčové slovo nesmí být prázdné"));
+        }
+        if (!pageArchive.isEnabled()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(error(keyword, "Archiv stránek je vypnutý (scraper.archive.enabled)"));
+        }
+
+        Instant fromInstant;
+        Instant toInstant;
+        try {
+            fromInstant = HistoryController.parseInstant(from);
+            toInstant = HistoryController.parseInstant(to);
+        } catch (DateTimeParseException | NumberFormatException e) {
+            return ResponseEntity.badRequest().body(error(keyword,
+                    "Parametry from/to musí být ve formátu ISO-8601 (např. 2024-05-01T00:00:00Z) nebo v ms od epochy"));
+        }
+        if (fromInstant != null && toInstant != null && fromInstant.isAfter(toInstant)) {
+            return ResponseEntity.badRequest().body(error(keyword, "Parametr from nesmí být po parametru to"));
+        }
+        int maxCaptures = pageArchive.getMaxCaptures();
+        if (limit != null && (limit < 1 || limit > maxCaptures)) {
+            return ResponseEntity.badRequest().body(error(keyword,
+                    String.format("Parametr limit musí být v rozsahu 1 až %d", maxCaptures)));
+        }
+
+        try {
+            List<SearchResponseModel> captures = scraperService.replayArchived(keyword.trim(), fromInstant, toInstant,
+                    limit != null ? limit : maxCaptures);
+            return ResponseEntity.ok(new HistoryResponseModel(
+                    keyword.trim(),
+                    fromInstant != null ? fromInstant.toEpochMilli() : null,
+                    toInstant != null ? toInstant.toEpochMilli() : null,
+                    captures,
+                    true,
+                    String.format("Přehráno %d zachycení z archivu", captures.size())
+            ));
+        } catch (UncheckedIOException e) {
+            logger.error("Archiv: Přehrání pro '{}' selhalo: {}", keyword, e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(error(keyword, "Archivované stránky nelze načíst: " + e.getMessage()));
+        }
+    }
+
+    private static HistoryResponseModel error(String keyword, String message) {
+        return new HistoryResponseModel(keyword, null, null, new ArrayList<>(), false, message);
+    }
+}
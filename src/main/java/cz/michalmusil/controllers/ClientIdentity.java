@@ -0,0 +1,75 @@
+package cz.michalmusil.controllers;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Identifikace klienta API pro rate limit a spravedlivé střídání ve frontě scrapingů.
+ * Přednost má API klíč z hlavičky {@value #API_KEY_HEADER}, ale jen pokud je uvedený
+ * v {@code scraper.clients.api-keys} - jinak by si každý náhodný klíč vytvořil novou identitu
+ * s plným vědrem tokenů. Ostatní požadavky se identifikují IP adresou.
+ * Klíč se do identifikace (a tím do logů, metrik a konfigurace) nedostane v čitelné podobě - jen jeho zkrácený hash.
+ */
+@Component
+public class ClientIdentity {
+
+    private static final Logger logger = LoggerFactory.getLogger(ClientIdentity.class);
+
+    public static final String API_KEY_HEADER = "X-API-Key";
+
+    // Povolené API klíče jako identity key:<hash> oddělené čárkou
+    @Value("${scraper.clients.api-keys:}")
+    private List<String> apiKeySpecs = List.of();
+
+    private final Set<String> apiKeys = new HashSet<>();
+
+    @PostConstruct
+    void start() {
+        for (String spec : apiKeySpecs) {
+            if (spec.isBlank()) {
+                continue;
+            }
+            if (!spec.trim().startsWith("key:")) {
+                throw new IllegalArgumentException("Neplatný API klíč (očekáváno key:<hash>): " + spec);
+            }
+            apiKeys.add(spec.trim());
+        }
+        logger.info("ClientIdentity: povolených API klíčů: {}.", apiKeys.size());
+    }
+
+    /**
+     * @return {@code key:<hash>} pro požadavky s povoleným API klíčem, jinak {@code ip:<adresa>}
+     */
+    public String of(HttpServletRequest request) {
+        String apiKey = request.getHeader(API_KEY_HEADER);
+        if (apiKey != null && !apiKey.isBlank()) {
+            String identity = "key:" + fingerprint(apiKey.trim());
+            if (apiKeys.contains(identity)) {
+                return identity;
+            }
+            logger.debug("ClientIdentity: API klíč {} není povolen, klient se identifikuje IP adresou.", identity);
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    private static String fingerprint(String apiKey) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(apiKey.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 není k dispozici", e);
+        }
+    }
+}
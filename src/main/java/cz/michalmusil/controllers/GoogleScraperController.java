@@ -1,17 +1,38 @@
 package cz.michalmusil.controllers;
 
+import cz.michalmusil.models.BatchScrapeRequestModel;
+import cz.michalmusil.models.BatchScrapeResponseModel;
 import cz.michalmusil.models.SearchResponseModel;
-import cz.michalmusil.models.SearchResultModel;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import cz.michalmusil.services.GoogleScraperService;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import cz.michalmusil.services.BatchScrapeService;
+import cz.michalmusil.services.CachingScraperService;
+import cz.michalmusil.services.ScrapeOutcome;
+import cz.michalmusil.services.TokenBucketRateLimiter;
 
-import java.util.List;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * REST Controller pro Google scraping API
@@ -23,17 +44,41 @@ public class GoogleScraperController {
 
     private static final Logger logger = LoggerFactory.getLogger(GoogleScraperController.class);
 
+    // Newline-delimited JSON - jeden JSON objekt na řádek
+    static final String NDJSON_VALUE = "application/x-ndjson";
+
+    // Hlavička informující klienta, zda odpověď pochází z cache (HIT) nebo z nového scrapingu (MISS)
+    static final String CACHE_STATUS_HEADER = "X-Cache";
+
+    // Doporučená doba (v sekundách) před dalším pokusem, když je fronta scrapingů přetížená
+    private static final String QUEUE_RETRY_AFTER_SECONDS = "30";
+
+    @Autowired
+    private CachingScraperService scraperService;
+
+    @Autowired
+    private BatchScrapeService batchScrapeService;
+
     @Autowired
-    private GoogleScraperService scraperService;
+    private TokenBucketRateLimiter rateLimiter;
+
+    @Autowired
+    private ClientIdentity clientIdentity;
+
+    @Value("${scraper.pagination.max-pages:5}")
+    private int maxPages = 5;
 
     /**
      * Endpoint pro scraping Google výsledků
      * @param keyword klíčové slovní spojení
+     * @param pages počet stránek výsledků (1 až scraper.pagination.max-pages), výsledky mají absolutní pořadí
      * @return JSON response s výsledky
      */
     @GetMapping("/scrape")
-    public ResponseEntity<SearchResponseModel> scrapeGoogleResults(@RequestParam String keyword) {
-        logger.info("Přijat požadavek na scraping pro klíčové slovo: {}", keyword);
+    public ResponseEntity<SearchResponseModel> scrapeGoogleResults(@RequestParam String keyword,
+                                                                   @RequestParam(defaultValue = "1") int pages,
+                                                                   HttpServletRequest servletRequest) {
+        logger.info("Přijat požadavek na scraping pro klíčové slovo: {} (stránek: {})", keyword, pages);
 
         // Validace vstupu
         if (keyword == null || keyword.trim().isEmpty()) {
@@ -45,25 +90,63 @@ public class GoogleScraperController {
             );
             return ResponseEntity.badRequest().body(errorResponse);
         }
+        if (pages < 1 || pages > maxPages) {
+            return ResponseEntity.badRequest().body(new SearchResponseModel(
+                    keyword.trim(),
+                    new ArrayList<>(),
+                    false,
+                    String.format("Počet stránek musí být mezi 1 a %d", maxPages)
+            ));
+        }
 
         try {
-            // --- Zde je klíčová změna: Voláme novou Selenium metodu ---
-            List<SearchResultModel> results = scraperService.scrapeGoogleResultsSelenium(keyword.trim());
-            // --- Konec klíčové změny ---
+            // Výsledek z cache, nebo nový scraping přes Selenium
+            ScrapeOutcome outcome = scraperService.scrape(keyword.trim(), pages, clientIdentity.of(servletRequest));
 
             SearchResponseModel response = new SearchResponseModel(
                     keyword.trim(),
-                    results,
+                    outcome.getResults(),
                     true,
-                    String.format("Úspěšně nalezeno %d výsledků", results.size())
+                    String.format("Úspěšně nalezeno %d výsledků", outcome.getResults().size())
             );
+            response.setPages(pages);
+
+            logger.info("Scraping dokončen pro klíčové slovo: {}, nalezeno {} výsledků (cache: {})",
+                    keyword, outcome.getResults().size(), outcome.getCacheStatus());
+
+            CacheControl cacheControl = outcome.getMaxAgeSeconds() > 0
+                    ? CacheControl.maxAge(outcome.getMaxAgeSeconds(), TimeUnit.SECONDS)
+                    : CacheControl.noStore();
+            return ResponseEntity.ok()
+                    .cacheControl(cacheControl)
+                    .header(CACHE_STATUS_HEADER, outcome.getCacheStatus().name())
+                    .body(response);
 
-            logger.info("Scraping dokončen pro klíčové slovo: {}, nalezeno {} výsledků",
-                    keyword, results.size());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warn("Scraping pro klíčové slovo {} byl přerušen", keyword);
 
-            return ResponseEntity.ok(response);
+            SearchResponseModel errorResponse = new SearchResponseModel(
+                    keyword,
+                    new ArrayList<>(),
+                    false,
+                    "Scraping byl přerušen"
+            );
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
 
-        } catch (Exception e) { // Odstraněna specifická InterruptedException, protože Selenium metoda ji nehodí
+        } catch (RejectedExecutionException e) {
+            // Scraping čekal ve frontě déle, než je pro interaktivní požadavky povoleno
+            logger.warn("Scraping pro klíčové slovo {} odmítnut frontou: {}", keyword, e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, QUEUE_RETRY_AFTER_SECONDS)
+                    .body(new SearchResponseModel(
+                            keyword,
+                            new ArrayList<>(),
+                            false,
+                            e.getMessage()
+                    ));
+
+        } catch (Exception e) {
             logger.error("Chyba při scrapingu pro klíčové slovo {}: {}", keyword, e.getMessage(), e);
 
             SearchResponseModel errorResponse = new SearchResponseModel(
@@ -76,6 +159,118 @@ public class GoogleScraperController {
         }
     }
 
+    /**
+     * Endpoint pro dávkový scraping více klíčových slov.
+     * Vlákno požadavku se uvolní hned - odpověď se odešle až po dokončení celé dávky, proto je dávka
+     * omezena na {@code scraper.batch.sync-max-keywords}; větší dávky patří na /api/scrape/stream.
+     * Při vypršení požadavku nebo odpojení klienta se rozpracovaná dávka zruší.
+     * Dávka spotřebuje token rate limitu za každé klíčové slovo.
+     * @param request seznam klíčových slov a volitelná souběžnost
+     * @return JSON response s výsledkem pro každé klíčové slovo (včetně chyb jednotlivých slov)
+     */
+    @PostMapping("/scrape/batch")
+    public DeferredResult<ResponseEntity<BatchScrapeResponseModel>> scrapeBatch(@RequestBody BatchScrapeRequestModel request,
+                                                                                HttpServletRequest servletRequest,
+                                                                                HttpServletResponse servletResponse) {
+        DeferredResult<ResponseEntity<BatchScrapeResponseModel>> result = new DeferredResult<>();
+        List<String> keywords = request.getKeywords();
+        String validationError = validateBatch(keywords);
+        if (validationError == null && keywords.size() > batchScrapeService.getSyncMaxKeywords()) {
+            validationError = String.format("Synchronní dávka smí obsahovat nejvýše %d klíčových slov, "
+                    + "pro větší dávky použijte /api/scrape/stream", batchScrapeService.getSyncMaxKeywords());
+        }
+        if (validationError != null) {
+            result.setResult(ResponseEntity.badRequest().body(
+                    new BatchScrapeResponseModel(new ArrayList<>(), false, validationError)));
+            return result;
+        }
+        HttpStatus rejected = chargeBatch(keywords, servletRequest, servletResponse);
+        if (rejected != null) {
+            result.setResult(ResponseEntity.status(rejected).body(new BatchScrapeResponseModel(new ArrayList<>(), false,
+                    rejected == HttpStatus.BAD_REQUEST
+                            ? "Dávka stojí token za každé klíčové slovo a přesahuje limit klienta, rozdělte ji na menší"
+                            : "Na dávku nezbývá dost tokenů rate limitu (token za klíčové slovo), zkuste to znovu po Retry-After")));
+            return result;
+        }
+
+        logger.info("Přijat požadavek na dávkový scraping {} klíčových slov", keywords.size());
+        SearchResponseModel[] responses = new SearchResponseModel[keywords.size()];
+        CompletableFuture<Void> batch = batchScrapeService.scrapeEach(keywords, request.getParallelism(),
+                clientIdentity.of(servletRequest), (index, response) -> responses[index] = response);
+        result.onTimeout(() -> {
+            logger.warn("Dávkový scraping {} klíčových slov nestihl časový limit, ruším ho.", keywords.size());
+            batch.cancel(false);
+            result.setErrorResult(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(new BatchScrapeResponseModel(
+                    new ArrayList<>(), false, "Dávka nestihla časový limit, pro velké dávky použijte /api/scrape/stream")));
+        });
+        result.onError(error -> batch.cancel(false));
+        batch.thenRun(() -> {
+            BatchScrapeResponseModel batchResponse = new BatchScrapeResponseModel(Arrays.asList(responses), true, null);
+            batchResponse.setMessage(String.format("Dávka dokončena: %d úspěšných, %d chybných",
+                    batchResponse.getSucceeded(), batchResponse.getFailed()));
+            logger.info("Dávkový scraping dokončen: {}", batchResponse.getMessage());
+            result.setResult(ResponseEntity.ok(batchResponse));
+        });
+        return result;
+    }
+
+    /**
+     * Streamovaný dávkový scraping jako NDJSON - každý řádek je {@link SearchResponseModel}
+     * jednoho klíčového slova, odeslaný hned po dokončení jeho scrapingu (pořadí podle dokončení).
+     * Dávka spotřebuje token rate limitu za každé klíčové slovo.
+     * @param request seznam klíčových slov a volitelná souběžnost
+     * @return stream odpovědí ve formátu application/x-ndjson
+     */
+    @PostMapping(value = "/scrape/stream", produces = NDJSON_VALUE)
+    public ResponseEntity<ResponseBodyEmitter> streamBatch(@RequestBody BatchScrapeRequestModel request,
+                                                           HttpServletRequest servletRequest,
+                                                           HttpServletResponse servletResponse) {
+        String validationError = validateBatch(request.getKeywords());
+        if (validationError != null) {
+            return ResponseEntity.badRequest().build();
+        }
+        HttpStatus rejected = chargeBatch(request.getKeywords(), servletRequest, servletResponse);
+        if (rejected != null) {
+            return ResponseEntity.status(rejected).build();
+        }
+
+        ResponseBodyEmitter emitter = new ResponseBodyEmitter();
+        startStreaming(request.getKeywords(), request.getParallelism(), clientIdentity.of(servletRequest), emitter, response -> {
+            emitter.send(response, MediaType.APPLICATION_JSON);
+            emitter.send("\n", MediaType.TEXT_PLAIN);
+        }, () -> { });
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON_VALUE)).body(emitter);
+    }
+
+    /**
+     * Streamovaný dávkový scraping jako Server-Sent Events (kompatibilní s EventSource v prohlížeči).
+     * Každé klíčové slovo přijde jako událost "result", na konci dávky přijde událost "done".
+     * Dávka spotřebuje token rate limitu za každé klíčové slovo.
+     * @param keywords klíčová slova (parametr lze opakovat)
+     * @param parallelism volitelná souběžnost
+     * @return SSE stream odpovědí
+     */
+    @GetMapping(value = "/scrape/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamBatchSse(@RequestParam List<String> keywords,
+                                                     @RequestParam(required = false) Integer parallelism,
+                                                     HttpServletRequest servletRequest,
+                                                     HttpServletResponse servletResponse) {
+        String validationError = validateBatch(keywords);
+        if (validationError != null) {
+            return ResponseEntity.badRequest().build();
+        }
+        HttpStatus rejected = chargeBatch(keywords, servletRequest, servletResponse);
+        if (rejected != null) {
+            return ResponseEntity.status(rejected).build();
+        }
+
+        SseEmitter emitter = new SseEmitter();
+        startStreaming(keywords, parallelism, clientIdentity.of(servletRequest), emitter,
+                response -> emitter.send(SseEmitter.event().name("result").data(response, MediaType.APPLICATION_JSON)),
+                () -> emitter.send(SseEmitter.event().name("done").data(keywords.size())));
+        return ResponseEntity.ok(emitter);
+    }
+
     /**
      * Health check endpoint
      * @return status aplikace
@@ -84,4 +279,104 @@ public class GoogleScraperController {
     public ResponseEntity<String> health() {
         return ResponseEntity.ok("Google Scraper API je funkční");
     }
-}
\ No newline at end of file
+
+    /**
+     * Spustí dávku a průběžně posílá výsledky do emitteru. Výsledky se nikde nehromadí,
+     * takže paměť serveru nezávisí na velikosti dávky. Při odpojení klienta se dávka zastaví.
+     */
+    private void startStreaming(List<String> keywords, Integer parallelism, String clientId, ResponseBodyEmitter emitter,
+                                StreamWriter<SearchResponseModel> writer, StreamFinisher finisher) {
+        logger.info("Přijat požadavek na streamovaný scraping {} klíčových slov", keywords.size());
+        AtomicReference<CompletableFuture<Void>> batchRef = new AtomicReference<>();
+        // Zápis do odpovědi je blokující I/O - ReentrantLock na rozdíl od synchronized nepřipíná virtuální vlákno
+        ReentrantLock writeLock = new ReentrantLock();
+        CompletableFuture<Void> batch = batchScrapeService.scrapeEach(keywords, parallelism, clientId, (index, response) -> {
+            writeLock.lock();
+            try {
+                writer.write(response);
+            } catch (IOException e) {
+                // Klient se odpojil - další klíčová slova už nezahajujeme
+                CompletableFuture<Void> running = batchRef.get();
+                if (running != null) {
+                    running.cancel(false);
+                }
+                throw new UncheckedIOException(e);
+            } finally {
+                writeLock.unlock();
+            }
+        });
+        batchRef.set(batch);
+        emitter.onTimeout(() -> batch.cancel(false));
+        emitter.onError(error -> batch.cancel(false));
+
+        batch.whenComplete((done, error) -> {
+            if (batch.isCancelled()) {
+                logger.info("Streamovaný scraping zastaven - klient se odpojil.");
+                return;
+            }
+            writeLock.lock();
+            try {
+                finisher.finish();
+                emitter.complete();
+            } catch (IOException e) {
+                emitter.completeWithError(e);
+            } finally {
+                writeLock.unlock();
+            }
+        });
+    }
+
+    /**
+     * Zaúčtuje dávce rate limit: dávka stojí token za každé klíčové slovo. Token, který za požadavek
+     * strhl {@link RateLimitInterceptor}, se vrátí a dávka se zaplatí celá najednou - odmítnutá dávka
+     * tak klienta nestojí nic.
+     *
+     * @return null pokud je dávka zaplacená, jinak status odmítnutí - 400 pokud dávka převyšuje
+     *         kapacitu klienta (neprošla by nikdy), 429 pokud stačí počkat na doplnění
+     */
+    private HttpStatus chargeBatch(List<String> keywords, HttpServletRequest servletRequest,
+                                   HttpServletResponse servletResponse) {
+        if (!rateLimiter.isEnabled() || keywords.size() < 2) {
+            return null;
+        }
+        String clientId = clientIdentity.of(servletRequest);
+        rateLimiter.refund(clientId, 1);
+        TokenBucketRateLimiter.Decision decision = rateLimiter.tryAcquire(clientId, keywords.size());
+        if (!decision.isAllowed() && keywords.size() > decision.getLimit()) {
+            logger.warn("Rate limit: dávka {} klíčových slov klienta '{}' přesahuje jeho limit {}.",
+                    keywords.size(), clientId, decision.getLimit());
+            return HttpStatus.BAD_REQUEST;
+        }
+        RateLimitInterceptor.writeHeaders(servletResponse, decision);
+        if (decision.isAllowed()) {
+            return null;
+        }
+        logger.warn("Rate limit: na dávku {} klíčových slov klienta '{}' nezbývá dost tokenů, další pokus za {} s.",
+                keywords.size(), clientId, decision.getRetryAfterSeconds());
+        return HttpStatus.TOO_MANY_REQUESTS;
+    }
+
+    /**
+     * Validace seznamu klíčových slov pro dávkové endpointy
+     * @return chybová zpráva, nebo null pokud je seznam v pořádku
+     */
+    private String validateBatch(List<String> keywords) {
+        if (keywords == null || keywords.isEmpty()) {
+            return "Seznam klíčových slov nesmí být prázdný";
+        }
+        if (keywords.size() > batchScrapeService.getMaxKeywords()) {
+            return String.format("Dávka smí obsahovat nejvýše %d klíčových slov", batchScrapeService.getMaxKeywords());
+        }
+        return null;
+    }
+
+    @FunctionalInterface
+    private interface StreamWriter<T> {
+        void write(T item) throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface StreamFinisher {
+        void finish() throws IOException;
+    }
+}
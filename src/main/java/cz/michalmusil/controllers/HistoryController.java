@@ -0,0 +1,92 @@
+package cz.michalmusil.controllers;
+
+import cz.michalmusil.models.HistoryResponseModel;
+import cz.michalmusil.models.SearchResponseModel;
+import cz.michalmusil.services.SerpHistoryStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * REST Controller pro historii výsledků uloženou v {@link SerpHistoryStore}.
+ * Historické pořadí se čte z disku bez nového scrapingu.
+ */
+@RestController
+@RequestMapping("/api/history")
+@CrossOrigin(origins = "*") // Pro vývoj - v produkci specifikovat konkrétní domény
+public class HistoryController {
+
+    private static final Logger logger = LoggerFactory.getLogger(HistoryController.class);
+
+    @Autowired
+    private SerpHistoryStore historyStore;
+
+    /**
+     * Uložené výsledky pro klíčové slovo v časovém rozsahu
+     * @param keyword klíčové slovní spojení (porovnává se normalizované)
+     * @param from začátek rozsahu - ISO-8601 (2024-05-01T00:00:00Z) nebo ms od epochy; volitelný
+     * @param to konec rozsahu ve stejném formátu; volitelný
+     * @return 200 s historií, 400 pro neplatné parametry, 503 pokud je historie vypnutá
+     */
+    @GetMapping
+    public ResponseEntity<HistoryResponseModel> getHistory(@RequestParam String keyword,
+                                                           @RequestParam(required = false) String from,
+                                                           @RequestParam(required = false) String to) {
+        if (keyword == null || keyword.trim().isEmpty()) {
+            return ResponseEntity.badRequest().body(error(keyword, "Klíčové slovo nesmí být prázdné"));
+        }
+        if (!historyStore.isEnabled()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(error(keyword, "Historie výsledků je vypnutá (scraper.history.enabled)"));
+        }
+
+        Instant fromInstant;
+        Instant toInstant;
+        try {
+            fromInstant = parseInstant(from);
+            toInstant = parseInstant(to);
+        } catch (DateTimeParseException | NumberFormatException e) {
+            return ResponseEntity.badRequest().body(error(keyword,
+                    "Parametry from/to musí být ve formátu ISO-8601 (např. 2024-05-01T00:00:00Z) nebo v ms od epochy"));
+        }
+        if (fromInstant != null && toInstant != null && fromInstant.isAfter(toInstant)) {
+            return ResponseEntity.badRequest().body(error(keyword, "Parametr from nesmí být po parametru to"));
+        }
+
+        List<SearchResponseModel> entries = historyStore.query(keyword.trim(), fromInstant, toInstant);
+        logger.info("Historie pro klíčové slovo '{}': {} záznamů.", keyword, entries.size());
+        return ResponseEntity.ok(new HistoryResponseModel(
+                keyword.trim(),
+                fromInstant != null ? fromInstant.toEpochMilli() : null,
+                toInstant != null ? toInstant.toEpochMilli() : null,
+                entries,
+                true,
+                String.format("Nalezeno %d uložených výsledků", entries.size())
+        ));
+    }
+
+    /**
+     * Hranice časového rozsahu: ISO-8601 nebo ms od epochy; prázdná hodnota = bez omezení.
+     */
+    static Instant parseInstant(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        String trimmed = value.trim();
+        return trimmed.chars().allMatch(Character::isDigit)
+                ? Instant.ofEpochMilli(Long.parseLong(trimmed))
+                : Instant.parse(trimmed);
+    }
+
+    private static HistoryResponseModel error(String keyword, String message) {
+        return new HistoryResponseModel(keyword, null, null, new ArrayList<>(), false, message);
+    }
+}
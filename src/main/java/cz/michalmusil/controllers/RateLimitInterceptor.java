@@ -0,0 +1,100 @@
+package cz.michalmusil.controllers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import cz.michalmusil.models.SearchResponseModel;
+import cz.michalmusil.services.TokenBucketRateLimiter;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.io.IOException;
+import java.util.ArrayList;
+
+/**
+ * Rate limit pro endpointy, které spouští scraping ({@code /api/scrape/**}, {@code /api/jobs}
+ * a registrace sledování {@code POST /api/tracking}).
+ * Každý požadavek spotřebuje token klienta v {@link TokenBucketRateLimiter} (dávky zaúčtuje
+ * token za každé klíčové slovo {@link GoogleScraperController}); odpověď nese hlavičky
+ * {@code X-RateLimit-Limit}, {@code X-RateLimit-Remaining} a {@code X-RateLimit-Reset}
+ * (sekundy do úplného doplnění). Po vyčerpání tokenů se vrátí 429 s {@code Retry-After}.
+ * Interceptor se sám registruje jako {@link WebMvcConfigurer}.
+ */
+@Component
+public class RateLimitInterceptor implements HandlerInterceptor, WebMvcConfigurer {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateLimitInterceptor.class);
+
+    static final String LIMIT_HEADER = "X-RateLimit-Limit";
+    static final String REMAINING_HEADER = "X-RateLimit-Remaining";
+    static final String RESET_HEADER = "X-RateLimit-Reset";
+
+    @Autowired
+    private TokenBucketRateLimiter rateLimiter;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ClientIdentity clientIdentity;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(this).addPathPatterns("/api/scrape", "/api/scrape/**", "/api/jobs", "/api/tracking");
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws IOException {
+        // Preflight CORS scraping nespouští (stav úloh /api/jobs/{id} do vzorů cest nepatří)
+        if (!rateLimiter.isEnabled() || HttpMethod.OPTIONS.matches(request.getMethod())) {
+            return true;
+        }
+        // Sledování scrapuje jen po registraci sady (POST), výpis sad nic nespouští
+        if (request.getRequestURI().startsWith("/api/tracking") && !HttpMethod.POST.matches(request.getMethod())) {
+            return true;
+        }
+
+        String clientId = clientIdentity.of(request);
+        TokenBucketRateLimiter.Decision decision = rateLimiter.tryAcquire(clientId);
+        writeHeaders(response, decision);
+        if (decision.isAllowed()) {
+            return true;
+        }
+
+        logger.warn("Rate limit: klient '{}' vyčerpal limit pro {}, další požadavek za {} s.",
+                clientId, request.getRequestURI(), decision.getRetryAfterSeconds());
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        objectMapper.writeValue(response.getWriter(), new SearchResponseModel(
+                request.getParameter("keyword"),
+                new ArrayList<>(),
+                false,
+                String.format("Překročen limit %d požadavků, zkuste to znovu za %d s",
+                        decision.getLimit(), decision.getRetryAfterSeconds())
+        ));
+        return false;
+    }
+
+    /**
+     * Nastaví hlavičky X-RateLimit-* podle rozhodnutí, u zamítnutého i Retry-After.
+     * Hlavičky se přepisují - pozdější rozhodnutí pro tentýž požadavek (doúčtování dávky) platí.
+     */
+    static void writeHeaders(HttpServletResponse response, TokenBucketRateLimiter.Decision decision) {
+        response.setHeader(LIMIT_HEADER, String.valueOf(decision.getLimit()));
+        response.setHeader(REMAINING_HEADER, String.valueOf(decision.getRemaining()));
+        response.setHeader(RESET_HEADER, String.valueOf(decision.getResetSeconds()));
+        if (!decision.isAllowed()) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(decision.getRetryAfterSeconds()));
+        }
+    }
+}
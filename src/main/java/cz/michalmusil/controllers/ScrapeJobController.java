@@ -0,0 +1,84 @@
+package cz.michalmusil.controllers;
+
+import cz.michalmusil.models.ScrapeJobModel;
+import cz.michalmusil.models.SearchResponseModel;
+import cz.michalmusil.services.ScrapeJobService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * REST Controller pro asynchronní scraping úlohy.
+ * Na rozdíl od /api/scrape nedrží vlákno požadavku po dobu běhu Selenium.
+ */
+@RestController
+@RequestMapping("/api/jobs")
+@CrossOrigin(origins = "*") // Pro vývoj - v produkci specifikovat konkrétní domény
+public class ScrapeJobController {
+
+    private static final Logger logger = LoggerFactory.getLogger(ScrapeJobController.class);
+
+    // Doporučená doba (v sekundách) před dalším pokusem, když je fronta plná
+    private static final String RETRY_AFTER_SECONDS = "30";
+
+    @Autowired
+    private ScrapeJobService jobService;
+
+    @Autowired
+    private ClientIdentity clientIdentity;
+
+    /**
+     * Vytvoří novou scraping úlohu a okamžitě vrátí její ID
+     * @param keyword klíčové slovní spojení
+     * @return 202 s úlohou, 400 pro prázdné klíčové slovo, 429 při plné frontě
+     */
+    @PostMapping
+    public ResponseEntity<?> submitJob(@RequestParam String keyword, HttpServletRequest servletRequest) {
+        if (keyword == null || keyword.trim().isEmpty()) {
+            return ResponseEntity.badRequest().body(new SearchResponseModel(
+                    keyword,
+                    new ArrayList<>(),
+                    false,
+                    "Klíčové slovo nesmí být prázdné"
+            ));
+        }
+
+        try {
+            ScrapeJobModel job = jobService.submit(keyword.trim(), clientIdentity.of(servletRequest));
+            return ResponseEntity.accepted()
+                    .location(URI.create("/api/jobs/" + job.getId()))
+                    .body(job);
+        } catch (RejectedExecutionException e) {
+            logger.warn("Fronta úloh je plná, odmítám klíčové slovo: {}", keyword);
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS)
+                    .body(new SearchResponseModel(
+                            keyword.trim(),
+                            new ArrayList<>(),
+                            false,
+                            "Fronta úloh je plná, zkuste to později"
+                    ));
+        }
+    }
+
+    /**
+     * Vrátí stav a případně výsledky úlohy
+     * @param id ID úlohy
+     * @return úloha, nebo 404 pokud neexistuje (nebo již vypršela)
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<ScrapeJobModel> getJob(@PathVariable String id) {
+        return jobService.getJob(id)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+}
@@ -0,0 +1,75 @@
+package cz.michalmusil.controllers;
+
+import cz.michalmusil.models.SearchResponseModel;
+import cz.michalmusil.models.TrackedKeywordSetModel;
+import cz.michalmusil.models.TrackingRequestModel;
+import cz.michalmusil.services.KeywordTrackingService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collection;
+
+/**
+ * REST Controller pro pravidelné sledování sad klíčových slov.
+ * Nahrazuje externí cron skripty - běhy rozkládá {@link KeywordTrackingService} rovnoměrně do periody
+ * a výsledky se ukládají do historie (GET /api/history).
+ */
+@RestController
+@RequestMapping("/api/tracking")
+@CrossOrigin(origins = "*") // Pro vývoj - v produkci specifikovat konkrétní domény
+public class TrackingController {
+
+    @Autowired
+    private KeywordTrackingService trackingService;
+
+    /**
+     * Zaregistruje sadu klíčových slov ke sledování
+     * @param request název, klíčová slova, volitelně perioda v minutách a počet stránek
+     * @return 201 se sadou a plánem běhů, 400 pro neplatný požadavek
+     */
+    @PostMapping
+    public ResponseEntity<?> register(@RequestBody TrackingRequestModel request) {
+        try {
+            TrackedKeywordSetModel set = trackingService.register(request);
+            return ResponseEntity.created(URI.create("/api/tracking/" + set.getId())).body(set);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new SearchResponseModel(
+                    request.getName(),
+                    new ArrayList<>(),
+                    false,
+                    e.getMessage()
+            ));
+        }
+    }
+
+    @GetMapping
+    public Collection<TrackedKeywordSetModel> list() {
+        return trackingService.getSets();
+    }
+
+    /**
+     * Stav sledované sady
+     * @param id ID sady vrácené při registraci
+     * @return 200 se sadou, 404 pokud neexistuje
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<TrackedKeywordSetModel> getSet(@PathVariable String id) {
+        return trackingService.getSet(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Ukončí sledování sady
+     * @return 204, nebo 404 pokud sada neexistuje
+     */
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> unregister(@PathVariable String id) {
+        return trackingService.unregister(id)
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.notFound().build();
+    }
+}
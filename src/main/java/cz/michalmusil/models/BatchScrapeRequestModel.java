@@ -0,0 +1,41 @@
+package cz.michalmusil.models;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.List;
+
+/**
+ * Požadavek na dávkový scraping více klíčových slov.
+ */
+public class BatchScrapeRequestModel {
+
+    @JsonProperty("keywords")
+    private List<String> keywords;
+
+    // Volitelné - kolik klíčových slov se smí scrapovat souběžně
+    @JsonProperty("parallelism")
+    private Integer parallelism;
+
+    public BatchScrapeRequestModel() {
+    }
+
+    public BatchScrapeRequestModel(List<String> keywords, Integer parallelism) {
+        this.keywords = keywords;
+        this.parallelism = parallelism;
+    }
+
+    public List<String> getKeywords() {
+        return keywords;
+    }
+
+    public void setKeywords(List<String> keywords) {
+        this.keywords = keywords;
+    }
+
+    public Integer getParallelism() {
+        return parallelism;
+    }
+
+    public void setParallelism(Integer parallelism) {
+        this.parallelism = parallelism;
+    }
+}
@@ -0,0 +1,102 @@
+package cz.michalmusil.models;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.List;
+
+/**
+ * Odpověď dávkového scrapingu - jeden {@link SearchResponseModel} pro každé klíčové slovo
+ * ve stejném pořadí jako v požadavku. Selhání jednoho klíčového slova neruší celou dávku.
+ */
+public class BatchScrapeResponseModel {
+
+    @JsonProperty("results")
+    private List<SearchResponseModel> results;
+
+    @JsonProperty("total")
+    private int total;
+
+    @JsonProperty("succeeded")
+    private int succeeded;
+
+    @JsonProperty("failed")
+    private int failed;
+
+    @JsonProperty("success")
+    private boolean success;
+
+    @JsonProperty("message")
+    private String message;
+
+    @JsonProperty("timestamp")
+    private long timestamp;
+
+    public BatchScrapeResponseModel() {
+        this.timestamp = System.currentTimeMillis();
+    }
+
+    public BatchScrapeResponseModel(List<SearchResponseModel> results, boolean success, String message) {
+        this.results = results;
+        this.total = results.size();
+        this.succeeded = (int) results.stream().filter(SearchResponseModel::isSuccess).count();
+        this.failed = this.total - this.succeeded;
+        this.success = success;
+        this.message = message;
+        this.timestamp = System.currentTimeMillis();
+    }
+
+    public List<SearchResponseModel> getResults() {
+        return results;
+    }
+
+    public void setResults(List<SearchResponseModel> results) {
+        this.results = results;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public void setTotal(int total) {
+        this.total = total;
+    }
+
+    public int getSucceeded() {
+        return succeeded;
+    }
+
+    public void setSucceeded(int succeeded) {
+        this.succeeded = succeeded;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public void setFailed(int failed) {
+        this.failed = failed;
+    }
+
+    public boolean isSuccess() {
+        return success;
+    }
+
+    public void setSuccess(boolean success) {
+        this.success = success;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(long timestamp) {
+        this.timestamp = timestamp;
+    }
+}
@@ -0,0 +1,102 @@
+package cz.michalmusil.models;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.List;
+
+/**
+ * Historie výsledků pro jedno klíčové slovo - uložené odpovědi seřazené od nejstarší.
+ */
+public class HistoryResponseModel {
+
+    @JsonProperty("keyword")
+    private String keyword;
+
+    // Hranice dotazu v ms od epochy; null = bez omezení
+    @JsonProperty("from")
+    private Long from;
+
+    @JsonProperty("to")
+    private Long to;
+
+    @JsonProperty("entries")
+    private List<SearchResponseModel> entries;
+
+    @JsonProperty("count")
+    private int count;
+
+    @JsonProperty("success")
+    private boolean success;
+
+    @JsonProperty("message")
+    private String message;
+
+    public HistoryResponseModel() {
+    }
+
+    public HistoryResponseModel(String keyword, Long from, Long to, List<SearchResponseModel> entries,
+                                boolean success, String message) {
+        this.keyword = keyword;
+        this.from = from;
+        this.to = to;
+        this.entries = entries;
+        this.count = entries.size();
+        this.success = success;
+        this.message = message;
+    }
+
+    public String getKeyword() {
+        return keyword;
+    }
+
+    public void setKeyword(String keyword) {
+        this.keyword = keyword;
+    }
+
+    public Long getFrom() {
+        return from;
+    }
+
+    public void setFrom(Long from) {
+        this.from = from;
+    }
+
+    public Long getTo() {
+        return to;
+    }
+
+    public void setTo(Long to) {
+        this.to = to;
+    }
+
+    public List<SearchResponseModel> getEntries() {
+        return entries;
+    }
+
+    public void setEntries(List<SearchResponseModel> entries) {
+        this.entries = entries;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public void setCount(int count) {
+        this.count = count;
+    }
+
+    public boolean isSuccess() {
+        return success;
+    }
+
+    public void setSuccess(boolean success) {
+        this.success = success;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
@@ -0,0 +1,104 @@
+package cz.michalmusil.models;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Asynchronní scraping úloha vytvořená přes POST /api/jobs.
+ * Stav a výsledek aktualizuje pracovní vlákno, proto jsou měnitelná pole volatile.
+ */
+public class ScrapeJobModel {
+
+    public enum Status {
+        QUEUED,
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+
+    @JsonProperty("id")
+    private String id;
+
+    @JsonProperty("keyword")
+    private String keyword;
+
+    @JsonProperty("status")
+    private volatile Status status;
+
+    @JsonProperty("response")
+    private volatile SearchResponseModel response;
+
+    @JsonProperty("createdAt")
+    private long createdAt;
+
+    @JsonProperty("startedAt")
+    private volatile Long startedAt;
+
+    @JsonProperty("finishedAt")
+    private volatile Long finishedAt;
+
+    public ScrapeJobModel() {
+    }
+
+    public ScrapeJobModel(String id, String keyword) {
+        this.id = id;
+        this.keyword = keyword;
+        this.status = Status.QUEUED;
+        this.createdAt = System.currentTimeMillis();
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getKeyword() {
+        return keyword;
+    }
+
+    public void setKeyword(String keyword) {
+        this.keyword = keyword;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public SearchResponseModel getResponse() {
+        return response;
+    }
+
+    public void setResponse(SearchResponseModel response) {
+        this.response = response;
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(long createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public Long getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(Long startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public Long getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void setFinishedAt(Long finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+}
@@ -1,5 +1,6 @@
 package cz.michalmusil.models;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import java.util.List;
 
@@ -22,6 +23,11 @@ public class SearchResponseModel {
     @JsonProperty("timestamp")
     private long timestamp;
 
+    // Počet stránek výsledků Google, ze kterých odpověď vznikla; null = neuvedeno
+    @JsonProperty("pages")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Integer pages;
+
     public SearchResponseModel() {
         this.timestamp = System.currentTimeMillis();
     }
@@ -73,4 +79,12 @@ public class SearchResponseModel {
     public void setTimestamp(long timestamp) {
         this.timestamp = timestamp;
     }
+
+    public Integer getPages() {
+        return pages;
+    }
+
+    public void setPages(Integer pages) {
+        this.pages = pages;
+    }
 }
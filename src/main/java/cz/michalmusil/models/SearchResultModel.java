@@ -4,6 +4,23 @@ package cz.michalmusil.models;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 public class SearchResultModel {
+
+    /**
+     * Druh výsledku na stránce vyhledávání.
+     */
+    public enum ResultType {
+        // Běžný organický výsledek
+        ORGANIC,
+        // Zvýrazněný úryvek nad výsledky
+        FEATURED_SNIPPET,
+        // Videovýsledek
+        VIDEO
+    }
+
+    // Absolutní pořadí organického výsledku (1 = první) napříč stažené stránky
+    @JsonProperty("position")
+    private int position;
+
     @JsonProperty("title")
     private String title;
 
@@ -13,6 +30,16 @@ public class SearchResultModel {
     @JsonProperty("description")
     private String description;
 
+    // Doména cílové URL bez "www." a malými písmeny (např. "example.com")
+    @JsonProperty("domain")
+    private String domain;
+
+    @JsonProperty("snippet")
+    private String snippet;
+
+    @JsonProperty("type")
+    private ResultType type = ResultType.ORGANIC;
+
     public SearchResultModel() {
     }
 
@@ -22,6 +49,14 @@ public class SearchResultModel {
         this.description = description;
     }
 
+    public int getPosition() {
+        return position;
+    }
+
+    public void setPosition(int position) {
+        this.position = position;
+    }
+
     public String getTitle() {
         return title;
     }
@@ -46,12 +81,39 @@ public class SearchResultModel {
         this.description = description;
     }
 
+    public String getDomain() {
+        return domain;
+    }
+
+    public void setDomain(String domain) {
+        this.domain = domain;
+    }
+
+    public String getSnippet() {
+        return snippet;
+    }
+
+    public void setSnippet(String snippet) {
+        this.snippet = snippet;
+    }
+
+    public ResultType getType() {
+        return type;
+    }
+
+    public void setType(ResultType type) {
+        this.type = type;
+    }
+
     @Override
     public String toString() {
         return "SearchResultModel{" +
-                "title='" + title + '\'' +
+                "position=" + position +
+                ", title='" + title + '\'' +
                 ", url='" + url + '\'' +
                 ", description='" + description + '\'' +
+                ", domain='" + domain + '\'' +
+                ", type=" + type +
                 '}';
     }
 }
@@ -0,0 +1,91 @@
+package cz.michalmusil.models;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Stav sledování jednoho klíčového slova v sadě.
+ * Stav aktualizuje plánovač z jiných vláken, proto jsou měnitelná pole volatile.
+ */
+public class TrackedKeywordModel {
+
+    public enum Status {
+        PENDING,
+        SUCCESS,
+        RETRYING,
+        FAILED
+    }
+
+    @JsonProperty("keyword")
+    private String keyword;
+
+    @JsonProperty("status")
+    private volatile Status status;
+
+    @JsonProperty("nextRunAt")
+    private volatile Long nextRunAt;
+
+    @JsonProperty("lastRunAt")
+    private volatile Long lastRunAt;
+
+    @JsonProperty("lastResultCount")
+    private volatile int lastResultCount;
+
+    @JsonProperty("consecutiveFailures")
+    private volatile int consecutiveFailures;
+
+    public TrackedKeywordModel() {
+    }
+
+    public TrackedKeywordModel(String keyword) {
+        this.keyword = keyword;
+        this.status = Status.PENDING;
+    }
+
+    public String getKeyword() {
+        return keyword;
+    }
+
+    public void setKeyword(String keyword) {
+        this.keyword = keyword;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public Long getNextRunAt() {
+        return nextRunAt;
+    }
+
+    public void setNextRunAt(Long nextRunAt) {
+        this.nextRunAt = nextRunAt;
+    }
+
+    public Long getLastRunAt() {
+        return lastRunAt;
+    }
+
+    public void setLastRunAt(Long lastRunAt) {
+        this.lastRunAt = lastRunAt;
+    }
+
+    public int getLastResultCount() {
+        return lastResultCount;
+    }
+
+    public void setLastResultCount(int lastResultCount) {
+        this.lastResultCount = lastResultCount;
+    }
+
+    public int getConsecutiveFailures() {
+        return consecutiveFailures;
+    }
+
+    public void setConsecutiveFailures(int consecutiveFailures) {
+        this.consecutiveFailures = consecutiveFailures;
+    }
+}
@@ -0,0 +1,88 @@
+package cz.michalmusil.models;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.List;
+
+/**
+ * Sada klíčových slov sledovaná s pevnou periodou (GET /api/tracking).
+ */
+public class TrackedKeywordSetModel {
+
+    @JsonProperty("id")
+    private String id;
+
+    @JsonProperty("name")
+    private String name;
+
+    @JsonProperty("intervalMinutes")
+    private long intervalMinutes;
+
+    @JsonProperty("pages")
+    private int pages;
+
+    @JsonProperty("createdAt")
+    private long createdAt;
+
+    @JsonProperty("keywords")
+    private List<TrackedKeywordModel> keywords;
+
+    public TrackedKeywordSetModel() {
+    }
+
+    public TrackedKeywordSetModel(String id, String name, long intervalMinutes, int pages, List<TrackedKeywordModel> keywords) {
+        this.id = id;
+        this.name = name;
+        this.intervalMinutes = intervalMinutes;
+        this.pages = pages;
+        this.keywords = keywords;
+        this.createdAt = System.currentTimeMillis();
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public long getIntervalMinutes() {
+        return intervalMinutes;
+    }
+
+    public void setIntervalMinutes(long intervalMinutes) {
+        this.intervalMinutes = intervalMinutes;
+    }
+
+    public int getPages() {
+        return pages;
+    }
+
+    public void setPages(int pages) {
+        this.pages = pages;
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(long createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public List<TrackedKeywordModel> getKeywords() {
+        return keywords;
+    }
+
+    public void setKeywords(List<TrackedKeywordModel> keywords) {
+        this.keywords = keywords;
+    }
+}
@@ -0,0 +1,66 @@
+package cz.michalmusil.models;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.List;
+
+/**
+ * Požadavek na pravidelné sledování sady klíčových slov (POST /api/tracking).
+ */
+public class TrackingRequestModel {
+
+    @JsonProperty("name")
+    private String name;
+
+    @JsonProperty("keywords")
+    private List<String> keywords;
+
+    // Volitelné - perioda opakování v minutách (výchozí jednou denně)
+    @JsonProperty("intervalMinutes")
+    private Long intervalMinutes;
+
+    // Volitelné - počet stránek výsledků na klíčové slovo (výchozí 1)
+    @JsonProperty("pages")
+    private Integer pages;
+
+    public TrackingRequestModel() {
+    }
+
+    public TrackingRequestModel(String name, List<String> keywords, Long intervalMinutes, Integer pages) {
+        this.name = name;
+        this.keywords = keywords;
+        this.intervalMinutes = intervalMinutes;
+        this.pages = pages;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public List<String> getKeywords() {
+        return keywords;
+    }
+
+    public void setKeywords(List<String> keywords) {
+        this.keywords = keywords;
+    }
+
+    public Long getIntervalMinutes() {
+        return intervalMinutes;
+    }
+
+    public void setIntervalMinutes(Long intervalMinutes) {
+        this.intervalMinutes = intervalMinutes;
+    }
+
+    public Integer getPages() {
+        return pages;
+    }
+
+    public void setPages(Integer pages) {
+        this.pages = pages;
+    }
+}
@@ -0,0 +1,178 @@
+package cz.michalmusil.services;
+
+import cz.michalmusil.models.SearchResponseModel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+/**
+ * Dávkový scraping seznamu klíčových slov.
+ * Klíčová slova zpracovává několik "drah" (parallelism); každá dráha si po dokončení
+ * jednoho klíčového slova vezme další, takže se prohlížeče z {@link WebDriverPool}
+ * používají opakovaně a žádné vlákno nečeká nečinně na zdvořilostní pauzu.
+ * Požadavky na Google ale rozestupuje {@link PolitenessScheduler} (10-20 s na scraping),
+ * takže dráhy zrychlí hlavně zásahy v cache - synchronní dávka je proto omezena na
+ * {@code scraper.batch.sync-max-keywords}, aby se vešla do časového limitu požadavku.
+ */
+@Service
+public class BatchScrapeService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BatchScrapeService.class);
+
+    private final CachingScraperService scraperService;
+    private final ScrapeQueue scrapeQueue;
+
+    @Value("${scraper.batch.max-keywords:1000}")
+    private int maxKeywords;
+
+    // Limit pro /api/scrape/batch, jehož odpověď čeká na celou dávku; větší dávky patří na stream
+    @Value("${scraper.batch.sync-max-keywords:100}")
+    private int syncMaxKeywords = 100;
+
+    @Value("${scraper.batch.default-parallelism:2}")
+    private int defaultParallelism;
+
+    // Víc souběžných drah než prohlížečů v poolu nemá smysl
+    @Value("${scraper.pool.max-size:2}")
+    private int maxParallelism;
+
+    public BatchScrapeService(CachingScraperService scraperService, ScrapeQueue scrapeQueue) {
+        this.scraperService = scraperService;
+        this.scrapeQueue = scrapeQueue;
+    }
+
+    public int getMaxKeywords() {
+        return maxKeywords;
+    }
+
+    public int getSyncMaxKeywords() {
+        return syncMaxKeywords;
+    }
+
+    /**
+     * Postupně scrapuje všechna klíčová slova a každý výsledek předá callbacku hned po dokončení.
+     *
+     * Malé dávky jdou do fronty jako interaktivní, velké jako hromadné ({@link ScrapeQueue#priorityForBatch(int)}).
+     *
+     * @param keywords    seznam klíčových slov
+     * @param parallelism požadovaný počet souběžných drah (null = výchozí)
+     * @param clientId    klient pro spravedlivé střídání ve frontě scrapingů
+     * @param onResult    callback (index klíčového slova v seznamu, odpověď); volá se z různých vláken
+     * @return future dokončená, když jsou zpracována všechna klíčová slova; jejím zrušením
+     *         ({@code cancel}) se další klíčová slova přestanou zahajovat, rozpracované scrapingy
+     *         čekající ve frontě se zruší a callback už se nevolá
+     */
+    public CompletableFuture<Void> scrapeEach(List<String> keywords, Integer parallelism, String clientId,
+                                              BiConsumer<Integer, SearchResponseModel> onResult) {
+        int lanes = Math.max(1, Math.min(parallelism != null ? parallelism : defaultParallelism,
+                Math.min(maxParallelism, keywords.size())));
+        ScrapeQueue.Priority priority = scrapeQueue.priorityForBatch(keywords.size());
+        logger.info("Batch: zahajuji dávku {} klíčových slov ({} souběžných drah, fronta {}).", keywords.size(), lanes, priority);
+
+        AtomicInteger nextIndex = new AtomicInteger();
+        CompletableFuture<Void> batch = new CompletableFuture<>();
+        Set<CompletableFuture<ScrapeOutcome>> outstanding = ConcurrentHashMap.newKeySet();
+        batch.whenComplete((done, error) -> {
+            if (batch.isCancelled()) {
+                logger.info("Batch: dávka zrušena, ruším {} rozpracovaných scrapingů.", outstanding.size());
+                outstanding.forEach(future -> future.cancel(false));
+            }
+        });
+        BiConsumer<Integer, SearchResponseModel> guarded = (index, response) -> {
+            if (!batch.isCancelled()) {
+                onResult.accept(index, response);
+            }
+        };
+        List<CompletableFuture<Void>> laneFutures = new ArrayList<>(lanes);
+        for (int lane = 0; lane < lanes; lane++) {
+            CompletableFuture<Void> laneDone = new CompletableFuture<>();
+            laneFutures.add(laneDone);
+            runLane(keywords, priority, clientId, nextIndex, guarded, laneDone, batch, outstanding);
+        }
+        CompletableFuture.allOf(laneFutures.toArray(new CompletableFuture[0])).whenComplete((done, error) -> batch.complete(null));
+        return batch;
+    }
+
+    /**
+     * Zpracovává klíčová slova jedno po druhém. Okamžitě dokončené výsledky (cache, prázdné klíčové slovo)
+     * se vyřídí ve smyčce; na probíhající scraping se dráha zavěsí a pokračuje po jeho dokončení.
+     */
+    private void runLane(List<String> keywords, ScrapeQueue.Priority priority, String clientId, AtomicInteger nextIndex,
+                         BiConsumer<Integer, SearchResponseModel> onResult, CompletableFuture<Void> laneDone,
+                         CompletableFuture<Void> batch, Set<CompletableFuture<ScrapeOutcome>> outstanding) {
+        while (true) {
+            int index = nextIndex.getAndIncrement();
+            if (index >= keywords.size() || batch.isCancelled()) {
+                laneDone.complete(null);
+                return;
+            }
+
+            String keyword = keywords.get(index);
+            if (keyword == null || keyword.trim().isEmpty()) {
+                deliver(onResult, index, new SearchResponseModel(
+                        keyword,
+                        new ArrayList<>(),
+                        false,
+                        "Klíčové slovo nesmí být prázdné"
+                ));
+                continue;
+            }
+
+            CompletableFuture<ScrapeOutcome> future = scraperService.scrapeAsync(keyword.trim(), 1, priority, clientId, () -> { });
+            if (future.isDone()) {
+                future.whenComplete((outcome, error) -> deliverOutcome(onResult, index, keyword.trim(), outcome, error));
+                continue;
+            }
+            outstanding.add(future);
+            if (batch.isCancelled()) {
+                // Dávka se zrušila mezi kontrolou a zahájením scrapingu
+                future.cancel(false);
+            }
+            future.whenComplete((outcome, error) -> {
+                outstanding.remove(future);
+                deliverOutcome(onResult, index, keyword.trim(), outcome, error);
+                runLane(keywords, priority, clientId, nextIndex, onResult, laneDone, batch, outstanding);
+            });
+            return;
+        }
+    }
+
+    private void deliverOutcome(BiConsumer<Integer, SearchResponseModel> onResult, int index, String keyword,
+                                ScrapeOutcome outcome, Throwable error) {
+        if (error == null) {
+            deliver(onResult, index, new SearchResponseModel(
+                    keyword,
+                    outcome.getResults(),
+                    true,
+                    String.format("Úspěšně nalezeno %d výsledků", outcome.getResults().size())
+            ));
+        } else {
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            logger.error("Batch: chyba při scrapingu pro klíčové slovo '{}': {}", keyword, cause.getMessage());
+            deliver(onResult, index, new SearchResponseModel(
+                    keyword,
+                    new ArrayList<>(),
+                    false,
+                    "Chyba při získávání výsledků: " + cause.getMessage()
+            ));
+        }
+    }
+
+    private void deliver(BiConsumer<Integer, SearchResponseModel> onResult, int index, SearchResponseModel response) {
+        try {
+            onResult.accept(index, response);
+        } catch (RuntimeException e) {
+            logger.warn("Batch: callback pro výsledek #{} selhal: {}", index, e.getMessage());
+        }
+    }
+}
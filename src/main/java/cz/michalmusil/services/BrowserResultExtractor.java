@@ -0,0 +1,155 @@
+package cz.michalmusil.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import cz.michalmusil.models.SearchResultModel;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Extrakce výsledků vyhledávání přímo v prohlížeči jedním {@code executeScript}.
+ * Místo celého DOM ({@code getPageSource()}) a jeho parsování přes Jsoup se z prohlížeče přenese
+ * jen kompaktní JSON s poli výsledků. Pravidla odpovídají {@link SerpResultExtractor}: vnořené
+ * kontejnery se přeskočí, pro každé pole se vezme první vyhovující element, reklamy se vynechají.
+ * <p>
+ * Selektory profilu jsou v syntaxi Jsoup; alternativy, kterým CSS prohlížeče nerozumí
+ * (např. {@code :matchesOwn}, regulární výrazy v atributech), se v prohlížeči vynechají.
+ * Štítky reklam ("Sponzorováno", "Reklama", ...) proto skript hledá vlastní kontrolou textu.
+ */
+@Component
+public class BrowserResultExtractor {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final TypeReference<List<Map<String, String>>> RESULTS_TYPE = new TypeReference<>() {
+    };
+
+    // Klíče výsledku v JSON: t=titulek, u=href, s=úryvek, d=popis, m=zobrazená doména,
+    // y=typ (O = organický, F = featured snippet, V = video)
+    private static final String EXTRACT_SCRIPT = """
+            var q = arguments[0];
+            function browserQuery(list) {
+                if (!list) {
+                    return null;
+                }
+                var parts = [], depth = 0, start = 0;
+                for (var i = 0; i < list.length; i++) {
+                    var ch = list.charAt(i);
+                    if (ch === '(' || ch === '[') {
+                        depth++;
+                    } else if (ch === ')' || ch === ']') {
+                        depth--;
+                    } else if (ch === ',' && depth === 0) {
+                        parts.push(list.substring(start, i));
+                        start = i + 1;
+                    }
+                }
+                parts.push(list.substring(start));
+                var fragment = document.createDocumentFragment();
+                var supported = parts.map(function (part) { return part.trim(); }).filter(function (part) {
+                    try {
+                        fragment.querySelector(part);
+                        return part.length > 0;
+                    } catch (e) {
+                        return false;
+                    }
+                });
+                return supported.length ? supported.join(', ') : null;
+            }
+            var container = browserQuery(q.container);
+            if (!container) {
+                throw new Error('Selektor kontejneru nelze v prohlížeči použít: ' + q.container);
+            }
+            var sel = {
+                title: browserQuery(q.title), url: browserQuery(q.url), snippet: browserQuery(q.snippet),
+                description: browserQuery(q.description), domain: browserQuery(q.domain),
+                ad: browserQuery(q.ad), featured: browserQuery(q.featured), video: browserQuery(q.video)
+            };
+            var adLabel = /^(ad|ads|sponsored|sponzorováno|reklama)$/i, adLink = /^sponsored\\b/i;
+            function first(element, query) {
+                return query ? (element.matches(query) ? element : element.querySelector(query)) : null;
+            }
+            function text(element) {
+                return element ? element.textContent.replace(/\\s+/g, ' ').trim() : null;
+            }
+            function ownText(element) {
+                var value = '';
+                for (var node = element.firstChild; node; node = node.nextSibling) {
+                    if (node.nodeType === 3) {
+                        value += node.nodeValue;
+                    }
+                }
+                return value.trim();
+            }
+            function isAd(element) {
+                if (first(element, sel.ad) || first(element, '[class*="sponsored" i]')) {
+                    return true;
+                }
+                var labels = element.querySelectorAll('span, a');
+                for (var i = 0; i < labels.length; i++) {
+                    var label = ownText(labels[i]);
+                    if (labels[i].tagName === 'SPAN' ? adLabel.test(label) : adLink.test(label)) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+            var results = [];
+            document.querySelectorAll(container).forEach(function (element) {
+                if ((element.parentElement && element.parentElement.closest(container)) || isAd(element)) {
+                    return;
+                }
+                var link = first(element, sel.url);
+                results.push({
+                    t: text(first(element, sel.title)),
+                    u: link ? link.getAttribute('href') : null,
+                    s: text(first(element, sel.snippet)),
+                    d: text(first(element, sel.description)),
+                    m: text(first(element, sel.domain)),
+                    y: sel.featured && element.closest(sel.featured) ? 'F' : (first(element, sel.video) ? 'V' : 'O')
+                });
+            });
+            return JSON.stringify(results);
+            """;
+
+    /**
+     * Vytáhne organické výsledky z aktuální stránky prohlížeče jedním profilem selektorů.
+     *
+     * @return výsledky v pořadí dokumentu (bez reklam)
+     * @throws RuntimeException pokud skript selže nebo nevrátí platný JSON - volající pak použije Jsoup
+     */
+    public List<SerpResultExtractor.ExtractedResult> extract(WebDriver driver, SerpSelectors selectors) {
+        Object json = ((JavascriptExecutor) driver).executeScript(EXTRACT_SCRIPT, selectors.getQueries());
+        if (!(json instanceof String value)) {
+            throw new IllegalStateException("Extrakční skript nevrátil JSON");
+        }
+        List<Map<String, String>> raw;
+        try {
+            raw = MAPPER.readValue(value, RESULTS_TYPE);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Extrakční skript vrátil neplatný JSON: " + e.getOriginalMessage(), e);
+        }
+
+        List<SerpResultExtractor.ExtractedResult> results = new ArrayList<>(raw.size());
+        for (Map<String, String> result : raw) {
+            results.add(new SerpResultExtractor.ExtractedResult(result.get("t"), result.get("u"), result.get("s"),
+                    result.get("d"), result.get("m"), resultType(result.get("y")), false));
+        }
+        return results;
+    }
+
+    private static SearchResultModel.ResultType resultType(String code) {
+        if ("F".equals(code)) {
+            return SearchResultModel.ResultType.FEATURED_SNIPPET;
+        }
+        if ("V".equals(code)) {
+            return SearchResultModel.ResultType.VIDEO;
+        }
+        return SearchResultModel.ResultType.ORGANIC;
+    }
+}
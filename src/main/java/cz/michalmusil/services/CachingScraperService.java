@@ -0,0 +1,236 @@
+package cz.michalmusil.services;
+
+import cz.michalmusil.models.SearchResponseModel;
+import cz.michalmusil.models.SearchResultModel;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Vrstva nad {@link GoogleScraperService}, která nejprve zkusí {@link ScrapeResultCache}
+ * a teprve při chybějícím záznamu spustí nový scraping.
+ * Souběžné požadavky na stejné (normalizované) klíčové slovo sdílí jediný probíhající scraping
+ * (single-flight), takže se nespouští více prohlížečů ani požadavků na Google pro totéž.
+ * Každý požadavek dostane vlastní future; když ji zruší všichni čekající, scraping se odebere z fronty.
+ */
+@Service
+public class CachingScraperService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CachingScraperService.class);
+
+    private final GoogleScraperService scraperService;
+    private final ScrapeResultCache cache;
+    private final SerpHistoryStore historyStore;
+    private final ScrapeQueue scrapeQueue;
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    // Probíhající scrapingy podle normalizovaného klíčového slova
+    private final Map<String, InFlightScrape> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong coalesced = new AtomicLong();
+
+    public CachingScraperService(GoogleScraperService scraperService, ScrapeResultCache cache,
+                                 SerpHistoryStore historyStore, ScrapeQueue scrapeQueue) {
+        this.scraperService = scraperService;
+        this.cache = cache;
+        this.historyStore = historyStore;
+        this.scrapeQueue = scrapeQueue;
+    }
+
+    @PostConstruct
+    void registerMetrics() {
+        if (meterRegistry == null) {
+            return;
+        }
+        FunctionCounter.builder("scraper.scrape.coalesced", coalesced, AtomicLong::get)
+                .description("Počet požadavků, které se připojily k již probíhajícímu scrapingu")
+                .register(meterRegistry);
+        Gauge.builder("scraper.scrape.in.flight", inFlight, Map::size).register(meterRegistry);
+    }
+
+    /**
+     * Synchronní scraping přes cache.
+     *
+     * @param keyword klíčové slovo (již oříznuté)
+     * @return výsledky a informace o cache
+     * @throws InterruptedException pokud je čekání na výsledek přerušeno
+     */
+    public ScrapeOutcome scrape(String keyword) throws InterruptedException {
+        return scrape(keyword, 1);
+    }
+
+    /**
+     * Synchronní scraping zadaného počtu stránek výsledků přes cache.
+     *
+     * @param keyword klíčové slovo (již oříznuté)
+     * @param pages   počet stránek výsledků (1 = jen první stránka)
+     * @return výsledky a informace o cache
+     * @throws InterruptedException pokud je čekání na výsledek přerušeno
+     */
+    public ScrapeOutcome scrape(String keyword, int pages) throws InterruptedException {
+        return scrape(keyword, pages, ScrapeQueue.DEFAULT_CLIENT);
+    }
+
+    /**
+     * Synchronní interaktivní scraping za daného klienta.
+     */
+    public ScrapeOutcome scrape(String keyword, int pages, String clientId) throws InterruptedException {
+        try {
+            return scrapeAsync(keyword, pages, ScrapeQueue.Priority.INTERACTIVE, clientId, () -> { }).get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new CompletionException(cause);
+        }
+    }
+
+    public CompletableFuture<ScrapeOutcome> scrapeAsync(String keyword) {
+        return scrapeAsync(keyword, () -> { });
+    }
+
+    /**
+     * Asynchronní scraping přes cache.
+     *
+     * @param keyword klíčové slovo (již oříznuté)
+     * @param onStart callback zavolaný, když skutečný scraping začne (při zásahu v cache se nevolá);
+     *                u požadavku připojeného k probíhajícímu scrapingu se zavolá hned, nebo až ten začne
+     */
+    public CompletableFuture<ScrapeOutcome> scrapeAsync(String keyword, Runnable onStart) {
+        return scrapeAsync(keyword, 1, onStart);
+    }
+
+    /**
+     * Asynchronní scraping zadaného počtu stránek výsledků přes cache.
+     * Každá hloubka se ukládá pod vlastním klíčem.
+     */
+    public CompletableFuture<ScrapeOutcome> scrapeAsync(String keyword, int pages, Runnable onStart) {
+        return scrapeAsync(keyword, pages, ScrapeQueue.Priority.INTERACTIVE, ScrapeQueue.DEFAULT_CLIENT, onStart);
+    }
+
+    /**
+     * Asynchronní scraping přes cache a frontu ({@link ScrapeQueue}). Do fronty jde jen skutečný scraping;
+     * zásah v cache i připojení k probíhajícímu scrapingu se vyřídí hned.
+     *
+     * @param priority třída požadavku (interaktivní má přednost před hromadným)
+     * @param clientId klient pro spravedlivé střídání ve frontě
+     */
+    public CompletableFuture<ScrapeOutcome> scrapeAsync(String keyword, int pages, ScrapeQueue.Priority priority,
+                                                        String clientId, Runnable onStart) {
+        String cacheKey = cacheKey(keyword, pages);
+        Optional<ScrapeResultCache.CachedResults> cached = cache.get(cacheKey);
+        if (cached.isPresent()) {
+            logger.info("Cache: zásah pro klíčové slovo '{}'.", keyword);
+            return CompletableFuture.completedFuture(new ScrapeOutcome(
+                    cached.get().getResults(), ScrapeOutcome.CacheStatus.HIT, cached.get().getRemainingTtlSeconds()));
+        }
+
+        InFlightScrape scrape = new InFlightScrape();
+        InFlightScrape existing = inFlight.putIfAbsent(cacheKey, scrape);
+        if (existing != null) {
+            coalesced.incrementAndGet();
+            logger.info("Single-flight: připojuji se k probíhajícímu scrapingu pro klíčové slovo '{}'.", keyword);
+            existing.started.thenRun(onStart);
+            return existing.attach(outcome -> new ScrapeOutcome(
+                    outcome.getResults(), ScrapeOutcome.CacheStatus.COALESCED, outcome.getMaxAgeSeconds()));
+        }
+
+        CompletableFuture<ScrapeOutcome> leader = scrape.result;
+        CompletableFuture<ScrapeOutcome> caller = scrape.attach(outcome -> outcome);
+        Runnable onLeaderStart = () -> {
+            onStart.run();
+            scrape.started.complete(null);
+        };
+        try {
+            scrape.queued = scrapeQueue.submit(priority, clientId, () -> scraperService.scrapeGoogleResultsAsync(keyword, pages, onLeaderStart));
+            scrape.queued.whenComplete((results, error) -> {
+                // Nejdřív uložit do cache, pak uvolnit klíč - nový požadavek tak najde výsledek v cache
+                ScrapeOutcome outcome = error == null
+                        ? new ScrapeOutcome(results, ScrapeOutcome.CacheStatus.MISS, store(keyword, pages, cacheKey, results))
+                        : null;
+                inFlight.remove(cacheKey, scrape);
+                if (error == null) {
+                    leader.complete(outcome);
+                } else {
+                    leader.completeExceptionally(error);
+                }
+            });
+        } catch (RuntimeException e) {
+            inFlight.remove(cacheKey, scrape);
+            leader.completeExceptionally(e);
+        }
+        return caller;
+    }
+
+    /**
+     * Klíč cache: normalizované klíčové slovo, u více stránek doplněné o jejich počet.
+     */
+    private static String cacheKey(String keyword, int pages) {
+        String normalized = KeywordNormalizer.normalize(keyword);
+        return pages > 1 ? normalized + "#pages=" + pages : normalized;
+    }
+
+    /**
+     * Uloží výsledky nového scrapingu do cache a do historie ({@link SerpHistoryStore}).
+     * Záznam historie nese počet stránek - výsledky z různé hloubky nejsou srovnatelné.
+     * Prázdné výsledky se neukládají - obvykle znamenají blokaci nebo změnu HTML struktury,
+     * ne skutečně prázdné vyhledávání.
+     *
+     * @return doba platnosti uloženého záznamu v sekundách, 0 pokud se neukládalo
+     */
+    private long store(String keyword, int pages, String cacheKey, List<SearchResultModel> results) {
+        if (results == null || results.isEmpty()) {
+            return 0;
+        }
+        SearchResponseModel response = new SearchResponseModel(keyword, results, true,
+                String.format("Úspěšně nalezeno %d výsledků", results.size()));
+        response.setPages(pages);
+        historyStore.append(response);
+        return cache.put(cacheKey, results).map(ScrapeResultCache.CachedResults::getRemainingTtlSeconds).orElse(0L);
+    }
+
+    /**
+     * Probíhající scraping jednoho klíče: výsledek sdílený všemi požadavky a signál, že scraping začal
+     * (připojené požadavky podle něj volají svůj {@code onStart}).
+     */
+    private static final class InFlightScrape {
+
+        private final CompletableFuture<ScrapeOutcome> result = new CompletableFuture<>();
+        private final CompletableFuture<Void> started = new CompletableFuture<>();
+        private final AtomicInteger waiters = new AtomicInteger();
+        private volatile CompletableFuture<List<SearchResultModel>> queued;
+
+        /**
+         * Future pro dalšího čekajícího; zrušení poslední z nich zruší i scraping ve frontě.
+         */
+        CompletableFuture<ScrapeOutcome> attach(Function<ScrapeOutcome, ScrapeOutcome> mapper) {
+            waiters.incrementAndGet();
+            CompletableFuture<ScrapeOutcome> future = result.thenApply(mapper);
+            future.whenComplete((outcome, error) -> {
+                CompletableFuture<List<SearchResultModel>> pending = queued;
+                if (future.isCancelled() && waiters.decrementAndGet() == 0 && pending != null) {
+                    pending.cancel(false);
+                }
+            });
+            return future;
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package cz.michalmusil.services;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Pool odchozích identit (HTTP proxy) pro Chrome i HTTP vrstvu.
+ * Každá proxy má skóre (klouzavý podíl úspěšných požadavků); po blokaci (CAPTCHA, HTTP 429)
+ * se na čas vyřadí a při opakovaných blokacích se doba vyřazení zdvojnásobuje.
+ * Přednost má proxy, která byla zablokována nejdávněji, pak ta s vyšším skóre
+ * a nakonec ta, která byla nejdéle nepoužita. Bez nakonfigurovaných proxy se jde napřímo.
+ */
+@Component
+public class EgressProxyPool {
+
+    private static final Logger logger = LoggerFactory.getLogger(EgressProxyPool.class);
+
+    // Váha posledního požadavku ve skóre proxy
+    private static final double SCORE_SMOOTHING = 0.2;
+
+    static final String OUTCOME_SUCCESS = "success";
+    static final String OUTCOME_BLOCKED = "blocked";
+    static final String OUTCOME_FAILURE = "failure";
+
+    // Seznam proxy oddělený čárkou, např. "http://10.0.0.1:3128,10.0.0.2:3128"; prázdný = přímé spojení
+    @Value("${scraper.egress.proxies:}")
+    private List<String> proxySpecs = List.of();
+
+    @Value("${scraper.egress.cooldown-seconds:300}")
+    private long cooldownSeconds;
+
+    @Value("${scraper.egress.max-cooldown-seconds:3600}")
+    private long maxCooldownSeconds;
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    private final List<EgressProxy> proxies = new ArrayList<>();
+    private final ReentrantLock lock = new ReentrantLock();
+
+    @PostConstruct
+    void start() {
+        for (String spec : proxySpecs) {
+            if (spec != null && !spec.isBlank()) {
+                proxies.add(EgressProxy.parse(spec.trim()));
+            }
+        }
+        if (proxies.isEmpty()) {
+            logger.info("Egress: žádné proxy nenakonfigurovány, požadavky jdou napřímo.");
+            return;
+        }
+        logger.info("Egress: nakonfigurováno {} proxy.", proxies.size());
+        if (meterRegistry != null) {
+            for (EgressProxy proxy : proxies) {
+                Gauge.builder("scraper.egress.score", proxy, EgressProxy::getScore)
+                        .tag("proxy", proxy.getId())
+                        .description("Klouzavý podíl úspěšných požadavků přes proxy (0-1)")
+                        .register(meterRegistry);
+            }
+            Gauge.builder("scraper.egress.cooling.down", this, EgressProxyPool::getCoolingDownCount)
+                    .description("Počet proxy dočasně vyřazených po blokaci")
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Vybere odchozí identitu pro další požadavek.
+     *
+     * @return nejvhodnější proxy, nebo {@link EgressProxy#DIRECT}, pokud žádné nejsou nakonfigurovány
+     */
+    public EgressProxy acquire() {
+        if (proxies.isEmpty()) {
+            return EgressProxy.DIRECT;
+        }
+        long now = System.currentTimeMillis();
+        lock.lock();
+        try {
+            EgressProxy selected = proxies.stream()
+                    .filter(proxy -> !proxy.isCoolingDown(now))
+                    .min(Comparator.comparingLong((EgressProxy proxy) -> proxy.lastBlockedAt)
+                            .thenComparing(Comparator.comparingDouble(EgressProxy::getScore).reversed())
+                            .thenComparingLong(proxy -> proxy.lastAcquiredAt))
+                    .orElse(null);
+            if (selected == null) {
+                // Všechny proxy jsou vyřazené - použijeme tu, které vyřazení skončí nejdřív
+                selected = proxies.stream().min(Comparator.comparingLong(proxy -> proxy.cooldownUntil)).orElseThrow();
+                logger.warn("Egress: všechny proxy jsou po blokaci vyřazené, používám '{}' (vyřazena ještě {} s).",
+                        selected.getId(), TimeUnit.MILLISECONDS.toSeconds(selected.cooldownUntil - now));
+            }
+            selected.lastAcquiredAt = now;
+            return selected;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Požadavek přes proxy proběhl bez blokace.
+     */
+    public void recordSuccess(EgressProxy proxy) {
+        record(proxy, OUTCOME_SUCCESS);
+    }
+
+    /**
+     * Google proxy zablokoval (CAPTCHA, HTTP 429) - proxy se na čas vyřadí.
+     */
+    public void recordBlock(EgressProxy proxy) {
+        record(proxy, OUTCOME_BLOCKED);
+    }
+
+    /**
+     * Síťová chyba nebo timeout - snižuje skóre, ale proxy nevyřazuje.
+     */
+    public void recordFailure(EgressProxy proxy) {
+        record(proxy, OUTCOME_FAILURE);
+    }
+
+    /**
+     * Zda je proxy právě vyřazená po blokaci (prohlížeče s ní se nemají znovu použít).
+     */
+    public boolean isCoolingDown(EgressProxy proxy) {
+        return proxy != null && proxy.isCoolingDown(System.currentTimeMillis());
+    }
+
+    public int getCoolingDownCount() {
+        long now = System.currentTimeMillis();
+        return (int) proxies.stream().filter(proxy -> proxy.isCoolingDown(now)).count();
+    }
+
+    public List<EgressProxy> getProxies() {
+        return List.copyOf(proxies);
+    }
+
+    private void record(EgressProxy proxy, String outcome) {
+        if (proxy == null || proxy == EgressProxy.DIRECT) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        lock.lock();
+        try {
+            double sample = OUTCOME_SUCCESS.equals(outcome) ? 1.0 : 0.0;
+            proxy.score = proxy.score * (1 - SCORE_SMOOTHING) + sample * SCORE_SMOOTHING;
+            if (OUTCOME_BLOCKED.equals(outcome)) {
+                proxy.consecutiveBlocks++;
+                proxy.lastBlockedAt = now;
+                long cooldownMillis = TimeUnit.SECONDS.toMillis(Math.min(maxCooldownSeconds,
+                        cooldownSeconds << Math.min(proxy.consecutiveBlocks - 1, 20)));
+                proxy.cooldownUntil = now + cooldownMillis;
+                logger.warn("Egress: proxy '{}' zablokována ({}. za sebou), vyřazena na {} s.",
+                        proxy.getId(), proxy.consecutiveBlocks, TimeUnit.MILLISECONDS.toSeconds(cooldownMillis));
+            } else if (OUTCOME_SUCCESS.equals(outcome)) {
+                proxy.consecutiveBlocks = 0;
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (meterRegistry != null) {
+            meterRegistry.counter("scraper.egress.requests", "proxy", proxy.getId(), "outcome", outcome).increment();
+        }
+    }
+
+    /**
+     * Jedna odchozí identita (HTTP proxy). Stav mění jen {@link EgressProxyPool} pod zámkem.
+     */
+    public static class EgressProxy {
+
+        public static final EgressProxy DIRECT = new EgressProxy("direct", null);
+
+        private final String id;
+        private final InetSocketAddress address;
+
+        private volatile double score = 1.0;
+        private volatile long lastBlockedAt;
+        private volatile long lastAcquiredAt;
+        private volatile long cooldownUntil;
+        private int consecutiveBlocks;
+
+        EgressProxy(String id, InetSocketAddress address) {
+            this.id = id;
+            this.address = address;
+        }
+
+        /**
+         * @param spec "host:port" nebo "http://host:port"
+         * @throws IllegalArgumentException pro neplatnou adresu nebo jiné schéma než http
+         */
+        static EgressProxy parse(String spec) {
+            URI uri = URI.create(spec.contains("://") ? spec : "http://" + spec);
+            if (!"http".equalsIgnoreCase(uri.getScheme()) || uri.getHost() == null || uri.getPort() <= 0) {
+                throw new IllegalArgumentException("Neplatná proxy '" + spec + "', očekáváno http://host:port");
+            }
+            return new EgressProxy(uri.getHost() + ":" + uri.getPort(),
+                    InetSocketAddress.createUnresolved(uri.getHost(), uri.getPort()));
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        /**
+         * @return adresa proxy, nebo null pro přímé spojení
+         */
+        public InetSocketAddress getAddress() {
+            return address;
+        }
+
+        public boolean isDirect() {
+            return address == null;
+        }
+
+        /**
+         * Hodnota pro přepínač Chrome {@code --proxy-server}.
+         */
+        public String toProxyServerArgument() {
+            return "http://" + id;
+        }
+
+        public double getScore() {
+            return score;
+        }
+
+        boolean isCoolingDown(long now) {
+            return cooldownUntil > now;
+        }
+    }
+}
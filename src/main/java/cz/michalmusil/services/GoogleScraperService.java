@@ -1,40 +1,53 @@
 package cz.michalmusil.services;
 
+import cz.michalmusil.models.SearchResponseModel;
 import cz.michalmusil.models.SearchResultModel;
 import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
-import org.jsoup.select.Elements;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Random;
-import java.util.concurrent.TimeUnit; // Stále potřebujeme pro Thread.sleep
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 
 // Selenium Imports
-import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
 import org.openqa.selenium.WebDriver;
-import org.openqa.selenium.chrome.ChromeDriver;
-import org.openqa.selenium.chrome.ChromeOptions;
-import org.openqa.selenium.support.ui.ExpectedConditions;
 import org.openqa.selenium.support.ui.WebDriverWait;
 import java.time.Duration; // Důležité pro WebDriverWait v novějších verzích Selenium
 import org.openqa.selenium.TimeoutException;
 
-// WebDriverManager Import (pro automatické stažení ChromeDriveru)
-import io.github.bonigarcia.wdm.WebDriverManager;
-
 @Service
 public class GoogleScraperService {
 
     private static final Logger logger = LoggerFactory.getLogger(GoogleScraperService.class);
 
-    // Rozšířený seznam USER_AGENTS pro případné použití s Jsoup nebo pro nastavení v Selenium
-    private static final String[] USER_AGENTS = {
+    // Rozšířený seznam USER_AGENTS pro HTTP vrstvu i pro nastavení v Selenium
+    static final String[] USER_AGENTS = {
             "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/126.0.0.0 Safari/537.36",
             "Mozilla/5.0 (Windows NT 10.0; Win64; x64; rv:127.0) Gecko/20100101 Firefox/127.0",
             "Mozilla/5.0 (Macintosh; Intel Mac OS X 10_15_7) AppleWebKit/605.1.15 (KHTML, like Gecko) Version/17.5 Safari/605.1.15",
@@ -49,243 +62,750 @@ public class GoogleScraperService {
             "Mozilla/5.0 (iPad; CPU OS 17_5_1 like Mac OS X) AppleWebKit/605.1.15 (KHTML, like Gecko) Version/17.0 Mobile/15E148 Safari/604.1"
     };
 
-    private final Random random = new Random();
+    static final String DEFAULT_GOOGLE_BASE_URL = "https://www.google.com";
+
+    // Součet transferSize dokumentu a všech zdrojů stránky (Performance API)
+    private static final String TRANSFERRED_BYTES_SCRIPT = """
+            return performance.getEntriesByType('navigation').concat(performance.getEntriesByType('resource'))
+                .reduce(function (total, entry) { return total + (entry.transferSize || 0); }, 0);
+            """;
+
+    // Google standardně vrací 10 výsledků na stránku; parametr start je posun o celé stránky
+    private static final int RESULTS_PER_PAGE = 10;
+
+    // Nejdelší čekání na rozpoznání stránky v prohlížeči a interval kontrol
+    private static final long BROWSER_WAIT_SECONDS = 45;
+    private static final Duration BROWSER_WAIT_POLLING = Duration.ofMillis(200);
+
+    // Názvy vrstev pro metriku scraper.fetch.tier
+    private static final String TIER_HTTP = "http";
+    private static final String TIER_BROWSER = "browser";
+
+    private final WebDriverPool webDriverPool;
+    private final PolitenessScheduler politenessScheduler;
+    private final HttpFetchTier httpFetchTier;
+    private final EgressProxyPool egressPool;
+    private final SerpResultExtractor resultExtractor;
+    private final SelectorProfileRegistry selectorProfiles;
+    private final BrowserResultExtractor browserExtractor;
+    private final ScrapeMetrics metrics;
+    private final PageArchive pageArchive;
+
+    // Extrakce výsledků skriptem v prohlížeči místo přenosu celého DOM (při selhání se použije Jsoup)
+    @Value("${scraper.browser.in-browser-extraction:false}")
+    private boolean inBrowserExtraction;
+
+    // Eskalace z HTTP vrstvy na Selenium; vypnutá (zátěžové testy bez Chrome) jen započítá, že by nastala
+    @Value("${scraper.browser.escalation.enabled:true}")
+    private boolean escalationEnabled = true;
+
+    // Adresa Google (pro zátěžové testy lze přesměrovat na lokální náhradní server)
+    @Value("${scraper.google.base-url:" + DEFAULT_GOOGLE_BASE_URL + "}")
+    private String googleBaseUrl = DEFAULT_GOOGLE_BASE_URL;
+
+    // Cíl, pro který PolitenessScheduler hlídá tempo požadavků (host z base URL)
+    private String googleTarget;
+
+    // Vláken pro práci s prohlížečem stačí tolik, kolik je prohlížečů v poolu
+    @Value("${scraper.pool.max-size:2}")
+    private int browserThreads = 2;
+
+    // Režim virtuálních vláken (Java 21) - sdílí přepínač se Spring Bootem (Tomcat, plánovače)
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    // Nejvyšší počet stránek výsledků na jedno klíčové slovo a pauza mezi nimi v jedné relaci
+    @Value("${scraper.pagination.max-pages:5}")
+    private int maxPages = 5;
+
+    @Value("${scraper.pagination.page-delay-millis:2000}")
+    private long pageDelayMillis;
+
+    private ExecutorService browserExecutor;
+
+    public GoogleScraperService(WebDriverPool webDriverPool, PolitenessScheduler politenessScheduler,
+                                HttpFetchTier httpFetchTier, EgressProxyPool egressPool,
+                                SerpResultExtractor resultExtractor, SelectorProfileRegistry selectorProfiles,
+                                BrowserResultExtractor browserExtractor, ScrapeMetrics metrics, PageArchive pageArchive) {
+        this.webDriverPool = webDriverPool;
+        this.politenessScheduler = politenessScheduler;
+        this.httpFetchTier = httpFetchTier;
+        this.egressPool = egressPool;
+        this.resultExtractor = resultExtractor;
+        this.selectorProfiles = selectorProfiles;
+        this.browserExtractor = browserExtractor;
+        this.metrics = metrics;
+        this.pageArchive = pageArchive;
+    }
+
+    @PostConstruct
+    void start() {
+        googleTarget = URI.create(googleBaseUrl).getHost();
+        // Počet souběžných úloh zůstává omezen velikostí poolu; virtuální vlákno ale při čekání
+        // na chromedriver / WebDriverWait neblokuje vlákno operačního systému
+        ThreadFactory threadFactory = virtualThreads
+                ? Thread.ofVirtual().name("selenium-worker-", 1).factory()
+                : Thread.ofPlatform().name("selenium-worker-", 1).daemon().factory();
+        browserExecutor = Executors.newFixedThreadPool(browserThreads, threadFactory);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (browserExecutor != null) {
+            browserExecutor.shutdownNow();
+        }
+    }
 
     /**
-     * Původní metoda pro scraping Google výsledků pomocí Jsoup.
-     * Tato metoda je zakomentovaná, aby sloužila pouze pro ukázku
-     * a porovnání s robustnějším řešením se Selenium.
+     * Scraping Google výsledků přes vrstvený fetch: nejdřív levný HTTP požadavek ({@link HttpFetchTier}),
+     * a teprve při blokaci, CAPTCHA nebo nerozpoznané stránce headless Chrome přes Selenium.
+     * Blokuje volající vlákno do dokončení.
      *
      * @param keyword Klíčové slovo pro vyhledávání.
      * @return Seznam výsledků vyhledávání.
-     * @throws IOException
-     * @throws InterruptedException
+     * @throws InterruptedException pokud je čekání na výsledek přerušeno
      */
-    /*
-    public List<SearchResultModel> scrapeGoogleResults(String keyword) throws IOException, InterruptedException {
-        List<SearchResultModel> results = new ArrayList<>();
-        String searchUrl = "https://www.google.com/search?q=" + keyword;
-
-        try {
-            // Zpoždění 10-20 sekund pro simulaci lidského chování
-            int delay = 10 + random.nextInt(11); // Nyní 10-20 sekund
-            logger.info("Jsoup: Čekám {} sekund před požadavkem na Google.", delay);
-            TimeUnit.SECONDS.sleep(delay);
+    public List<SearchResultModel> scrapeGoogleResults(String keyword) throws InterruptedException {
+        return await(scrapeGoogleResultsAsync(keyword));
+    }
 
-            String userAgent = USER_AGENTS[random.nextInt(USER_AGENTS.length)];
-            logger.info("Jsoup: Používám User-Agent: {}", userAgent);
+    /**
+     * Nová, robustnější metoda pro scraping Google výsledků pomocí Selenium s Headless Chrome.
+     * Tento přístup je výrazně efektivnější pro obejití protibotových opatření.
+     * Blokuje volající vlákno do dokončení - prohlížeč ale během zdvořilostní pauzy drženo není.
+     *
+     * @param keyword Klíčové slovo pro vyhledávání.
+     * @return Seznam výsledků vyhledávání.
+     * @throws InterruptedException pokud je čekání na výsledek přerušeno
+     */
+    public List<SearchResultModel> scrapeGoogleResultsSelenium(String keyword) throws InterruptedException {
+        return await(scrapeGoogleResultsSeleniumAsync(keyword, () -> { }));
+    }
 
-            Document doc = Jsoup.connect(searchUrl)
-                    .userAgent(userAgent)
-                    .timeout(10000) // 10 sekund timeout
-                    .get();
+    /**
+     * Asynchronní varianta vrstveného scrapingu ({@link #scrapeGoogleResults(String)}).
+     *
+     * @param keyword Klíčové slovo pro vyhledávání.
+     * @return future se seznamem výsledků vyhledávání.
+     */
+    public CompletableFuture<List<SearchResultModel>> scrapeGoogleResultsAsync(String keyword) {
+        return scrapeGoogleResultsAsync(keyword, () -> { });
+    }
 
-            logger.info("Jsoup: Stránka stažena pro klíčové slovo: {}", keyword);
-            // logger.debug("Jsoup: Stažené HTML (prvních 500 znaků): {}", doc.html().substring(0, Math.min(doc.html().length(), 500)));
+    /**
+     * Asynchronní varianta vrstveného scrapingu s callbackem, který se zavolá v okamžiku,
+     * kdy úloha dostane svůj slot u {@link PolitenessScheduler}u a začne skutečně pracovat.
+     */
+    public CompletableFuture<List<SearchResultModel>> scrapeGoogleResultsAsync(String keyword, Runnable onStart) {
+        return scrapeGoogleResultsAsync(keyword, 1, onStart);
+    }
 
+    /**
+     * Vrstvený scraping zadaného počtu stránek výsledků (nejvýše {@code scraper.pagination.max-pages}).
+     * Více stránek se stahuje v jedné relaci prohlížeče a výsledky mají absolutní pořadí;
+     * HTTP vrstva obsluhuje jen první stránku.
+     */
+    public CompletableFuture<List<SearchResultModel>> scrapeGoogleResultsAsync(String keyword, int pages, Runnable onStart) {
+        int pageCount = Math.max(1, Math.min(pages, maxPages));
+        if (pageCount > 1 || !httpFetchTier.isEnabled()) {
+            return scrapeGoogleResultsSeleniumAsync(keyword, pageCount, onStart);
+        }
 
-            Elements searchResults = doc.select("div.g"); // Selektor pro hlavní výsledky
+        String searchUrl = buildSearchUrl(keyword);
+        CompletableFuture<CompletableFuture<HttpFetchTier.FetchedPage>> slot = politenessScheduler.schedule(googleTarget, () -> {
+            onStart.run();
+            return httpFetchTier.fetch(searchUrl);
+        }, browserExecutor);
+        // Na Selenium při chybě eskaluje jen samotné stažení - chyba už eskalovaného Selenia se propaguje
+        CompletableFuture<List<SearchResultModel>> results = slot
+                .thenCompose(fetch -> fetch)
+                .handle((page, error) -> {
+                    if (error == null) {
+                        return handleHttpPage(keyword, page);
+                    }
+                    if (slot.isCancelled()) {
+                        return CompletableFuture.<List<SearchResultModel>>failedFuture(error);
+                    }
+                    logger.warn("HTTP: Stažení pro klíčové slovo '{}' selhalo ({}), eskaluji na Selenium.", keyword, error.getMessage());
+                    recordTier(TIER_HTTP, ScrapeMetrics.OUTCOME_EXCEPTION);
+                    return escalate(keyword, ScrapeMetrics.OUTCOME_EXCEPTION, error);
+                })
+                .thenCompose(outcome -> outcome);
+        return cancellableWithSlot(slot, results);
+    }
 
-            if (searchResults.isEmpty()) {
-                logger.warn("Jsoup: Žádné výsledky nalezeny pro klíčové slovo '{}' pomocí selektoru 'div.g'. Možná blokace nebo změna struktury.", keyword);
+    /**
+     * Future výsledku, jejíž zrušení se předá rezervaci slotu u {@link PolitenessScheduler}u.
+     * Před začátkem slotu se zruší obojí a slot se uvolní; už běžící scraping zrušit nejde (false).
+     */
+    private static <T> CompletableFuture<T> cancellableWithSlot(CompletableFuture<?> slot, CompletableFuture<T> results) {
+        CompletableFuture<T> future = new CompletableFuture<>() {
+            @Override
+            public boolean cancel(boolean mayInterruptIfRunning) {
+                return slot.cancel(mayInterruptIfRunning) && super.cancel(mayInterruptIfRunning);
             }
+        };
+        results.whenComplete((value, error) -> {
+            if (error == null) {
+                future.complete(value);
+            } else {
+                future.completeExceptionally(error);
+            }
+        });
+        return future;
+    }
 
-            for (Element result : searchResults) {
-                // Přesné selektory je vždy dobré si ověřit v prohlížeči (F12) pro aktuální Google
-                String title = result.select("h3").first() != null ? result.select("h3").first().text() : "N/A";
-                // URL je často v a.href uvnitř div.g, nebo jako atribut data-ved v divu
-                String url = result.select("a[href]").first() != null ? result.select("a[href]").first().attr("href") : "N/A";
-                String snippet = result.select(".lBwE0B.NA7gNc.IUO0K").first() != null ? result.select(".lBwE0B.NA7gNc.IUO0K").first().text() : "N/A"; // Aktuální snippet selektor
-                String description = result.select(".VwiC3b").first() != null ? result.select(".VwiC3b").first().text() : "N/A"; // Alternativní selektor pro popisek
-                String domain = result.select(".yuRUbf .TbwUpd.NJjxre cite").first() != null ? result.select(".yuRUbf .TbwUpd.NJjxre cite").first().text() : "N/A";
+    /**
+     * Asynchronní scraping přímo přes Selenium. Navigace se naplánuje na nejbližší volný slot
+     * {@link PolitenessScheduler}u a teprve pak se vypůjčí prohlížeč z poolu.
+     */
+    public CompletableFuture<List<SearchResultModel>> scrapeGoogleResultsSeleniumAsync(String keyword, Runnable onStart) {
+        return scrapeGoogleResultsSeleniumAsync(keyword, 1, onStart);
+    }
 
+    /**
+     * Asynchronní scraping několika stránek výsledků v jedné relaci prohlížeče.
+     * Zdvořilostní slot se rezervuje jednou pro celou relaci.
+     */
+    public CompletableFuture<List<SearchResultModel>> scrapeGoogleResultsSeleniumAsync(String keyword, int pages, Runnable onStart) {
+        return politenessScheduler.schedule(googleTarget, () -> {
+            onStart.run();
+            return scrapeWithBrowser(keyword, pages);
+        }, browserExecutor);
+    }
 
-                if (!isAdvertisement(result) && isValidResult(url)) {
-                    results.add(extractSearchResult(title, url, description));
-                }
+    /**
+     * Vyhodnotí stránku staženou HTTP vrstvou. Výsledky vrátí rovnou, při blokaci nebo
+     * nerozpoznané stránce eskaluje na Selenium (s novým slotem zdvořilostní pauzy).
+     */
+    private CompletableFuture<List<SearchResultModel>> handleHttpPage(String keyword, HttpFetchTier.FetchedPage page) {
+        String html = page.getBody();
+        SerpPageClassifier.PageType pageType = page.isBlockedStatus()
+                ? SerpPageClassifier.PageType.CAPTCHA
+                : SerpPageClassifier.classify(html);
+
+        switch (pageType) {
+            case CAPTCHA -> {
+                logger.warn("HTTP: Google zablokoval požadavek pro '{}' (status {}), eskaluji na Selenium.", keyword, page.getStatusCode());
+                recordTier(TIER_HTTP, ScrapeMetrics.OUTCOME_CAPTCHA);
+                egressPool.recordBlock(page.getEgress());
+                return escalate(keyword, ScrapeMetrics.OUTCOME_CAPTCHA, null);
             }
-
-        } catch (IOException e) {
-            logger.error("Jsoup: Chyba připojení nebo čtení dat pro klíčové slovo '{}': {}", keyword, e.getMessage());
-            // Pokud je chyba typu "HTTP error fetching URL", Google nás zablokoval
-            if (e.getMessage() != null && e.getMessage().contains("status=429")) { // Příklad pro Too Many Requests
-                logger.error("Jsoup: Google pravděpodobně zablokoval požadavek (HTTP 429 - Too Many Requests).");
+            case NO_RESULTS -> {
+                logger.info("HTTP: Google nenašel žádné výsledky pro '{}'.", keyword);
+                recordTier(TIER_HTTP, ScrapeMetrics.OUTCOME_NO_RESULTS);
+                egressPool.recordSuccess(page.getEgress());
+                return CompletableFuture.completedFuture(new ArrayList<>());
             }
-            if (e.getMessage() != null && (e.getMessage().contains("HTTP error fetching URL") || e.getMessage().contains("SSLHandshakeException"))) {
-                 logger.error("Jsoup: Google pravděpodobně detekoval bota a odmítl připojení.");
+            default -> {
+                // Google stránku vydal - z pohledu proxy úspěch, i když ji selektory nerozpoznají
+                egressPool.recordSuccess(page.getEgress());
+                pageArchive.archive(keyword, System.currentTimeMillis(), 0, TIER_HTTP, html);
+                List<SearchResultModel> results = parseSearchResults(parseHtml(html));
+                if (!results.isEmpty()) {
+                    logger.info("HTTP: Scraping pro '{}' dokončen bez prohlížeče. Nalezeno {} výsledků.", keyword, results.size());
+                    recordTier(TIER_HTTP, ScrapeMetrics.OUTCOME_SUCCESS);
+                    return CompletableFuture.completedFuture(results);
+                }
+                logger.info("HTTP: Stránka pro '{}' neobsahuje rozpoznatelné výsledky, eskaluji na Selenium.", keyword);
+                recordTier(TIER_HTTP, ScrapeMetrics.OUTCOME_SELECTOR_MISS);
+                return escalate(keyword, ScrapeMetrics.OUTCOME_SELECTOR_MISS, null);
             }
-        } catch (Exception e) {
-            logger.error("Jsoup: Neočekávaná chyba při scrapingu pro klíčové slovo '{}': {}", keyword, e.getMessage(), e);
         }
-        return results;
     }
-    */
 
     /**
-     * Nová, robustnější metoda pro scraping Google výsledků pomocí Selenium s Headless Chrome.
-     * Tento přístup je výrazně efektivnější pro obejití protibotových opatření.
+     * Eskalace z HTTP vrstvy na Selenium (s novým slotem zdvořilostní pauzy). Při vypnuté eskalaci
+     * se jen započítá a vrátí prázdné výsledky, resp. chyba stažení.
      *
-     * @param keyword Klíčové slovo pro vyhledávání.
-     * @return Seznam výsledků vyhledávání.
+     * @param reason výsledek HTTP pokusu, který eskalaci vyvolal
+     * @param cause  chyba stažení, nebo null
+     */
+    private CompletableFuture<List<SearchResultModel>> escalate(String keyword, String reason, Throwable cause) {
+        metrics.recordEscalation(reason);
+        if (escalationEnabled) {
+            return scrapeGoogleResultsSeleniumAsync(keyword, () -> { });
+        }
+        logger.info("HTTP: Eskalace na Selenium je vypnutá ({}), pro '{}' ji jen započítávám.", reason, keyword);
+        return cause != null ? CompletableFuture.failedFuture(cause) : CompletableFuture.completedFuture(new ArrayList<>());
+    }
+
+    /**
+     * Scraping v jedné relaci prohlížeče. Další stránky výsledků ({@code start=}) se načítají
+     * v témže prohlížeči; zatímco se stránka parsuje na jiném vlákně, prohlížeč už naviguje na další.
+     *
+     * @throws IllegalStateException když Google zobrazí CAPTCHA uprostřed stránkování - neúplné výsledky
+     *                               se nesmí uložit do cache, historie ani sledování jako celý výsledek
      */
-    public List<SearchResultModel> scrapeGoogleResultsSelenium(String keyword) {
+    private List<SearchResultModel> scrapeWithBrowser(String keyword, int pages) {
         List<SearchResultModel> results = new ArrayList<>();
-        WebDriver driver = null; // Inicializujeme WebDriver na null
+        int blockedAtPage = 0; // Číslo stránky, na které CAPTCHA přerušila stránkování (0 = nepřerušila)
+        PooledWebDriver pooled = null; // Prohlížeč vypůjčený z poolu
+        boolean discardDriver = false; // Po CAPTCHA nebo chybě se prohlížeč do poolu nevrací
+        // Jedna stránka se parsuje rovnou, u více stránek souběžně s navigací na další
+        Executor pageParser = pages > 1 ? ForkJoinPool.commonPool() : Runnable::run;
+        List<CompletableFuture<List<SearchResultModel>>> parsedPages = new ArrayList<>();
+        // Stránky jedné relace sdílí v archivu čas zachycení
+        long capturedAt = System.currentTimeMillis();
 
         try {
-            // 1. Nastavení WebDriverManager (automatické stažení ChromeDriveru)
-            WebDriverManager.chromedriver().setup();
-            logger.info("Selenium: ChromeDriver nastaven pomocí WebDriverManager.");
-
-            // 2. Konfigurace ChromeOptions pro headless mód a další nastavení
-            ChromeOptions options = new ChromeOptions();
-            options.addArguments("--headless"); // Spustí Chrome v headless (bezhlavém) režimu
-            options.addArguments("--disable-gpu"); // Doporučeno pro headless na některých systémech
-            options.addArguments("--no-sandbox"); // Důležité pro Linux prostředí a izolaci
-            options.addArguments("--window-size=1920,1080"); // Simulace standardního rozlišení obrazovky
-            // --- Vylepšené maskování Selenium ---
-            options.setExperimentalOption("excludeSwitches", List.of("enable-automation", "load-extension"));
-            options.setExperimentalOption("useAutomationExtension", false);
-            options.addArguments("--disable-blink-features=AutomationControlled");
-            options.addArguments("--incognito"); // Použít anonymní režim pro čistší session
-            // Nastavení náhodného User-Agentu. Selenium by sice použilo svůj, ale takto je to explicitní a rozmanitější.
-            options.addArguments("user-agent=" + USER_AGENTS[random.nextInt(USER_AGENTS.length)]);
-            // Můžete přidat i další argumenty pro lepší maskování, např. odpojení od automatizace
-            options.setExperimentalOption("excludeSwitches", List.of("enable-automation"));
-            options.setExperimentalOption("useAutomationExtension", false);
-
-            // 3. Inicializace ChromeDriveru
-            driver = new ChromeDriver(options);
-            logger.info("Selenium: WebDriver inicializován v headless režimu s nastaveným User-Agentem.");
-
-            // 4. Sestavení URL pro Google vyhledávání
-            String searchUrl = "https://www.google.com/search?q=" + keyword;
-            logger.info("Selenium: Naviguji na URL: {}", searchUrl);
-            driver.get(searchUrl);
-
-            // 5. Počkání na načtení stránky a přítomnost výsledků (důležité pro dynamické stránky)
-            // Použijeme WebDriverWait pro čekání na konkrétní element, což je robustnější než pevné sleep
-            WebDriverWait wait = new WebDriverWait(driver, Duration.ofSeconds(45)); // Max. 20 sekund čekání
-            // Rozšířená detekce CAPTCHA / prázdných výsledků
-            try {
-                // Snažíme se počkat na hlavní element s výsledky vyhledávání
-                wait.until(ExpectedConditions.presenceOfElementLocated(By.id("search")));
-                logger.info("Selenium: Stránka načtena, hlavní element výsledků ('search') je přítomen.");
-
-                // Přidáme delší náhodnou pauzu pro simulaci uživatelského chování PŘED parsováním
-                int delay = 10 + random.nextInt(11); // Náhodné zpoždění 10-20 sekund
-                logger.info("Selenium: Čekám {} sekund pro simulaci uživatelského chování.", delay);
-                TimeUnit.SECONDS.sleep(delay);
-
-            } catch (TimeoutException e) {
-                logger.warn("Selenium: Element 'search' nebyl nalezen v časovém limitu ({}s). Pravděpodobná blokace.", 45);
-                String pageSource = driver.getPageSource(); // Získejte zdroj pro diagnostiku
-
-                // Zkontrolujeme typické indikátory CAPTCHA nebo blokace
-                if (pageSource.contains("Our systems have detected unusual traffic") ||
-                        pageSource.contains("recaptcha") ||
-                        pageSource.contains("reCAPTCHA_enterprise")) {
-                    logger.error("Selenium: Google detekoval bota a zobrazil CAPTCHA stránku. Scraping nelze provést.");
-                    return new ArrayList<>(); // Vracíme prázdný seznam, protože došlo k blokaci
-                } else if (pageSource.contains("did not match any documents")) {
-                    logger.warn("Selenium: Google vrátil stránku 'No results found'. Možná neplatné klíčové slovo nebo jiný problém.");
-                    return new ArrayList<>();
+            // 1.-3. Vypůjčení běžícího headless Chrome z poolu (spouští se jen při prázdném poolu)
+            long phaseStart = System.nanoTime();
+            pooled = webDriverPool.borrow();
+            metrics.recordPhase(ScrapeMetrics.PHASE_DRIVER_ACQUIRE, phaseStart);
+            WebDriver driver = pooled.getDriver();
+            logger.info("Selenium: WebDriver vypůjčen z poolu (navigací: {}).", pooled.getNavigationCount());
+
+            SerpPageClassifier.PageType pageType = SerpPageClassifier.PageType.RESULTS;
+            String lastPageSource = null;
+            for (int page = 0; page < pages; page++) {
+                if (page > 0) {
+                    pauseBetweenPages();
                 }
-                else {
-                    logger.error("Selenium: Neočekávaná struktura stránky nebo jiná neznámá blokace. Nelze nalézt výsledky.");
-                    // Můžeme se rozhodnout buď vrátit prázdný list, nebo re-throw chybu pro kontroler
-                    return new ArrayList<>();
+                // 4.-5. Navigace a čekání na výsledky, nebo na první známku blokace / prázdných výsledků
+                pageType = loadPage(pooled, buildSearchUrl(keyword, page));
+                if (pageType != SerpPageClassifier.PageType.RESULTS) {
+                    if (page > 0) {
+                        logger.info("Selenium: Stránkování pro '{}' ukončeno na stránce {} ({}).", keyword, page + 1, pageType);
+                    }
+                    break;
                 }
-            }
-
-            // 6. Získání obsahu stránky a předání Jsoup pro parsování
-            // Selenium vrátí kompletní DOM po provedení JavaScriptu
-            String pageSource = driver.getPageSource();
-            logger.debug("Selenium: Stažený pageSource (prvních 500 znaků): {}", pageSource.substring(0, Math.min(pageSource.length(), 500)));
 
-            Document doc = Jsoup.parse(pageSource); // Jsoup nyní dostane "čisté" HTML
+                // 6. Extrakce skriptem přímo v prohlížeči - přenese se jen JSON s výsledky
+                if (inBrowserExtraction) {
+                    List<SearchResultModel> extracted = extractInBrowser(driver);
+                    if (extracted != null && !extracted.isEmpty()) {
+                        parsedPages.add(CompletableFuture.completedFuture(extracted));
+                        continue;
+                    }
+                }
 
-            // 7. Parsování výsledků pomocí Jsoup (stejně jako dříve)
-            Elements searchResults = doc.select("div.g"); // Selektor pro hlavní výsledky
+                // 7. Zdrojový kód stránky (kompletní DOM po provedení JavaScriptu) a parsování přes Jsoup
+                String pageSource = pageSource(driver);
+                logger.debug("Selenium: Stažený pageSource (prvních 500 znaků): {}", pageSource.substring(0, Math.min(pageSource.length(), 500)));
+                lastPageSource = pageSource;
+                int pageNumber = page;
+                parsedPages.add(CompletableFuture.supplyAsync(() -> {
+                    pageArchive.archive(keyword, capturedAt, pageNumber, TIER_BROWSER, pageSource);
+                    return parseSearchResults(parseHtml(pageSource));
+                }, pageParser));
+            }
 
-            if (searchResults.isEmpty()) {
-                logger.warn("Selenium: Žádné výsledky nalezeny pro klíčové slovo '{}' pomocí selektoru 'div.g'.", keyword);
+            List<List<SearchResultModel>> pageResults = new ArrayList<>();
+            for (CompletableFuture<List<SearchResultModel>> parsedPage : parsedPages) {
+                pageResults.add(parsedPage.join());
+            }
+            results = mergePages(pageResults);
+
+            if (pageType == SerpPageClassifier.PageType.CAPTCHA) {
+                logger.error("Selenium: Google detekoval bota a zobrazil CAPTCHA stránku. Scraping nelze provést.");
+                discardDriver = true;
+                recordTier(TIER_BROWSER, ScrapeMetrics.OUTCOME_CAPTCHA);
+                egressPool.recordBlock(pooled.getEgress());
+                if (!parsedPages.isEmpty()) {
+                    blockedAtPage = parsedPages.size() + 1;
+                }
+            } else if (!results.isEmpty()) {
+                recordTier(TIER_BROWSER, ScrapeMetrics.OUTCOME_SUCCESS);
+                egressPool.recordSuccess(pooled.getEgress());
+            } else if (pageType == SerpPageClassifier.PageType.NO_RESULTS) {
+                logger.warn("Selenium: Google vrátil stránku 'No results found'. Možná neplatné klíčové slovo nebo jiný problém.");
+                recordTier(TIER_BROWSER, ScrapeMetrics.OUTCOME_NO_RESULTS);
+                egressPool.recordSuccess(pooled.getEgress());
+            } else if (pageType == SerpPageClassifier.PageType.UNKNOWN) {
+                logger.error("Selenium: Neočekávaná struktura stránky nebo jiná neznámá blokace. Nelze nalézt výsledky.");
+                recordTier(TIER_BROWSER, ScrapeMetrics.OUTCOME_SELECTOR_MISS);
+            } else {
+                logger.warn("Selenium: Žádný profil selektorů nenašel výsledky pro klíčové slovo '{}'.", keyword);
                 // Může se stát, že Google změnil selektory, nebo že je blokace tak silná, že i Selenium narazí na CAPTCHA
-                if (pageSource.contains("Our systems have detected unusual traffic") || pageSource.contains("recaptcha")) {
+                if (SerpPageClassifier.isCaptcha(lastPageSource)) {
                     logger.error("Selenium: Google detekoval bota a zobrazil CAPTCHA. Selenium bylo zablokováno.");
+                    discardDriver = true;
+                    recordTier(TIER_BROWSER, ScrapeMetrics.OUTCOME_CAPTCHA);
+                    egressPool.recordBlock(pooled.getEgress());
                 } else {
-                    logger.warn("Selenium: Pravděpodobná změna HTML struktury Google. Je potřeba aktualizovat Jsoup selektory.");
+                    logger.warn("Selenium: Pravděpodobná změna HTML struktury Google. Je potřeba aktualizovat profily selektorů (scraper.selectors.file).");
+                    recordTier(TIER_BROWSER, ScrapeMetrics.OUTCOME_SELECTOR_MISS);
                 }
             }
+            logger.info("Selenium: Scraping pro '{}' dokončen ({} stránek). Nalezeno {} výsledků.", keyword, parsedPages.size(), results.size());
 
-            for (Element result : searchResults) {
-                // Přesné selektory zkontrolujte v prohlížeči pro aktuální Google
-                String title = result.select("h3").first() != null ? result.select("h3").first().text() : "N/A";
-                // URL je často v a.href uvnitř div.g, nebo jako atribut data-ved v divu
-                String url = result.select("a[href]").first() != null ? result.select("a[href]").first().attr("href") : "N/A";
-                String snippet = result.select(".lBwE0B.NA7gNc.IUO0K").first() != null ? result.select(".lBwE0B.NA7gNc.IUO0K").first().text() : "N/A"; // Aktuální snippet selektor
-                String description = result.select(".VwiC3b").first() != null ? result.select(".VwiC3b").first().text() : "N/A"; // Alternativní selektor pro popisek
-                String domain = result.select(".yuRUbf .TbwUpd.NJjxre cite").first() != null ? result.select(".yuRUbf .TbwUpd.NJjxre cite").first().text() : "N/A";
-
-                if (!isAdvertisement(result) && isValidResult(url)) {
-                    results.add(extractSearchResult(title, url, snippet, description, domain));
+        } catch (Exception e) {
+            logger.error("Selenium: Chyba při Selenium scrapingu pro klíčové slovo '{}': {}", keyword, e.getMessage(), e);
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            // Po chybě nevíme, v jakém stavu prohlížeč je - raději ho vyřadíme
+            discardDriver = true;
+            recordTier(TIER_BROWSER, ScrapeMetrics.OUTCOME_EXCEPTION);
+            try {
+                if (pooled != null && SerpPageClassifier.isCaptcha(pooled.getDriver().getPageSource())) {
+                    logger.error("Selenium: Google detekoval neobvyklý provoz a zobrazil CAPTCHA stránku.");
+                    egressPool.recordBlock(pooled.getEgress());
+                } else if (pooled != null) {
+                    egressPool.recordFailure(pooled.getEgress());
+                }
+            } catch (Exception ignored) {
+                // Prohlížeč už nemusí odpovídat
+            }
+        } finally {
+            // 8. Důležité: Vrácení prohlížeče do poolu, nebo jeho vyřazení po blokaci/chybě
+            if (pooled != null) {
+                if (discardDriver) {
+                    webDriverPool.invalidate(pooled);
+                    logger.info("Selenium: WebDriver vyřazen z poolu.");
+                } else {
+                    webDriverPool.release(pooled);
+                    logger.info("Selenium: WebDriver vrácen do poolu.");
                 }
             }
-            logger.info("Selenium: Scraping pro '{}' dokončen. Nalezeno {} výsledků.", keyword, results.size());
+        }
+        if (blockedAtPage > 0) {
+            throw new IllegalStateException(String.format(
+                    "Google zablokoval stránkování pro '%s' na stránce %d z %d", keyword, blockedAtPage, pages));
+        }
+        return results;
+    }
 
-        } catch (Exception e) {
-            logger.error("Selenium: Chyba při Selenium scrapingu pro klíčové slovo '{}': {}", keyword, e.getMessage(), e);
-            if (driver != null && driver.getPageSource().contains("Our systems have detected unusual traffic")) {
-                logger.error("Selenium: Google detekoval neobvyklý provoz a zobrazil CAPTCHA stránku.");
+    /**
+     * Navigace na stránku výsledků a čekání, dokud ji nelze rozpoznat.
+     * Podmínka hlídá výsledky i značky blokace zároveň, takže CAPTCHA ukončí čekání hned po vykreslení.
+     */
+    private SerpPageClassifier.PageType loadPage(PooledWebDriver pooled, String searchUrl) {
+        WebDriver driver = pooled.getDriver();
+        logger.info("Selenium: Naviguji na URL: {}", searchUrl);
+        long phaseStart = System.nanoTime();
+        pooled.navigate(searchUrl);
+        metrics.recordPhase(ScrapeMetrics.PHASE_NAVIGATE, phaseStart);
+
+        WebDriverWait wait = new WebDriverWait(driver, Duration.ofSeconds(BROWSER_WAIT_SECONDS));
+        wait.pollingEvery(BROWSER_WAIT_POLLING);
+        phaseStart = System.nanoTime();
+        SerpPageClassifier.PageType pageType;
+        try {
+            pageType = wait.until(SerpPageConditions.resultsOrBlock());
+        } catch (TimeoutException e) {
+            logger.warn("Selenium: Stránka nebyla rozpoznána v časovém limitu ({}s).", BROWSER_WAIT_SECONDS);
+            // Poslední pokus podle zdrojového kódu stránky (značky mimo viditelný text)
+            pageType = SerpPageClassifier.classify(pageSource(driver));
+        }
+        metrics.recordPhase(ScrapeMetrics.PHASE_WAIT, phaseStart);
+        if (pageType == SerpPageClassifier.PageType.RESULTS) {
+            logger.info("Selenium: Stránka načtena, hlavní element výsledků ('search') je přítomen.");
+        }
+        recordTransferredBytes(driver);
+        return pageType;
+    }
+
+    /**
+     * Objem dat přenesených pro stránku podle Performance API (dokument + dosud načtené zdroje).
+     * Zdroje z jiných domén bez Timing-Allow-Origin hlásí 0 B, takže jde o spodní odhad;
+     * srovnání profilů lean / full ukazuje úsporu.
+     */
+    private void recordTransferredBytes(WebDriver driver) {
+        if (!metrics.isEnabled()) {
+            return;
+        }
+        try {
+            Object bytes = ((JavascriptExecutor) driver).executeScript(TRANSFERRED_BYTES_SCRIPT);
+            if (bytes instanceof Number number) {
+                metrics.recordPageBytes(webDriverPool.getProfileName(), number.longValue());
+            }
+        } catch (RuntimeException e) {
+            logger.debug("Selenium: Objem přenesených dat nelze zjistit: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Krátká pauza mezi stránkami jedné relace (člověk také chvíli čte, než přejde na další stránku).
+     */
+    private void pauseBetweenPages() throws InterruptedException {
+        if (pageDelayMillis > 0) {
+            TimeUnit.MILLISECONDS.sleep(ThreadLocalRandom.current().nextLong(pageDelayMillis / 2, pageDelayMillis * 3 / 2 + 1));
+        }
+    }
+
+    /**
+     * Spojí výsledky jednotlivých stránek do jednoho seznamu s absolutním pořadím (1, 2, ...).
+     * Výsledek, který Google zopakuje na další stránce, se započítá jen poprvé.
+     */
+    static List<SearchResultModel> mergePages(List<List<SearchResultModel>> pages) {
+        if (pages.size() == 1) {
+            return pages.get(0);
+        }
+        List<SearchResultModel> merged = new ArrayList<>();
+        Set<String> seenUrls = new HashSet<>();
+        for (List<SearchResultModel> page : pages) {
+            for (SearchResultModel result : page) {
+                if (seenUrls.add(result.getUrl())) {
+                    result.setPosition(merged.size() + 1);
+                    merged.add(result);
+                }
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * Parsování stránky s výsledky vyhledávání na seznam organických výsledků.
+     * Profily selektorů se zkouší v pořadí; použije se první, který něco najde.
+     */
+    List<SearchResultModel> parseSearchResults(Document doc) {
+        long phaseStart = System.nanoTime();
+        try {
+            for (SerpSelectors profile : selectorProfiles.getProfiles()) {
+                List<SearchResultModel> results = parseSearchResults(doc, profile);
+                if (!results.isEmpty()) {
+                    selectorProfiles.recordPage(profile);
+                    logger.debug("Výsledky nalezeny profilem selektorů '{}'.", profile.getName());
+                    return results;
+                }
             }
+            selectorProfiles.recordPage(null);
+            return new ArrayList<>();
         } finally {
-            // 8. Důležité: Ukončení WebDriveru pro uvolnění systémových zdrojů
-            if (driver != null) {
-                driver.quit(); // Ukončí proces Chrome a vyčistí zdroje
-                logger.info("Selenium: WebDriver ukončen.");
+            metrics.recordPhase(ScrapeMetrics.PHASE_EXTRACT, phaseStart);
+        }
+    }
+
+    /**
+     * Offline přehrání archivovaných stránek ({@link PageArchive}) současnými profily selektorů,
+     * např. po opravě selektorů. Stránky jednoho zachycení se spojí jako při živém stránkování.
+     * Úspěšnost profilů se nezaznamenává - přehrání nemá ovlivnit pořadí profilů pro živý provoz.
+     *
+     * @param limit nejvýše tolik nejnovějších zachycení se přehraje (starší se ani nenačtou)
+     * @return jedna odpověď na každé zachycení (čas odpovědi = čas zachycení), od nejstaršího
+     */
+    public List<SearchResponseModel> replayArchived(String keyword, Instant from, Instant to, int limit) {
+        Map<Long, List<PageArchive.ArchivedPage>> captures = new LinkedHashMap<>();
+        for (PageArchive.ArchivedPage page : pageArchive.list(keyword, from, to)) {
+            captures.computeIfAbsent(page.getCapturedAt(), k -> new ArrayList<>()).add(page);
+        }
+
+        List<Map.Entry<Long, List<PageArchive.ArchivedPage>>> replayed = new ArrayList<>(captures.entrySet());
+        if (replayed.size() > limit) {
+            replayed = replayed.subList(replayed.size() - limit, replayed.size());
+        }
+
+        List<SearchResponseModel> responses = new ArrayList<>(replayed.size());
+        for (Map.Entry<Long, List<PageArchive.ArchivedPage>> capture : replayed) {
+            List<List<SearchResultModel>> pageResults = capture.getValue().parallelStream()
+                    .map(page -> reparse(pageArchive.load(page)))
+                    .toList();
+            List<SearchResultModel> results = mergePages(pageResults);
+            SearchResponseModel response = new SearchResponseModel(keyword, results, !results.isEmpty(),
+                    String.format("Přehráno z archivu: %d stránek, %d výsledků", pageResults.size(), results.size()));
+            response.setTimestamp(capture.getKey());
+            responses.add(response);
+        }
+        logger.info("Archiv: Přehráno {} zachycení pro klíčové slovo '{}'.", responses.size(), keyword);
+        return responses;
+    }
+
+    /**
+     * Parsování archivované stránky bez zápisu úspěšnosti profilů a bez metrik fází.
+     */
+    private List<SearchResultModel> reparse(String html) {
+        Document doc = Jsoup.parse(html);
+        for (SerpSelectors profile : selectorProfiles.getProfiles()) {
+            List<SearchResultModel> results = parseSearchResults(doc, profile);
+            if (!results.isEmpty()) {
+                return results;
             }
         }
+        return new ArrayList<>();
+    }
+
+    /**
+     * Parsování jedním profilem selektorů. Každý výsledek se projde jen jednou ({@link SerpResultExtractor}).
+     */
+    private List<SearchResultModel> parseSearchResults(Document doc, SerpSelectors profile) {
+        List<SearchResultModel> results = new ArrayList<>();
+        for (Element container : resultExtractor.findContainers(doc, profile)) {
+            addResult(results, resultExtractor.extract(container, profile));
+        }
         return results;
     }
 
+    /**
+     * Extrakce výsledků skriptem přímo v prohlížeči ({@link BrowserResultExtractor}), profily v pořadí.
+     * Úspěšnost se zaznamená jen při nalezení výsledků - jinak stránku vyhodnotí záložní Jsoup.
+     *
+     * @return výsledky, prázdný seznam pokud žádný profil nic nenašel, nebo null pokud skript selhal
+     */
+    private List<SearchResultModel> extractInBrowser(WebDriver driver) {
+        long phaseStart = System.nanoTime();
+        try {
+            for (SerpSelectors profile : selectorProfiles.getProfiles()) {
+                List<SearchResultModel> results = new ArrayList<>();
+                for (SerpResultExtractor.ExtractedResult extracted : browserExtractor.extract(driver, profile)) {
+                    addResult(results, extracted);
+                }
+                if (!results.isEmpty()) {
+                    selectorProfiles.recordPage(profile);
+                    logger.debug("Výsledky nalezeny v prohlížeči profilem selektorů '{}'.", profile.getName());
+                    return results;
+                }
+            }
+            logger.info("Selenium: Extrakce v prohlížeči nenašla výsledky, zkouším Jsoup.");
+            return new ArrayList<>();
+        } catch (RuntimeException e) {
+            logger.warn("Selenium: Extrakce v prohlížeči selhala ({}), použiji Jsoup.", e.getMessage());
+            return null;
+        } finally {
+            metrics.recordPhase(ScrapeMetrics.PHASE_SCRIPT_EXTRACT, phaseStart);
+        }
+    }
+
+    /**
+     * Přidá vytažený výsledek do seznamu, pokud nejde o reklamu a je platný.
+     */
+    private void addResult(List<SearchResultModel> results, SerpResultExtractor.ExtractedResult extracted) {
+        if (extracted.isAdvertisement()) {
+            logger.debug("Identifikována reklama, ignoruji.");
+            return;
+        }
+        SearchResultModel result = extractSearchResult(extracted);
+        if (isValidResult(result)) {
+            // Pořadí v rámci stránky; u více stránek ho přečísluje mergePages
+            result.setPosition(results.size() + 1);
+            results.add(result);
+        }
+    }
+
+    /**
+     * Sestavení URL pro Google vyhledávání (klíčové slovo je URL-enkódované).
+     */
+    private String buildSearchUrl(String keyword) {
+        return googleBaseUrl + "/search?q=" + URLEncoder.encode(keyword, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * URL dané stránky výsledků (číslováno od 0); další stránky posouvá parametr {@code start}.
+     */
+    private String buildSearchUrl(String keyword, int page) {
+        return page == 0 ? buildSearchUrl(keyword) : buildSearchUrl(keyword) + "&start=" + page * RESULTS_PER_PAGE;
+    }
+
+    /**
+     * Přenos zdrojového kódu stránky z prohlížeče (měřeno jako samostatná fáze).
+     */
+    private String pageSource(WebDriver driver) {
+        long phaseStart = System.nanoTime();
+        String pageSource = driver.getPageSource();
+        metrics.recordPhase(ScrapeMetrics.PHASE_PAGE_SOURCE, phaseStart);
+        return pageSource;
+    }
+
+    private Document parseHtml(String html) {
+        long phaseStart = System.nanoTime();
+        Document doc = Jsoup.parse(html);
+        metrics.recordPhase(ScrapeMetrics.PHASE_PARSE, phaseStart);
+        return doc;
+    }
+
+    /**
+     * Počítadlo výsledků jednotlivých vrstev (http / browser) podle výsledku.
+     * Blokace a úspěchy zároveň řídí adaptivní zpomalení v {@link PolitenessScheduler}u.
+     */
+    private void recordTier(String tier, String outcome) {
+        metrics.recordOutcome(tier, outcome);
+        switch (outcome) {
+            case ScrapeMetrics.OUTCOME_CAPTCHA -> politenessScheduler.recordBlock(googleTarget);
+            case ScrapeMetrics.OUTCOME_SUCCESS, ScrapeMetrics.OUTCOME_NO_RESULTS -> politenessScheduler.recordSuccess(googleTarget);
+            default -> {
+                // Chyba nebo nerozpoznaná stránka o blokaci nic neříká
+            }
+        }
+    }
+
+    private static <T> T await(CompletableFuture<T> future) throws InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new CompletionException(cause);
+        }
+    }
+
     /**
      * Pomocná metoda pro kontrolu, zda je výsledek reklama.
-     * Potřebuje aktualizovat selektory pro detekci reklam.
+     * Značky reklam jsou součástí sady selektorů ({@link SerpSelectors}) - Google často mění třídy.
      */
-    private boolean isAdvertisement(Element result) {
-        // Příklad selektoru pro reklamy. Google často mění třídy.
-        // Běžné třídy pro reklamy mohou být ".ads-ad", "div[data-text-ad]", nebo text "Reklama" uvnitř elementu
-        // Zkontrolujte aktuální DOM v prohlížeči (F12) pro přesné selektory.
-        boolean isAd = result.select(".ads-ad").first() != null ||
-                result.select("span.cHIEz.WJg5P").first() != null; // Často používaná třída pro "Sponsored"
-        if (isAd) {
-            logger.debug("Identifikována reklama, ignoruji: {}", result.select("h3").first() != null ? result.select("h3").first().text() : "N/A");
+    boolean isAdvertisement(Element result) {
+        return resultExtractor.extract(result, selectorProfiles.getPrimary()).isAdvertisement();
+    }
+
+    /**
+     * Pomocná metoda pro kontrolu platnosti výsledku - musí mít titulek a URL mimo interní stránky Google.
+     */
+    boolean isValidResult(SearchResultModel result) {
+        if (result == null || result.getTitle() == null || result.getTitle().isBlank()) {
+            return false;
         }
-        return isAd;
+        String url = result.getUrl();
+        return url != null && !url.isBlank() && !url.startsWith("http://accounts.google.com") && !url.contains("google.com/search") && !url.contains("policies.google.com");
     }
 
     /**
-     * Pomocná metoda pro kontrolu platnosti URL.
+     * Pomocná metoda pro vytvoření objektu SearchResultModel z vytažených polí.
+     * Všechna pole pochází z jediného průchodu výsledkem ({@link SerpResultExtractor}).
      */
-    private boolean isValidResult(String url) {
-        return url != null && !url.isEmpty() && !url.startsWith("http://accounts.google.com") && !url.contains("google.com/search") && !url.contains("policies.google.com");
+    private SearchResultModel extractSearchResult(SerpResultExtractor.ExtractedResult extracted) {
+        String cleanedUrl = cleanUrl(extracted.getUrl()); // Stále používáme cleanUrl pro odstranění Google přesměrování
+        logger.debug("Extrahován výsledek: Titulek='{}', URL='{}', Popis='{}'", extracted.getTitle(), cleanedUrl, extracted.getDescription());
+        SearchResultModel result = new SearchResultModel(extracted.getTitle(), cleanedUrl, extracted.getDescription());
+        result.setSnippet(extracted.getSnippet());
+        result.setDomain(normalizeDomain(cleanedUrl, extracted.getDomain()));
+        result.setType(extracted.getType());
+        return result;
     }
 
     /**
-     * Pomocná metoda pro extrakci dat a vytvoření objektu SearchResultModel.
+     * Normalizovaná doména výsledku: host cílové URL malými písmeny a bez "www.".
+     * Pokud URL nejde rozebrat, použije se zobrazená adresa ze stránky (např. "https://www.example.com › docs").
      */
-    private SearchResultModel extractSearchResult(String title, String url, String snippet, String description, String domain) {
-        String cleanedUrl = cleanUrl(url); // Stále používáme cleanUrl pro odstranění Google přesměrování
-        logger.debug("Extrahován výsledek: Titulek='{}', URL='{}', Popis='{}'", title, cleanedUrl, description);
-        return new SearchResultModel(title, cleanedUrl, description);
+    static String normalizeDomain(String url, String displayedDomain) {
+        String host = null;
+        if (url != null) {
+            try {
+                host = URI.create(url).getHost();
+            } catch (IllegalArgumentException e) {
+                // Neplatná URL (nezakódované znaky) - zkusíme zobrazenou adresu
+            }
+        }
+        if (host == null && displayedDomain != null) {
+            String displayed = displayedDomain.trim();
+            int schemeEnd = displayed.indexOf("://");
+            if (schemeEnd >= 0) {
+                displayed = displayed.substring(schemeEnd + 3);
+            }
+            int end = 0;
+            while (end < displayed.length() && !Character.isWhitespace(displayed.charAt(end)) && "/›?#".indexOf(displayed.charAt(end)) < 0) {
+                end++;
+            }
+            host = end > 0 ? displayed.substring(0, end) : null;
+        }
+        if (host == null) {
+            return null;
+        }
+        host = host.toLowerCase(Locale.ROOT);
+        return host.startsWith("www.") ? host.substring(4) : host;
     }
 
     /**
      * Pomocná metoda pro čištění URL z Google přesměrování.
      */
-    private String cleanUrl(String url) {
+    String cleanUrl(String url) {
         if (url != null && url.startsWith("/url?q=")) {
-            int ampIndex = url.indexOf('&');
+            // Cílová URL může mít vlastní parametry - Google za ni připojuje &sa=, &ved=, ...
+            int ampIndex = url.indexOf("&sa=");
+            if (ampIndex == -1) {
+                ampIndex = url.indexOf('&');
+            }
             if (ampIndex != -1) {
                 return url.substring("/url?q=".length(), ampIndex);
             }
@@ -0,0 +1,155 @@
+package cz.michalmusil.services;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.ProxySelector;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Lehká vrstva pro stažení SERP obyčejným HTTP požadavkem (Java {@link HttpClient}).
+ * Pro každou odchozí identitu ({@link EgressProxyPool}) je jeden sdílený klient, který drží spojení
+ * (HTTP/2, keep-alive) mezi požadavky; User-Agent se střídá.
+ * Stojí milisekundy a megabajty místo sekund a stovek MB u Chrome - pokud Google odpoví
+ * blokací nebo stránkou bez výsledků, {@link GoogleScraperService} eskaluje na Selenium.
+ */
+@Component
+public class HttpFetchTier {
+
+    private static final Logger logger = LoggerFactory.getLogger(HttpFetchTier.class);
+
+    @Value("${scraper.http-tier.enabled:true}")
+    private boolean enabled;
+
+    @Value("${scraper.http-tier.timeout-seconds:10}")
+    private long timeoutSeconds;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    private final ScrapeMetrics metrics;
+    private final EgressProxyPool egressPool;
+
+    // HttpClient má proxy pevně danou, proto jeden klient na každou odchozí identitu
+    private final Map<String, HttpClient> clients = new ConcurrentHashMap<>();
+    private ExecutorService clientExecutor;
+
+    public HttpFetchTier(ScrapeMetrics metrics, EgressProxyPool egressPool) {
+        this.metrics = metrics;
+        this.egressPool = egressPool;
+    }
+
+    @PostConstruct
+    void start() {
+        if (virtualThreads) {
+            // Dokončení odpovědí (včetně parsování stránky) poběží na virtuálních vláknech
+            clientExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        }
+    }
+
+    private HttpClient clientFor(EgressProxyPool.EgressProxy egress) {
+        return clients.computeIfAbsent(egress.getId(), id -> {
+            HttpClient.Builder builder = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_2)
+                    .followRedirects(HttpClient.Redirect.NORMAL)
+                    .connectTimeout(Duration.ofSeconds(timeoutSeconds));
+            if (clientExecutor != null) {
+                builder.executor(clientExecutor);
+            }
+            if (!egress.isDirect()) {
+                builder.proxy(ProxySelector.of(egress.getAddress()));
+            }
+            return builder.build();
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (clientExecutor != null) {
+            clientExecutor.shutdownNow();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Asynchronně stáhne stránku. Vlákno se během čekání na odpověď neblokuje.
+     *
+     * @param url adresa stránky s výsledky vyhledávání
+     * @return future se staženou stránkou; selže při síťové chybě nebo timeoutu (ta se započítá proxy)
+     */
+    public CompletableFuture<FetchedPage> fetch(String url) {
+        EgressProxyPool.EgressProxy egress = egressPool.acquire();
+        String userAgent = GoogleScraperService.USER_AGENTS[ThreadLocalRandom.current().nextInt(GoogleScraperService.USER_AGENTS.length)];
+        logger.info("HTTP: Stahuji {} přes '{}' (User-Agent: {}).", url, egress.getId(), userAgent);
+
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                .timeout(Duration.ofSeconds(timeoutSeconds))
+                .header("User-Agent", userAgent)
+                .header("Accept", "text/html,application/xhtml+xml,application/xml;q=0.9,*/*;q=0.8")
+                .header("Accept-Language", "en-US,en;q=0.9")
+                .GET()
+                .build();
+
+        long phaseStart = System.nanoTime();
+        return clientFor(egress).sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                .whenComplete((response, error) -> {
+                    metrics.recordPhase(ScrapeMetrics.PHASE_HTTP_FETCH, phaseStart);
+                    if (error != null) {
+                        egressPool.recordFailure(egress);
+                    }
+                })
+                .thenApply(response -> new FetchedPage(response.statusCode(), response.body(), egress));
+    }
+
+    /**
+     * Stažená stránka - HTTP status, tělo odpovědi a odchozí identita, přes kterou přišla.
+     */
+    public static class FetchedPage {
+
+        private final int statusCode;
+        private final String body;
+        private final EgressProxyPool.EgressProxy egress;
+
+        public FetchedPage(int statusCode, String body, EgressProxyPool.EgressProxy egress) {
+            this.statusCode = statusCode;
+            this.body = body;
+            this.egress = egress;
+        }
+
+        public EgressProxyPool.EgressProxy getEgress() {
+            return egress;
+        }
+
+        public int getStatusCode() {
+            return statusCode;
+        }
+
+        public String getBody() {
+            return body;
+        }
+
+        /**
+         * HTTP 429 / 503 Google vrací při blokaci (typicky přesměrování na /sorry/).
+         */
+        public boolean isBlockedStatus() {
+            return statusCode == 429 || statusCode == 503;
+        }
+    }
+}
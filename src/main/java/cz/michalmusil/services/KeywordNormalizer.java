@@ -0,0 +1,29 @@
+package cz.michalmusil.services;
+
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Normalizace klíčových slov pro použití jako klíč (cache, slučování souběžných požadavků).
+ * "  Java   Spring " i "java spring" tak vedou na stejný záznam.
+ */
+public final class KeywordNormalizer {
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private KeywordNormalizer() {
+    }
+
+    /**
+     * Ořízne mezery, převede na malá písmena a sloučí vícenásobné bílé znaky do jedné mezery.
+     *
+     * @param keyword klíčové slovo zadané uživatelem
+     * @return normalizované klíčové slovo (prázdný řetězec pro null)
+     */
+    public static String normalize(String keyword) {
+        if (keyword == null) {
+            return "";
+        }
+        return WHITESPACE.matcher(keyword.trim()).replaceAll(" ").toLowerCase(Locale.ROOT);
+    }
+}
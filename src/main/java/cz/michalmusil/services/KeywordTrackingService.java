@@ -0,0 +1,374 @@
+package cz.michalmusil.services;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import cz.michalmusil.models.TrackedKeywordModel;
+import cz.michalmusil.models.TrackedKeywordSetModel;
+import cz.michalmusil.models.TrackingRequestModel;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Pravidelné sledování sad klíčových slov. Klíčová slova sady se rozloží rovnoměrně po celé periodě
+ * (sada 24 slov s denní periodou = jedno slovo za hodinu), takže prohlížeče jsou vytížené plynule
+ * a Google nevidí dávky požadavků. Počáteční fáze sady je náhodná, aby se sady se stejnou periodou
+ * nepřekrývaly.
+ * <p>
+ * Scraping jde přes {@link CachingScraperService} - tempo dál hlídá {@link PolitenessScheduler}
+ * a nové výsledky se ukládají do historie ({@link SerpHistoryStore}). Souběžně rozpracovaných
+ * sledovacích scrapingů je nejvýše {@code scraper.tracking.max-in-flight}; ostatní se o chvíli odloží.
+ * Neúspěch (chyba nebo prázdné výsledky) se opakuje s exponenciálně rostoucí pauzou,
+ * nejpozději do dalšího pravidelného běhu.
+ * <p>
+ * Definice sad včetně stavu klíčových slov se ukládají do {@code scraper.tracking.file} po registraci
+ * i po každém běhu. Po restartu se pokračuje od uloženého času dalšího běhu (jinak posledního běhu + perioda),
+ * takže fáze sady zůstane zachována; běhy zmeškané během výpadku se doženou postupně.
+ */
+@Service
+public class KeywordTrackingService {
+
+    private static final Logger logger = LoggerFactory.getLogger(KeywordTrackingService.class);
+
+    private static final TypeReference<List<TrackedKeywordSetModel>> SETS_TYPE = new TypeReference<>() {
+    };
+
+    // Výchozí perioda - jednou denně
+    static final long DEFAULT_INTERVAL_MINUTES = TimeUnit.DAYS.toMinutes(1);
+
+    // Klient sledování ve frontě scrapingů - sledování se střídá s ostatními hromadnými klienty
+    private static final String TRACKING_CLIENT = "tracking";
+
+    // Pauza před dalším pokusem, když je rozpracováno příliš mnoho sledovacích scrapingů
+    private static final long DEFER_MILLIS = TimeUnit.SECONDS.toMillis(30);
+
+    private final CachingScraperService scraperService;
+    private final ObjectMapper objectMapper;
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    // Soubor s definicemi sad; prázdná hodnota = sady se neukládají
+    @Value("${scraper.tracking.file:data/tracking/keyword-sets.json}")
+    private String file = "";
+
+    @Value("${scraper.tracking.min-interval-minutes:60}")
+    private long minIntervalMinutes = 60;
+
+    @Value("${scraper.tracking.max-keywords-per-set:500}")
+    private int maxKeywordsPerSet = 500;
+
+    @Value("${scraper.tracking.max-in-flight:2}")
+    private int maxInFlight = 2;
+
+    @Value("${scraper.tracking.retry.max-attempts:3}")
+    private int maxRetries = 3;
+
+    @Value("${scraper.tracking.retry.initial-delay-seconds:300}")
+    private long retryInitialDelaySeconds = 300;
+
+    @Value("${scraper.pagination.max-pages:5}")
+    private int maxPages = 5;
+
+    private final Map<String, TrackedKeywordSetModel> sets = new ConcurrentHashMap<>();
+    // Stav klíčových slov mění dokončení scrapingů z různých vláken; pod stejným zámkem se i ukládá
+    private final ReentrantLock stateLock = new ReentrantLock();
+    private final AtomicLong succeeded = new AtomicLong();
+    private final AtomicLong retried = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private ScheduledExecutorService timer;
+    private Semaphore inFlight;
+
+    public KeywordTrackingService(CachingScraperService scraperService, ObjectMapper objectMapper) {
+        this.scraperService = scraperService;
+        this.objectMapper = objectMapper;
+    }
+
+    @PostConstruct
+    void start() throws IOException {
+        inFlight = new Semaphore(maxInFlight);
+        timer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "keyword-tracking");
+            thread.setDaemon(true);
+            return thread;
+        });
+        registerMetrics();
+
+        if (!file.isBlank() && Files.exists(Path.of(file))) {
+            for (TrackedKeywordSetModel set : objectMapper.readValue(Path.of(file).toFile(), SETS_TYPE)) {
+                sets.put(set.getId(), set);
+                restoreSet(set);
+            }
+        }
+        logger.info("KeywordTrackingService: sledováno {} sad klíčových slov.", sets.size());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (timer != null) {
+            timer.shutdownNow();
+        }
+    }
+
+    /**
+     * Zaregistruje novou sadu a naplánuje její klíčová slova rovnoměrně do první periody.
+     *
+     * @throws IllegalArgumentException pokud požadavek nesplňuje limity (kontroler vrátí HTTP 400)
+     */
+    public TrackedKeywordSetModel register(TrackingRequestModel request) {
+        List<TrackedKeywordModel> keywords = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        if (request.getKeywords() != null) {
+            for (String keyword : request.getKeywords()) {
+                if (keyword != null && !keyword.isBlank() && seen.add(KeywordNormalizer.normalize(keyword))) {
+                    keywords.add(new TrackedKeywordModel(keyword.trim()));
+                }
+            }
+        }
+        if (keywords.isEmpty()) {
+            throw new IllegalArgumentException("Seznam klíčových slov nesmí být prázdný");
+        }
+        if (keywords.size() > maxKeywordsPerSet) {
+            throw new IllegalArgumentException(String.format("Sada smí obsahovat nejvýše %d klíčových slov", maxKeywordsPerSet));
+        }
+        long intervalMinutes = request.getIntervalMinutes() != null ? request.getIntervalMinutes() : DEFAULT_INTERVAL_MINUTES;
+        if (intervalMinutes < minIntervalMinutes) {
+            throw new IllegalArgumentException(String.format("Perioda musí být alespoň %d minut", minIntervalMinutes));
+        }
+        int pages = request.getPages() != null ? request.getPages() : 1;
+        if (pages < 1 || pages > maxPages) {
+            throw new IllegalArgumentException(String.format("Počet stránek musí být mezi 1 a %d", maxPages));
+        }
+
+        String id = UUID.randomUUID().toString();
+        String name = request.getName() != null && !request.getName().isBlank() ? request.getName().trim() : id;
+        TrackedKeywordSetModel set = new TrackedKeywordSetModel(id, name, intervalMinutes, pages, keywords);
+        sets.put(id, set);
+        scheduleSet(set);
+        persist();
+        logger.info("KeywordTrackingService: sada '{}' ({} klíčových slov) sledována každých {} minut.",
+                name, keywords.size(), intervalMinutes);
+        return set;
+    }
+
+    /**
+     * Ukončí sledování sady. Už naplánované běhy se při spuštění samy zahodí.
+     *
+     * @return false pokud sada neexistuje
+     */
+    public boolean unregister(String id) {
+        TrackedKeywordSetModel removed = sets.remove(id);
+        if (removed == null) {
+            return false;
+        }
+        persist();
+        logger.info("KeywordTrackingService: sledování sady '{}' ukončeno.", removed.getName());
+        return true;
+    }
+
+    public Optional<TrackedKeywordSetModel> getSet(String id) {
+        return Optional.ofNullable(sets.get(id));
+    }
+
+    public Collection<TrackedKeywordSetModel> getSets() {
+        return sets.values();
+    }
+
+    /**
+     * Rozloží klíčová slova sady rovnoměrně do periody: i-té slovo dostane slot
+     * {@code fáze + i * perioda / n}, kde fáze je náhodná v rámci jednoho rozestupu.
+     */
+    private void scheduleSet(TrackedKeywordSetModel set) {
+        long periodMillis = TimeUnit.MINUTES.toMillis(set.getIntervalMinutes());
+        List<TrackedKeywordModel> keywords = set.getKeywords();
+        long spacing = Math.max(1, periodMillis / keywords.size());
+        long firstSlot = System.currentTimeMillis() + ThreadLocalRandom.current().nextLong(spacing);
+        for (int i = 0; i < keywords.size(); i++) {
+            long slot = firstSlot + i * spacing;
+            schedule(set, keywords.get(i), slot, 0, slot);
+        }
+    }
+
+    /**
+     * Naplánuje obnovenou sadu od uložených časů: slot klíčového slova je uložený {@code nextRunAt},
+     * jinak poslední běh + perioda. Zmeškané sloty se spustí hned, ale po jednom rozestupu,
+     * aby restart po delším výpadku nevyvolal dávku požadavků. Klíčová slova bez uloženého času
+     * dostanou nové sloty jako při registraci.
+     */
+    private void restoreSet(TrackedKeywordSetModel set) {
+        long periodMillis = TimeUnit.MINUTES.toMillis(set.getIntervalMinutes());
+        List<TrackedKeywordModel> keywords = set.getKeywords();
+        long spacing = Math.max(1, periodMillis / keywords.size());
+        long now = System.currentTimeMillis();
+        long nextFreeSlot = now + ThreadLocalRandom.current().nextLong(spacing);
+        int overdue = 0;
+        for (TrackedKeywordModel keyword : keywords) {
+            long slot;
+            if (keyword.getNextRunAt() != null) {
+                slot = keyword.getNextRunAt();
+            } else if (keyword.getLastRunAt() != null) {
+                slot = keyword.getLastRunAt() + periodMillis;
+            } else {
+                slot = nextFreeSlot;
+                nextFreeSlot += spacing;
+            }
+            long runAt = slot > now ? slot : now + overdue++ * spacing;
+            schedule(set, keyword, slot, 0, runAt);
+        }
+    }
+
+    /**
+     * @param slot  pravidelný čas běhu v aktuální periodě (od něj se počítá další perioda)
+     * @param runAt kdy se má pokus skutečně spustit (slot, opakování po chybě nebo odložení)
+     */
+    private void schedule(TrackedKeywordSetModel set, TrackedKeywordModel keyword, long slot, int attempt, long runAt) {
+        stateLock.lock();
+        try {
+            keyword.setNextRunAt(runAt);
+        } finally {
+            stateLock.unlock();
+        }
+        timer.schedule(() -> run(set, keyword, slot, attempt),
+                Math.max(0, runAt - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+    }
+
+    private void run(TrackedKeywordSetModel set, TrackedKeywordModel keyword, long slot, int attempt) {
+        if (sets.get(set.getId()) != set) {
+            return;
+        }
+        if (!inFlight.tryAcquire()) {
+            // Sledování nemá předbíhat interaktivní požadavky - při plném limitu jen počká
+            schedule(set, keyword, slot, attempt, System.currentTimeMillis() + DEFER_MILLIS);
+            return;
+        }
+        try {
+            stateLock.lock();
+            try {
+                keyword.setLastRunAt(System.currentTimeMillis());
+            } finally {
+                stateLock.unlock();
+            }
+            scraperService.scrapeAsync(keyword.getKeyword(), set.getPages(), ScrapeQueue.Priority.BULK, TRACKING_CLIENT, () -> { })
+                    .whenComplete((outcome, error) -> {
+                        inFlight.release();
+                        complete(set, keyword, slot, attempt, outcome != null ? outcome.getResults().size() : 0, error);
+                    });
+        } catch (RuntimeException e) {
+            inFlight.release();
+            complete(set, keyword, slot, attempt, 0, e);
+        }
+    }
+
+    private void complete(TrackedKeywordSetModel set, TrackedKeywordModel keyword, long slot, int attempt,
+                          int resultCount, Throwable error) {
+        if (sets.get(set.getId()) != set) {
+            return;
+        }
+        stateLock.lock();
+        try {
+            long periodMillis = TimeUnit.MINUTES.toMillis(set.getIntervalMinutes());
+            long now = System.currentTimeMillis();
+            long nextSlot = slot + periodMillis;
+            while (nextSlot <= now) {
+                nextSlot += periodMillis;
+            }
+            keyword.setLastResultCount(resultCount);
+
+            if (error == null && resultCount > 0) {
+                succeeded.incrementAndGet();
+                keyword.setStatus(TrackedKeywordModel.Status.SUCCESS);
+                keyword.setConsecutiveFailures(0);
+                schedule(set, keyword, nextSlot, 0, nextSlot);
+                persist();
+                return;
+            }
+
+            keyword.setConsecutiveFailures(keyword.getConsecutiveFailures() + 1);
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            long retryAt = now + TimeUnit.SECONDS.toMillis(retryInitialDelaySeconds) * (1L << Math.min(attempt, 20));
+            if (attempt < maxRetries && retryAt < nextSlot) {
+                retried.incrementAndGet();
+                keyword.setStatus(TrackedKeywordModel.Status.RETRYING);
+                logger.warn("KeywordTrackingService: '{}' bez výsledků ({}), pokus {} za {} s.", keyword.getKeyword(),
+                        cause != null ? cause.getMessage() : "prázdné výsledky", attempt + 2, (retryAt - now) / 1000);
+                schedule(set, keyword, slot, attempt + 1, retryAt);
+            } else {
+                failed.incrementAndGet();
+                keyword.setStatus(TrackedKeywordModel.Status.FAILED);
+                logger.error("KeywordTrackingService: '{}' se v této periodě nepodařilo získat ({}).", keyword.getKeyword(),
+                        cause != null ? cause.getMessage() : "prázdné výsledky");
+                schedule(set, keyword, nextSlot, 0, nextSlot);
+            }
+            persist();
+        } finally {
+            stateLock.unlock();
+        }
+    }
+
+    /**
+     * Zapíše definice sad do souboru přes dočasný soubor, aby pád během zápisu nepoškodil původní.
+     * Snímek sad se bere pod zámkem stavu, takže nezachytí klíčové slovo uprostřed změny.
+     */
+    private void persist() {
+        if (file.isBlank()) {
+            return;
+        }
+        stateLock.lock();
+        try {
+            Path target = Path.of(file).toAbsolutePath();
+            Files.createDirectories(target.getParent());
+            Path temporary = target.resolveSibling(target.getFileName() + ".tmp");
+            objectMapper.writeValue(temporary.toFile(), new ArrayList<>(sets.values()));
+            Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.error("KeywordTrackingService: sady nelze uložit do '{}': {}", file, e.getMessage());
+        } finally {
+            stateLock.unlock();
+        }
+    }
+
+    private void registerMetrics() {
+        if (meterRegistry == null) {
+            return;
+        }
+        FunctionCounter.builder("scraper.tracking.runs", succeeded, AtomicLong::get)
+                .tag("outcome", "success").register(meterRegistry);
+        FunctionCounter.builder("scraper.tracking.runs", retried, AtomicLong::get)
+                .tag("outcome", "retry").register(meterRegistry);
+        FunctionCounter.builder("scraper.tracking.runs", failed, AtomicLong::get)
+                .tag("outcome", "failed").register(meterRegistry);
+        Gauge.builder("scraper.tracking.keywords", sets,
+                        map -> map.values().stream().mapToInt(set -> set.getKeywords().size()).sum())
+                .description("Počet sledovaných klíčových slov")
+                .register(meterRegistry);
+    }
+}
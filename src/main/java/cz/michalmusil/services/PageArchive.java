@@ -0,0 +1,301 @@
+package cz.michalmusil.services;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Archiv stažených stránek s výsledky (HTML) pro pozdější opakované parsování bez nového scrapingu.
+ * <p>
+ * Obsah stránky se ukládá gzip komprimovaný pod svým SHA-256 ({@code blobs/ab/abcd….html.gz}),
+ * takže stejná stránka stažená opakovaně zabere místo jen jednou. Do manifestu ({@code manifest.ndjson})
+ * se pro každé stažení připíše řádek klíčové slovo, čas zachycení, číslo stránky, vrstva a hash.
+ * Index klíčové slovo → stažené stránky se drží v paměti a po startu se obnoví z manifestu.
+ */
+@Component
+public class PageArchive {
+
+    private static final Logger logger = LoggerFactory.getLogger(PageArchive.class);
+
+    private static final String MANIFEST_FILE = "manifest.ndjson";
+    private static final String BLOB_DIRECTORY = "blobs";
+    private static final String BLOB_SUFFIX = ".html.gz";
+
+    @Value("${scraper.archive.enabled:false}")
+    private boolean enabled;
+
+    @Value("${scraper.archive.dir:data/archive}")
+    private String directory = "data/archive";
+
+    // Nejvýše tolik (nejnovějších) zachycení přehraje jeden dotaz - každé se znovu načte a parsuje
+    @Value("${scraper.archive.max-captures:100}")
+    private int maxCaptures = 100;
+
+    private final ObjectMapper objectMapper;
+
+    private final Map<String, List<ArchivedPage>> index = new ConcurrentHashMap<>();
+    private final ReentrantLock manifestLock = new ReentrantLock();
+    private final AtomicLong storedBlobs = new AtomicLong();
+    private final AtomicLong deduplicatedPages = new AtomicLong();
+    private Path root;
+    private BufferedWriter manifest;
+
+    public PageArchive(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @PostConstruct
+    void start() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        root = Path.of(directory);
+        Files.createDirectories(root.resolve(BLOB_DIRECTORY));
+        Path manifestPath = root.resolve(MANIFEST_FILE);
+
+        long pages = 0;
+        if (Files.exists(manifestPath)) {
+            for (String line : Files.readAllLines(manifestPath, StandardCharsets.UTF_8)) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    JsonNode node = objectMapper.readTree(line);
+                    ArchivedPage page = new ArchivedPage(node.get("keyword").asText(), node.get("capturedAt").asLong(),
+                            node.get("page").asInt(), node.get("tier").asText(), node.get("sha256").asText());
+                    index.computeIfAbsent(page.getKeyword(), k -> new CopyOnWriteArrayList<>()).add(page);
+                    pages++;
+                } catch (IOException | RuntimeException e) {
+                    // Nedopsaný řádek po pádu - stránka se prostě nepřehraje
+                    logger.warn("Archiv stránek: poškozený řádek manifestu se přeskakuje: {}", e.getMessage());
+                }
+            }
+        }
+        manifest = Files.newBufferedWriter(manifestPath, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        logger.info("Archiv stránek: načteno {} stránek pro {} klíčových slov z '{}'.",
+                pages, index.size(), root.toAbsolutePath());
+    }
+
+    @PreDestroy
+    void stop() {
+        manifestLock.lock();
+        try {
+            if (manifest != null) {
+                manifest.close();
+                manifest = null;
+            }
+        } catch (IOException e) {
+            logger.warn("Archiv stránek: manifest nelze uzavřít: {}", e.getMessage());
+        } finally {
+            manifestLock.unlock();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int getMaxCaptures() {
+        return maxCaptures;
+    }
+
+    /**
+     * Uloží staženou stránku. Chyba zápisu se zaloguje - scraping kvůli ní neselže.
+     *
+     * @param capturedAt čas zachycení; stránky jedné relace (stránkování) sdílí stejný čas
+     * @param page       číslo stránky výsledků (od 0)
+     * @param tier       vrstva, která stránku stáhla (http / browser)
+     */
+    public void archive(String keyword, long capturedAt, int page, String tier, String html) {
+        if (!enabled || html == null) {
+            return;
+        }
+        String normalized = KeywordNormalizer.normalize(keyword);
+        try {
+            byte[] content = html.getBytes(StandardCharsets.UTF_8);
+            String hash = sha256(content);
+            storeBlob(hash, content);
+
+            ArchivedPage archived = new ArchivedPage(normalized, capturedAt, page, tier, hash);
+            ObjectNode line = objectMapper.createObjectNode()
+                    .put("keyword", normalized)
+                    .put("capturedAt", capturedAt)
+                    .put("page", page)
+                    .put("tier", tier)
+                    .put("sha256", hash);
+            manifestLock.lock();
+            try {
+                if (manifest == null) {
+                    return;
+                }
+                manifest.write(objectMapper.writeValueAsString(line));
+                manifest.newLine();
+                manifest.flush();
+            } finally {
+                manifestLock.unlock();
+            }
+            index.computeIfAbsent(normalized, k -> new CopyOnWriteArrayList<>()).add(archived);
+        } catch (IOException | RuntimeException e) {
+            logger.error("Archiv stránek: stránku pro '{}' nelze uložit: {}", normalized, e.getMessage());
+        }
+    }
+
+    /**
+     * Archivované stránky klíčového slova v časovém rozsahu, seřazené podle času zachycení a čísla stránky.
+     *
+     * @param from začátek rozsahu (včetně), null = bez omezení
+     * @param to   konec rozsahu (včetně), null = bez omezení
+     */
+    public List<ArchivedPage> list(String keyword, Instant from, Instant to) {
+        long fromMillis = from != null ? from.toEpochMilli() : Long.MIN_VALUE;
+        long toMillis = to != null ? to.toEpochMilli() : Long.MAX_VALUE;
+        List<ArchivedPage> matching = new ArrayList<>();
+        for (ArchivedPage page : index.getOrDefault(KeywordNormalizer.normalize(keyword), List.of())) {
+            if (page.getCapturedAt() >= fromMillis && page.getCapturedAt() <= toMillis) {
+                matching.add(page);
+            }
+        }
+        matching.sort((a, b) -> a.getCapturedAt() != b.getCapturedAt()
+                ? Long.compare(a.getCapturedAt(), b.getCapturedAt())
+                : Integer.compare(a.getPage(), b.getPage()));
+        return matching;
+    }
+
+    /**
+     * Načte HTML archivované stránky.
+     *
+     * @throws UncheckedIOException pokud obsah chybí nebo nesouhlasí s hashem
+     */
+    public String load(ArchivedPage page) {
+        try (InputStream gzip = new GZIPInputStream(Files.newInputStream(blobPath(page.getSha256())))) {
+            byte[] content = gzip.readAllBytes();
+            if (!sha256(content).equals(page.getSha256())) {
+                throw new IOException("Obsah neodpovídá hashi " + page.getSha256());
+            }
+            return new String(content, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Archivovanou stránku nelze načíst", e);
+        }
+    }
+
+    /**
+     * Počet uložených obsahů a stažení, jejichž obsah už v archivu byl.
+     */
+    public long getStoredBlobCount() {
+        return storedBlobs.get();
+    }
+
+    public long getDeduplicatedCount() {
+        return deduplicatedPages.get();
+    }
+
+    /**
+     * Zapíše obsah, pokud ještě v archivu není. Zápis jde přes dočasný soubor a atomické přejmenování,
+     * takže souběžné uložení stejné stránky ani pád během zápisu nezanechají poškozený obsah.
+     */
+    private void storeBlob(String hash, byte[] content) throws IOException {
+        Path target = blobPath(hash);
+        if (Files.exists(target)) {
+            deduplicatedPages.incrementAndGet();
+            return;
+        }
+        Files.createDirectories(target.getParent());
+        Path temporary = Files.createTempFile(target.getParent(), hash, ".tmp");
+        try {
+            try (OutputStream gzip = new GZIPOutputStream(Files.newOutputStream(temporary))) {
+                gzip.write(content);
+            }
+            Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE);
+            storedBlobs.incrementAndGet();
+        } catch (FileAlreadyExistsException e) {
+            deduplicatedPages.incrementAndGet();
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    private Path blobPath(String hash) {
+        return root.resolve(BLOB_DIRECTORY).resolve(hash.substring(0, 2)).resolve(hash + BLOB_SUFFIX);
+    }
+
+    private static String sha256(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 není k dispozici", e);
+        }
+    }
+
+    /**
+     * Jedno stažení stránky v archivu: normalizované klíčové slovo, čas zachycení, číslo stránky,
+     * vrstva a SHA-256 obsahu.
+     */
+    public static final class ArchivedPage {
+
+        private final String keyword;
+        private final long capturedAt;
+        private final int page;
+        private final String tier;
+        private final String sha256;
+
+        ArchivedPage(String keyword, long capturedAt, int page, String tier, String sha256) {
+            this.keyword = keyword;
+            this.capturedAt = capturedAt;
+            this.page = page;
+            this.tier = tier;
+            this.sha256 = sha256;
+        }
+
+        public String getKeyword() {
+            return keyword;
+        }
+
+        public long getCapturedAt() {
+            return capturedAt;
+        }
+
+        public int getPage() {
+            return page;
+        }
+
+        public String getTier() {
+            return tier;
+        }
+
+        public String getSha256() {
+            return sha256;
+        }
+    }
+}
@@ -0,0 +1,331 @@
+package cz.michalmusil.services;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Globální plánovač zdvořilostních pauz mezi požadavky na jeden cíl (např. www.google.com).
+ * Nahrazuje dřívější {@code TimeUnit.SECONDS.sleep(delay)}: každý požadavek si zarezervuje
+ * časový slot (token bucket s náhodným rozestupem 10-20 s) a úloha se spustí až v něm
+ * pomocí {@link ScheduledExecutorService}. Během čekání tak není blokované žádné vlákno ani prohlížeč.
+ * <p>
+ * Rozestup se přizpůsobuje blokacím: když klouzavý podíl blokovaných požadavků (CAPTCHA, HTTP 429)
+ * na cíl překročí {@code scraper.politeness.backoff.block-rate-threshold}, každá další blokace
+ * rozestup zdvojnásobí (až do {@code max-multiplier}); úspěšné požadavky ho po poklesu podílu
+ * zase postupně vrací na základní hodnotu. Práh musí být vyšší než váha jednoho požadavku v klouzavém
+ * podílu (0,2) - jinak by zpomalení spustila i jediná ojedinělá blokace; výchozí 0,4 vyžaduje
+ * od čistého stavu tři blokace v řadě.
+ * <p>
+ * Zrušením vrácené future před začátkem slotu se rezervace uvolní: poslední rezervace vrátí čas
+ * plného kbelíku zpět, slot uprostřed převezme nejbližší další požadavek. Úlohu, která už běží,
+ * zrušit nelze - {@code cancel} vrátí false a future se dokončí jejím výsledkem.
+ */
+@Component
+public class PolitenessScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(PolitenessScheduler.class);
+
+    // Váha posledního požadavku v klouzavém podílu blokací
+    private static final double BLOCK_RATE_SMOOTHING = 0.2;
+
+    @Value("${scraper.politeness.min-delay-seconds:10}")
+    private long minDelaySeconds;
+
+    @Value("${scraper.politeness.max-delay-seconds:20}")
+    private long maxDelaySeconds;
+
+    // Kolik požadavků smí na jeden cíl odejít bez pauzy po delší nečinnosti
+    @Value("${scraper.politeness.burst:1}")
+    private int burst;
+
+    @Value("${scraper.politeness.backoff.block-rate-threshold:0.4}")
+    private double blockRateThreshold = 0.4;
+
+    @Value("${scraper.politeness.backoff.max-multiplier:16}")
+    private int maxBackoffMultiplier = 16;
+
+    private final ScrapeMetrics metrics;
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    private final Map<String, TargetState> targets = new ConcurrentHashMap<>();
+    private ScheduledExecutorService timer;
+
+    public PolitenessScheduler(ScrapeMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @PostConstruct
+    void start() {
+        if (blockRateThreshold <= BLOCK_RATE_SMOOTHING) {
+            logger.warn("Politeness: práh podílu blokací {} nepřevyšuje váhu jednoho požadavku {} - zpomalí i ojedinělá blokace.",
+                    blockRateThreshold, BLOCK_RATE_SMOOTHING);
+        }
+        timer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "politeness-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (timer != null) {
+            timer.shutdownNow();
+        }
+    }
+
+    /**
+     * Naplánuje úlohu na nejbližší volný slot pro daný cíl.
+     *
+     * @param target   identifikace cíle, pro který se tempo hlídá (např. host)
+     * @param task     úloha, která se má v přiděleném slotu provést
+     * @param executor executor, na kterém úloha poběží (vlákno plánovače se nikdy neblokuje)
+     * @return future s výsledkem úlohy; zrušení před začátkem slotu slot uvolní
+     */
+    public <T> CompletableFuture<T> schedule(String target, Supplier<T> task, Executor executor) {
+        Slot slot = reserveSlot(state(target));
+        long delayMillis = slot.delayMillis;
+        long scheduledAt = System.nanoTime();
+        SlotFuture<T> future = new SlotFuture<>(() -> release(target, slot));
+        Runnable dispatch = () -> {
+            if (!future.claim()) {
+                return; // Zrušeno před začátkem slotu
+            }
+            // Zdvořilostní pauza = od naplánování do uvolnění slotu; fronta = čekání na volné vlákno
+            metrics.recordPhase(ScrapeMetrics.PHASE_POLITENESS, scheduledAt);
+            long dispatchedAt = System.nanoTime();
+            try {
+                executor.execute(() -> {
+                    metrics.recordPhase(ScrapeMetrics.PHASE_QUEUE, dispatchedAt);
+                    try {
+                        future.complete(task.get());
+                    } catch (Throwable t) {
+                        future.completeExceptionally(t);
+                    }
+                });
+            } catch (Throwable t) {
+                future.completeExceptionally(t);
+            }
+        };
+
+        if (delayMillis <= 0) {
+            dispatch.run();
+        } else {
+            logger.info("Politeness: požadavek na '{}' naplánován za {} ms.", target, delayMillis);
+            future.timerTask = timer.schedule(dispatch, delayMillis, TimeUnit.MILLISECONDS);
+        }
+        return future;
+    }
+
+    /**
+     * Požadavek na cíl byl zablokován (CAPTCHA, HTTP 429). Při vysokém podílu blokací zpomalí tempo.
+     */
+    public void recordBlock(String target) {
+        TargetState state = state(target);
+        long now = System.currentTimeMillis();
+        state.lock.lock();
+        try {
+            state.blockRate = state.blockRate * (1 - BLOCK_RATE_SMOOTHING) + BLOCK_RATE_SMOOTHING;
+            if (state.blockRate >= blockRateThreshold && state.backoffMultiplier < maxBackoffMultiplier) {
+                state.backoffMultiplier = Math.min(maxBackoffMultiplier, state.backoffMultiplier * 2);
+                // Uvolněné sloty odpovídají původnímu tempu - po zpomalení se znovu nepoužijí
+                state.freedSlots.clear();
+                // Zpomalení platí hned - další slot nejdřív po jednom zpomaleném rozestupu
+                state.theoreticalArrival = Math.max(state.theoreticalArrival, now + averageInterval() * state.backoffMultiplier);
+                logger.warn("Politeness: podíl blokací na '{}' je {}, zpomaluji {}x.",
+                        target, String.format("%.2f", state.blockRate), state.backoffMultiplier);
+            }
+        } finally {
+            state.lock.unlock();
+        }
+    }
+
+    /**
+     * Požadavek na cíl prošel bez blokace. Po poklesu podílu blokací postupně ruší zpomalení.
+     */
+    public void recordSuccess(String target) {
+        TargetState state = state(target);
+        state.lock.lock();
+        try {
+            state.blockRate = state.blockRate * (1 - BLOCK_RATE_SMOOTHING);
+            if (state.blockRate < blockRateThreshold && state.backoffMultiplier > 1) {
+                state.backoffMultiplier /= 2;
+                logger.info("Politeness: podíl blokací na '{}' klesl na {}, zpomalení {}x.",
+                        target, String.format("%.2f", state.blockRate), state.backoffMultiplier);
+            }
+        } finally {
+            state.lock.unlock();
+        }
+    }
+
+    /**
+     * Aktuální násobek rozestupu pro cíl (1 = bez zpomalení).
+     */
+    public int getBackoffMultiplier(String target) {
+        TargetState state = targets.get(target);
+        return state != null ? state.backoffMultiplier : 1;
+    }
+
+    /**
+     * Zarezervuje slot pro cíl a vrátí, za kolik milisekund nastane.
+     */
+    long reserve(String target) {
+        return reserveSlot(state(target)).delayMillis;
+    }
+
+    /**
+     * Zarezervuje slot: přednostně nejbližší uvolněný slot, který ještě nenastal, jinak nový podle GCRA.
+     */
+    private Slot reserveSlot(TargetState state) {
+        long now = System.currentTimeMillis();
+        long burstTolerance = (long) Math.max(0, burst - 1) * averageInterval();
+
+        state.lock.lock();
+        try {
+            Long freed;
+            while ((freed = state.freedSlots.poll()) != null) {
+                if (freed >= now) {
+                    return new Slot(freed, freed - now, Slot.REUSED, Slot.REUSED);
+                }
+            }
+            // GCRA (token bucket): theoreticalArrival je čas, kdy by byl kbelík opět plný
+            long previousArrival = state.theoreticalArrival;
+            long slot = Math.max(now, state.theoreticalArrival - burstTolerance);
+            state.theoreticalArrival = Math.max(state.theoreticalArrival, slot) + nextInterval() * state.backoffMultiplier;
+            return new Slot(slot, slot - now, previousArrival, state.theoreticalArrival);
+        } finally {
+            state.lock.unlock();
+        }
+    }
+
+    /**
+     * Vrátí slot zrušeného požadavku. Když po něm nikdo další nerezervoval, posune se zpět i čas
+     * plného kbelíku; jinak slot převezme nejbližší další rezervace.
+     */
+    private void release(String target, Slot slot) {
+        TargetState state = state(target);
+        state.lock.lock();
+        try {
+            if (slot.arrival != Slot.REUSED && state.theoreticalArrival == slot.arrival) {
+                state.theoreticalArrival = slot.previousArrival;
+            } else {
+                state.freedSlots.add(slot.at);
+            }
+        } finally {
+            state.lock.unlock();
+        }
+        logger.info("Politeness: požadavek na '{}' zrušen před svým slotem, slot uvolněn.", target);
+    }
+
+    private TargetState state(String target) {
+        return targets.computeIfAbsent(target, this::createState);
+    }
+
+    private TargetState createState(String target) {
+        TargetState state = new TargetState();
+        if (meterRegistry != null) {
+            Gauge.builder("scraper.politeness.backoff", state, s -> s.backoffMultiplier)
+                    .tag("target", target)
+                    .description("Násobek zdvořilostní pauzy kvůli blokacím (1 = bez zpomalení)")
+                    .register(meterRegistry);
+            Gauge.builder("scraper.politeness.block.rate", state, s -> s.blockRate)
+                    .tag("target", target)
+                    .description("Klouzavý podíl blokovaných požadavků na cíl (0-1)")
+                    .register(meterRegistry);
+        }
+        return state;
+    }
+
+    private long averageInterval() {
+        return TimeUnit.SECONDS.toMillis(minDelaySeconds + maxDelaySeconds) / 2;
+    }
+
+    private long nextInterval() {
+        long min = TimeUnit.SECONDS.toMillis(minDelaySeconds);
+        long max = TimeUnit.SECONDS.toMillis(maxDelaySeconds);
+        return max > min ? ThreadLocalRandom.current().nextLong(min, max + 1) : min;
+    }
+
+    /**
+     * Rezervovaný slot: čas, zpoždění od rezervace a čas plného kbelíku před rezervací a po ní.
+     */
+    private static final class Slot {
+
+        // Znovu použitý uvolněný slot čas plného kbelíku neposunul
+        private static final long REUSED = Long.MIN_VALUE;
+
+        private final long at;
+        private final long delayMillis;
+        private final long previousArrival;
+        private final long arrival;
+
+        Slot(long at, long delayMillis, long previousArrival, long arrival) {
+            this.at = at;
+            this.delayMillis = delayMillis;
+            this.previousArrival = previousArrival;
+            this.arrival = arrival;
+        }
+    }
+
+    /**
+     * Future úlohy ve slotu. Zrušit ji jde jen do začátku slotu ({@link #claim()} rozhodne, kdo byl první).
+     */
+    private static final class SlotFuture<T> extends CompletableFuture<T> {
+
+        private final AtomicBoolean claimed = new AtomicBoolean();
+        private final Runnable onCancel;
+        private volatile ScheduledFuture<?> timerTask;
+
+        SlotFuture(Runnable onCancel) {
+            this.onCancel = onCancel;
+        }
+
+        boolean claim() {
+            return claimed.compareAndSet(false, true);
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            if (!claim()) {
+                return isCancelled();
+            }
+            ScheduledFuture<?> task = timerTask;
+            if (task != null) {
+                task.cancel(false);
+            }
+            onCancel.run();
+            return super.cancel(mayInterruptIfRunning);
+        }
+    }
+
+    private static final class TargetState {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final PriorityQueue<Long> freedSlots = new PriorityQueue<>();
+        private long theoreticalArrival;
+        private volatile double blockRate;
+        private volatile int backoffMultiplier = 1;
+    }
+}
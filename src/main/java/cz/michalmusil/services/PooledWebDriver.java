@@ -0,0 +1,56 @@
+package cz.michalmusil.services;
+
+import org.openqa.selenium.WebDriver;
+
+/**
+ * Obal nad WebDriverem spravovaným v {@link WebDriverPool}.
+ * Drží metadata potřebná pro recyklaci (stáří, poslední použití, počet navigací)
+ * a odchozí identitu (proxy), se kterou byl prohlížeč spuštěn.
+ */
+public class PooledWebDriver {
+
+    private final WebDriver driver;
+    private final EgressProxyPool.EgressProxy egress;
+    private final long createdAt;
+    private volatile long lastUsedAt;
+    private int navigationCount;
+
+    PooledWebDriver(WebDriver driver, EgressProxyPool.EgressProxy egress) {
+        this.driver = driver;
+        this.egress = egress;
+        this.createdAt = System.currentTimeMillis();
+        this.lastUsedAt = this.createdAt;
+    }
+
+    public WebDriver getDriver() {
+        return driver;
+    }
+
+    public EgressProxyPool.EgressProxy getEgress() {
+        return egress;
+    }
+
+    /**
+     * Navigace na danou URL se započítáním do limitu navigací prohlížeče.
+     */
+    public void navigate(String url) {
+        navigationCount++;
+        driver.get(url);
+    }
+
+    public int getNavigationCount() {
+        return navigationCount;
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    long getLastUsedAt() {
+        return lastUsedAt;
+    }
+
+    void touch() {
+        this.lastUsedAt = System.currentTimeMillis();
+    }
+}
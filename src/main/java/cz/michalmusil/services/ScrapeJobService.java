@@ -0,0 +1,154 @@
+package cz.michalmusil.services;
+
+import cz.michalmusil.models.ScrapeJobModel;
+import cz.michalmusil.models.SearchResponseModel;
+import cz.michalmusil.models.SearchResultModel;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fronta asynchronních scraping úloh. Úlohy jsou ve {@link ScrapeQueue} hromadné - nikdo na ně
+ * nečeká interaktivně, takže nezdrží požadavky z UI.
+ * Čekající úloha nedrží žádné vlákno - čeká na svůj slot v {@link PolitenessScheduler}u.
+ * Počet nedokončených úloh je omezen; pokud je fronta plná nebo by se úloha podle odhadu fronty
+ * scrapingů nestihla spustit do maximálního čekání hromadné třídy,
+ * {@link #submit(String, String)} vyhodí {@link RejectedExecutionException} a kontroler vrátí HTTP 429.
+ */
+@Service
+public class ScrapeJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ScrapeJobService.class);
+
+    private final CachingScraperService scraperService;
+    private final ScrapeQueue scrapeQueue;
+
+    @Value("${scraper.jobs.queue-capacity:1000}")
+    private int queueCapacity;
+
+    @Value("${scraper.jobs.retention-minutes:60}")
+    private long retentionMinutes;
+
+    private final Map<String, ScrapeJobModel> jobs = new ConcurrentHashMap<>();
+    private volatile long lastPurgeAt = System.currentTimeMillis();
+    private Semaphore pendingPermits;
+
+    public ScrapeJobService(CachingScraperService scraperService, ScrapeQueue scrapeQueue) {
+        this.scraperService = scraperService;
+        this.scrapeQueue = scrapeQueue;
+    }
+
+    @PostConstruct
+    void start() {
+        pendingPermits = new Semaphore(queueCapacity);
+        logger.info("ScrapeJobService: kapacita fronty {} úloh.", queueCapacity);
+    }
+
+    /**
+     * Zařadí novou scraping úlohu do fronty.
+     *
+     * @param keyword  klíčové slovo (již oříznuté)
+     * @param clientId klient pro spravedlivé střídání ve frontě scrapingů
+     * @return vytvořená úloha ve stavu QUEUED
+     * @throws RejectedExecutionException pokud je fronta plná nebo by úloha čekala déle, než fronta scrapingů dovolí
+     */
+    public ScrapeJobModel submit(String keyword, String clientId) {
+        purgeExpiredJobs();
+
+        // Úlohu, kterou by fronta scrapingů stejně odmítla po vypršení čekání, nemá smysl přijímat
+        long expectedWaitSeconds = scrapeQueue.estimateWaitSeconds(ScrapeQueue.Priority.BULK);
+        long maxWaitSeconds = scrapeQueue.getMaxWaitSeconds(ScrapeQueue.Priority.BULK);
+        if (expectedWaitSeconds > maxWaitSeconds) {
+            logger.warn("ScrapeJobService: úloha by čekala asi {} s (limit {} s), odmítám klíčové slovo '{}'.",
+                    expectedWaitSeconds, maxWaitSeconds, keyword);
+            throw new RejectedExecutionException("Fronta scrapingů je plná");
+        }
+
+        if (!pendingPermits.tryAcquire()) {
+            logger.warn("ScrapeJobService: fronta je plná ({} úloh), odmítám klíčové slovo '{}'.", queueCapacity, keyword);
+            throw new RejectedExecutionException("Fronta úloh je plná");
+        }
+
+        ScrapeJobModel job = new ScrapeJobModel(UUID.randomUUID().toString(), keyword);
+        jobs.put(job.getId(), job);
+        try {
+            scraperService.scrapeAsync(keyword, 1, ScrapeQueue.Priority.BULK, clientId, () -> markRunning(job))
+                    .whenComplete((outcome, error) -> complete(job, outcome != null ? outcome.getResults() : null, error));
+        } catch (RuntimeException e) {
+            jobs.remove(job.getId());
+            pendingPermits.release();
+            throw e;
+        }
+        logger.info("ScrapeJobService: úloha {} zařazena pro klíčové slovo '{}'.", job.getId(), keyword);
+        return job;
+    }
+
+    public Optional<ScrapeJobModel> getJob(String id) {
+        return Optional.ofNullable(jobs.get(id));
+    }
+
+    /**
+     * Počet nedokončených úloh (čekajících i právě zpracovávaných).
+     */
+    public int getPendingCount() {
+        return queueCapacity - pendingPermits.availablePermits();
+    }
+
+    private void markRunning(ScrapeJobModel job) {
+        job.setStartedAt(System.currentTimeMillis());
+        job.setStatus(ScrapeJobModel.Status.RUNNING);
+    }
+
+    private void complete(ScrapeJobModel job, List<SearchResultModel> results, Throwable error) {
+        try {
+            if (error == null) {
+                job.setResponse(new SearchResponseModel(
+                        job.getKeyword(),
+                        results,
+                        true,
+                        String.format("Úspěšně nalezeno %d výsledků", results.size())
+                ));
+                job.setStatus(ScrapeJobModel.Status.COMPLETED);
+            } else {
+                Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                logger.error("ScrapeJobService: úloha {} selhala: {}", job.getId(), cause.getMessage(), cause);
+                job.setResponse(new SearchResponseModel(
+                        job.getKeyword(),
+                        new ArrayList<>(),
+                        false,
+                        "Chyba při získávání výsledků: " + cause.getMessage()
+                ));
+                job.setStatus(ScrapeJobModel.Status.FAILED);
+            }
+        } finally {
+            job.setFinishedAt(System.currentTimeMillis());
+            pendingPermits.release();
+        }
+    }
+
+    /**
+     * Odstraní dokončené úlohy starší než retenční doba. Běží nejvýše jednou za minutu.
+     */
+    private void purgeExpiredJobs() {
+        long now = System.currentTimeMillis();
+        if (now - lastPurgeAt < TimeUnit.MINUTES.toMillis(1)) {
+            return;
+        }
+        lastPurgeAt = now;
+        long threshold = now - TimeUnit.MINUTES.toMillis(retentionMinutes);
+        jobs.values().removeIf(job -> job.getFinishedAt() != null && job.getFinishedAt() < threshold);
+    }
+}
@@ -0,0 +1,94 @@
+package cz.michalmusil.services;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Metriky průběhu scrapingu: časovač {@code scraper.phase} pro jednotlivé fáze (tag {@code phase}),
+ * počítadlo {@code scraper.fetch.tier} s výsledkem každého pokusu (tagy {@code tier}, {@code outcome}),
+ * počítadlo eskalací z HTTP vrstvy na prohlížeč {@code scraper.browser.escalations} (tag {@code reason})
+ * a objem dat načtených prohlížečem {@code scraper.browser.page.bytes} (tag {@code profile}).
+ * Bez {@link MeterRegistry} (např. v unit testech) se nic nezaznamenává.
+ */
+@Component
+public class ScrapeMetrics {
+
+    static final String PHASE_TIMER = "scraper.phase";
+    static final String OUTCOME_COUNTER = "scraper.fetch.tier";
+    static final String PAGE_BYTES_SUMMARY = "scraper.browser.page.bytes";
+    public static final String ESCALATION_COUNTER = "scraper.browser.escalations";
+
+    // Fáze scrapingu (tag phase)
+    public static final String PHASE_POLITENESS = "politeness";
+    public static final String PHASE_QUEUE = "queue";
+    public static final String PHASE_HTTP_FETCH = "http.fetch";
+    public static final String PHASE_DRIVER_ACQUIRE = "driver.acquire";
+    public static final String PHASE_NAVIGATE = "navigate";
+    public static final String PHASE_WAIT = "wait";
+    public static final String PHASE_PAGE_SOURCE = "page.source";
+    public static final String PHASE_PARSE = "parse";
+    public static final String PHASE_EXTRACT = "extract";
+    public static final String PHASE_SCRIPT_EXTRACT = "script.extract";
+
+    // Výsledky pokusu (tag outcome)
+    public static final String OUTCOME_SUCCESS = "success";
+    public static final String OUTCOME_CAPTCHA = "captcha";
+    public static final String OUTCOME_NO_RESULTS = "no_results";
+    public static final String OUTCOME_SELECTOR_MISS = "selector_miss";
+    public static final String OUTCOME_EXCEPTION = "exception";
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    /**
+     * Zaznamená dobu trvání fáze od {@code startNanos} (hodnota {@link System#nanoTime()}) do teď.
+     */
+    public void recordPhase(String phase, long startNanos) {
+        if (meterRegistry != null) {
+            meterRegistry.timer(PHASE_TIMER, "phase", phase).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Zda se metriky zaznamenávají - měření, které něco stojí (dotaz do prohlížeče), lze bez registru vynechat.
+     */
+    public boolean isEnabled() {
+        return meterRegistry != null;
+    }
+
+    /**
+     * Zaznamená objem dat přenesených při načtení jedné stránky v prohlížeči (tag {@code profile}).
+     */
+    public void recordPageBytes(String profile, long bytes) {
+        if (meterRegistry != null) {
+            DistributionSummary.builder(PAGE_BYTES_SUMMARY)
+                    .baseUnit("bytes")
+                    .tag("profile", profile)
+                    .description("Data přenesená při načtení stránky s výsledky v prohlížeči")
+                    .register(meterRegistry)
+                    .record(bytes);
+        }
+    }
+
+    /**
+     * Započítá eskalaci z HTTP vrstvy na prohlížeč; důvod je výsledek HTTP pokusu (captcha, selector_miss, exception).
+     */
+    public void recordEscalation(String reason) {
+        if (meterRegistry != null) {
+            meterRegistry.counter(ESCALATION_COUNTER, "reason", reason).increment();
+        }
+    }
+
+    /**
+     * Započítá výsledek pokusu dané vrstvy (http / browser).
+     */
+    public void recordOutcome(String tier, String outcome) {
+        if (meterRegistry != null) {
+            meterRegistry.counter(OUTCOME_COUNTER, "tier", tier, "outcome", outcome).increment();
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package cz.michalmusil.services;
+
+import cz.michalmusil.models.SearchResultModel;
+
+import java.util.List;
+
+/**
+ * Výsledek scrapingu spolu s informací, odkud pochází (cache / nový scraping)
+ * a jak dlouho smí klient odpověď považovat za čerstvou.
+ */
+public class ScrapeOutcome {
+
+    public enum CacheStatus {
+        HIT,
+        MISS,
+        // Výsledek sdílený s jiným souběžně probíhajícím scrapingem stejného klíčového slova
+        COALESCED
+    }
+
+    private final List<SearchResultModel> results;
+    private final CacheStatus cacheStatus;
+    private final long maxAgeSeconds;
+
+    public ScrapeOutcome(List<SearchResultModel> results, CacheStatus cacheStatus, long maxAgeSeconds) {
+        this.results = results;
+        this.cacheStatus = cacheStatus;
+        this.maxAgeSeconds = maxAgeSeconds;
+    }
+
+    public List<SearchResultModel> getResults() {
+        return results;
+    }
+
+    public CacheStatus getCacheStatus() {
+        return cacheStatus;
+    }
+
+    /**
+     * Zbývající doba platnosti v cache; 0 pokud výsledek do cache uložen nebyl.
+     */
+    public long getMaxAgeSeconds() {
+        return maxAgeSeconds;
+    }
+}
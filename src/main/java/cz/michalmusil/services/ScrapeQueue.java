@@ -0,0 +1,475 @@
+package cz.michalmusil.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Fronta scrapingů před {@link GoogleScraperService}. Najednou se zpracovává nejvýše
+ * {@code scraper.queue.concurrency} scrapingů; ostatní čekají ve frontě své třídy.
+ * <p>
+ * Interaktivní požadavky (UI, jednotlivá klíčová slova) mají vždy přednost před hromadnými
+ * (velké dávky, úlohy, sledování), takže hromadná práce jen vyplňuje volnou kapacitu prohlížečů.
+ * V rámci třídy se klienti střídají váženým round robinem - klient s váhou 3 dostane tři scrapingy
+ * za kolo, ostatní po jednom - a jeden skript s tisíci klíčovými slovy tak nezablokuje ostatní.
+ * Požadavek, který ve frontě čeká déle než {@code max-wait-seconds} své třídy, selže
+ * s {@link RejectedExecutionException}. Stejně selže hned při zařazení, pokud by se podle odhadu
+ * ({@link #estimateWaitSeconds(Priority)}) do té doby nestihl spustit - plná fronta tak požadavky
+ * nepřijímá jen proto, aby je za hodinu odmítla. Zrušením vrácené future ({@code cancel}) se čekající
+ * požadavek z fronty odebere. Spuštěné úloze se zrušení předá - scraping, který ještě čeká na svůj
+ * zdvořilostní slot, se zruší a slot uvolní; už běžící scraping doběhne a drží kapacitu až do svého dokončení.
+ */
+@Service
+public class ScrapeQueue {
+
+    private static final Logger logger = LoggerFactory.getLogger(ScrapeQueue.class);
+
+    // Klient pro požadavky bez identifikace (interní volání, testy)
+    public static final String DEFAULT_CLIENT = "anonymous";
+
+    public enum Priority {
+        INTERACTIVE,
+        BULK
+    }
+
+    // Bez Springu (testy, výchozí instance) fronta jen přímo spouští úlohy
+    @Value("${scraper.queue.enabled:true}")
+    private boolean enabled;
+
+    @Value("${scraper.queue.concurrency:${scraper.pool.max-size:2}}")
+    private int concurrency = 2;
+
+    @Value("${scraper.queue.interactive.max-wait-seconds:60}")
+    private long interactiveMaxWaitSeconds = 60;
+
+    @Value("${scraper.queue.bulk.max-wait-seconds:3600}")
+    private long bulkMaxWaitSeconds = 3600;
+
+    // Počáteční odhad rozestupu spouštění úloh při zaplněné kapacitě (průměrný zdvořilostní rozestup);
+    // za běhu ho nahrazuje klouzavý průměr skutečných rozestupů
+    @Value("${scraper.queue.expected-start-interval-seconds:15}")
+    private long expectedStartIntervalSeconds = 15;
+
+    // Dávky do této velikosti (např. z UI) se řadí jako interaktivní
+    @Value("${scraper.queue.interactive-max-keywords:10}")
+    private int interactiveMaxKeywords = 10;
+
+    // Váhy klientů pro round robin: klient:váha oddělené čárkou; neuvedení klienti mají váhu 1
+    @Value("${scraper.queue.client-weights:}")
+    private List<String> clientWeightSpecs = List.of();
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<Priority, ClassQueue> queues = new EnumMap<>(Priority.class);
+    private final Map<String, Integer> clientWeights = new HashMap<>();
+    private final Map<Priority, Timer> waitTimers = new EnumMap<>(Priority.class);
+    private final Map<Priority, Counter> expiredCounters = new EnumMap<>(Priority.class);
+    private ScheduledExecutorService timer;
+    private int running;
+    // Klouzavý průměr rozestupu spouštění úloh, které čekaly ve frontě; pod zámkem
+    private long startIntervalNanos = TimeUnit.SECONDS.toNanos(expectedStartIntervalSeconds);
+    private long lastStartAt = Long.MIN_VALUE;
+
+    public ScrapeQueue() {
+        for (Priority priority : Priority.values()) {
+            queues.put(priority, new ClassQueue());
+        }
+    }
+
+    @PostConstruct
+    void start() {
+        for (String spec : clientWeightSpecs) {
+            if (spec.isBlank()) {
+                continue;
+            }
+            int separator = spec.lastIndexOf(':');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Neplatná váha klienta (očekáváno klient:váha): " + spec);
+            }
+            clientWeights.put(spec.substring(0, separator).trim(), Math.max(1, Integer.parseInt(spec.substring(separator + 1).trim())));
+        }
+        startIntervalNanos = TimeUnit.SECONDS.toNanos(expectedStartIntervalSeconds);
+        if (!enabled) {
+            return;
+        }
+        timer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "scrape-queue-timeout");
+            thread.setDaemon(true);
+            return thread;
+        });
+        registerMetrics();
+        logger.info("ScrapeQueue: souběžně {} scrapingů, váhy klientů {}.", concurrency, clientWeights);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (timer != null) {
+            timer.shutdownNow();
+        }
+    }
+
+    /**
+     * Třída dávky podle její velikosti - malé dávky (typicky z UI) jsou interaktivní.
+     */
+    public Priority priorityForBatch(int keywordCount) {
+        return keywordCount <= interactiveMaxKeywords ? Priority.INTERACTIVE : Priority.BULK;
+    }
+
+    /**
+     * Zařadí scraping do fronty. Úloha se spustí, až na ni přijde řada a uvolní se kapacita;
+     * vrácená future se dokončí spolu s future, kterou úloha vrátí. Pokud by čekání podle odhadu
+     * překročilo maximální čekání třídy, future hned selže s {@link RejectedExecutionException}.
+     *
+     * @param clientId identifikace klienta pro spravedlivé střídání (API klíč, IP adresa)
+     * @param task     spuštění scrapingu; nesmí blokovat (vrací future)
+     */
+    public <T> CompletableFuture<T> submit(Priority priority, String clientId, Supplier<CompletableFuture<T>> task) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        if (!enabled) {
+            start(task, result);
+            return result;
+        }
+
+        long maxWaitSeconds = getMaxWaitSeconds(priority);
+        long expectedWaitSeconds = estimateWaitSeconds(priority);
+        if (expectedWaitSeconds > maxWaitSeconds) {
+            logger.warn("ScrapeQueue: požadavek klienta '{}' ({}) by čekal asi {} s (limit {} s), odmítám.",
+                    clientId, priority, expectedWaitSeconds, maxWaitSeconds);
+            result.completeExceptionally(new RejectedExecutionException(
+                    String.format("Fronta je plná - scraping by čekal déle než %d s", maxWaitSeconds)));
+            return result;
+        }
+
+        QueuedTask queued = new QueuedTask(priority, clientId != null ? clientId : DEFAULT_CLIENT,
+                () -> start(task, result), result);
+        result.whenComplete((value, error) -> {
+            if (result.isCancelled()) {
+                cancel(queued);
+            }
+        });
+        lock.lock();
+        try {
+            queues.get(priority).add(queued, clientWeights.getOrDefault(queued.clientId, 1));
+        } finally {
+            lock.unlock();
+        }
+        // Pokud úlohu mezitím spustil jiný dispatch, vypršení ji ve frontě nenajde a nic neudělá
+        queued.timeout = timer.schedule(() -> expire(queued, maxWaitSeconds), maxWaitSeconds, TimeUnit.SECONDS);
+        dispatch();
+        return result;
+    }
+
+    /**
+     * Odhad, za jak dlouho by se spustil nový požadavek dané třídy: před ním jsou všechny čekající
+     * požadavky jeho a vyšších tříd a úlohy se při zaplněné kapacitě spouštějí zhruba po průměrném
+     * rozestupu (tempo určuje {@link PolitenessScheduler}, ne počet vláken).
+     *
+     * @return odhad čekání v sekundách; 0 pokud se požadavek spustí hned
+     */
+    public long estimateWaitSeconds(Priority priority) {
+        if (!enabled) {
+            return 0;
+        }
+        lock.lock();
+        try {
+            long ahead = 0;
+            for (Priority queuedPriority : Priority.values()) {
+                if (queuedPriority.compareTo(priority) <= 0) {
+                    ahead += queues.get(queuedPriority).size;
+                }
+            }
+            long starts = ahead + 1 - Math.max(0, concurrency - running);
+            return starts > 0 ? TimeUnit.NANOSECONDS.toSeconds(starts * startIntervalNanos) : 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getMaxWaitSeconds(Priority priority) {
+        return priority == Priority.INTERACTIVE ? interactiveMaxWaitSeconds : bulkMaxWaitSeconds;
+    }
+
+    /**
+     * Počet čekajících scrapingů ve třídě.
+     */
+    public int getDepth(Priority priority) {
+        lock.lock();
+        try {
+            return queues.get(priority).size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getRunning() {
+        lock.lock();
+        try {
+            return running;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Spouští čekající úlohy, dokud je volná kapacita: nejdřív interaktivní, pak hromadné.
+     * Úlohy se spouští mimo zámek - samy jen naplánují práci a hned se vrátí.
+     */
+    private void dispatch() {
+        while (true) {
+            QueuedTask next = null;
+            lock.lock();
+            try {
+                if (running < concurrency) {
+                    for (Priority priority : Priority.values()) {
+                        next = queues.get(priority).poll();
+                        if (next != null) {
+                            break;
+                        }
+                    }
+                    if (next != null) {
+                        running++;
+                        long now = System.nanoTime();
+                        if (next.enqueuedAt < lastStartAt) {
+                            // Úloha čekala za předchozí - rozestup odpovídá propustnosti fronty
+                            startIntervalNanos += (now - lastStartAt - startIntervalNanos) / 8;
+                        }
+                        lastStartAt = now;
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+            if (next == null) {
+                return;
+            }
+            ScheduledFuture<?> timeout = next.timeout;
+            if (timeout != null) {
+                timeout.cancel(false);
+            }
+            if (next.result.isDone()) {
+                // Zrušeno mezi vyjmutím z fronty a spuštěním
+                release();
+                continue;
+            }
+            Timer waitTimer = waitTimers.get(next.priority);
+            if (waitTimer != null) {
+                waitTimer.record(System.nanoTime() - next.enqueuedAt, TimeUnit.NANOSECONDS);
+            }
+            // Kapacitu uvolní až dokončení samotného scrapingu, ne zrušení future volajícího
+            next.start.get().whenComplete((value, error) -> {
+                release();
+                dispatch();
+            });
+        }
+    }
+
+    private void release() {
+        lock.lock();
+        try {
+            running--;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Odebere zrušený požadavek z fronty; už spuštěného požadavku se netýká.
+     */
+    private void cancel(QueuedTask queued) {
+        boolean removed;
+        lock.lock();
+        try {
+            removed = queues.get(queued.priority).remove(queued);
+        } finally {
+            lock.unlock();
+        }
+        if (removed) {
+            ScheduledFuture<?> timeout = queued.timeout;
+            if (timeout != null) {
+                timeout.cancel(false);
+            }
+            logger.info("ScrapeQueue: požadavek klienta '{}' ({}) zrušen před spuštěním.", queued.clientId, queued.priority);
+        }
+    }
+
+    private void expire(QueuedTask queued, long maxWaitSeconds) {
+        boolean removed;
+        lock.lock();
+        try {
+            removed = queues.get(queued.priority).remove(queued);
+        } finally {
+            lock.unlock();
+        }
+        if (removed) {
+            Counter counter = expiredCounters.get(queued.priority);
+            if (counter != null) {
+                counter.increment();
+            }
+            logger.warn("ScrapeQueue: požadavek klienta '{}' ({}) čekal déle než {} s, odmítám.",
+                    queued.clientId, queued.priority, maxWaitSeconds);
+            queued.result.completeExceptionally(new RejectedExecutionException(
+                    String.format("Scraping čekal ve frontě déle než %d s", maxWaitSeconds)));
+        }
+    }
+
+    /**
+     * Spustí úlohu a přepojí její výsledek do {@code result}.
+     *
+     * @return future samotné úlohy (dokončí se i tehdy, když volající {@code result} mezitím zrušil)
+     */
+    private static <T> CompletableFuture<T> start(Supplier<CompletableFuture<T>> task, CompletableFuture<T> result) {
+        try {
+            CompletableFuture<T> future = task.get();
+            future.whenComplete((value, error) -> {
+                if (error == null) {
+                    result.complete(value);
+                } else {
+                    result.completeExceptionally(error);
+                }
+            });
+            result.whenComplete((value, error) -> {
+                if (result.isCancelled()) {
+                    future.cancel(false);
+                }
+            });
+            return future;
+        } catch (RuntimeException e) {
+            result.completeExceptionally(e);
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private void registerMetrics() {
+        if (meterRegistry == null) {
+            return;
+        }
+        for (Priority priority : Priority.values()) {
+            String tag = priority.name().toLowerCase(Locale.ROOT);
+            Gauge.builder("scraper.queue.depth", this, queue -> queue.getDepth(priority))
+                    .description("Počet scrapingů čekajících ve frontě")
+                    .tag("priority", tag)
+                    .register(meterRegistry);
+            waitTimers.put(priority, Timer.builder("scraper.queue.wait")
+                    .description("Doba čekání scrapingu ve frontě")
+                    .tag("priority", tag)
+                    .register(meterRegistry));
+            expiredCounters.put(priority, Counter.builder("scraper.queue.expired")
+                    .description("Scrapingy odmítnuté po překročení maximálního čekání")
+                    .tag("priority", tag)
+                    .register(meterRegistry));
+        }
+        Gauge.builder("scraper.queue.running", this, ScrapeQueue::getRunning).register(meterRegistry);
+    }
+
+    /**
+     * Fronta jedné třídy: fronta úloh pro každého klienta a pořadí klientů pro vážený round robin.
+     * Přístup jen pod zámkem {@link ScrapeQueue}.
+     */
+    private static final class ClassQueue {
+
+        private final Map<String, ClientQueue> clients = new HashMap<>();
+        private final Deque<ClientQueue> rotation = new ArrayDeque<>();
+        private int size;
+
+        void add(QueuedTask task, int weight) {
+            ClientQueue client = clients.get(task.clientId);
+            if (client == null) {
+                client = new ClientQueue(task.clientId, weight);
+                clients.put(task.clientId, client);
+                rotation.addLast(client);
+            }
+            client.tasks.addLast(task);
+            size++;
+        }
+
+        /**
+         * Další úloha: klient na řadě dostane až {@code weight} úloh v řadě, pak jde na konec.
+         */
+        QueuedTask poll() {
+            ClientQueue client = rotation.peekFirst();
+            if (client == null) {
+                return null;
+            }
+            QueuedTask task = client.tasks.pollFirst();
+            size--;
+            client.served++;
+            if (client.tasks.isEmpty()) {
+                rotation.pollFirst();
+                clients.remove(client.clientId);
+            } else if (client.served >= client.weight) {
+                client.served = 0;
+                rotation.addLast(rotation.pollFirst());
+            }
+            return task;
+        }
+
+        boolean remove(QueuedTask task) {
+            ClientQueue client = clients.get(task.clientId);
+            if (client == null || !client.tasks.remove(task)) {
+                return false;
+            }
+            size--;
+            if (client.tasks.isEmpty()) {
+                rotation.remove(client);
+                clients.remove(client.clientId);
+            }
+            return true;
+        }
+    }
+
+    private static final class ClientQueue {
+
+        private final String clientId;
+        private final int weight;
+        private final Deque<QueuedTask> tasks = new ArrayDeque<>();
+        private int served;
+
+        ClientQueue(String clientId, int weight) {
+            this.clientId = clientId;
+            this.weight = weight;
+        }
+    }
+
+    private static final class QueuedTask {
+
+        private final Priority priority;
+        private final String clientId;
+        private final Supplier<CompletableFuture<?>> start;
+        private final CompletableFuture<?> result;
+        private final long enqueuedAt = System.nanoTime();
+        private volatile ScheduledFuture<?> timeout;
+
+        QueuedTask(Priority priority, String clientId, Supplier<CompletableFuture<?>> start, CompletableFuture<?> result) {
+            this.priority = priority;
+            this.clientId = clientId;
+            this.start = start;
+            this.result = result;
+        }
+    }
+}
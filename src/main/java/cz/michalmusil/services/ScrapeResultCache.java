@@ -0,0 +1,242 @@
+package cz.michalmusil.services;
+
+import cz.michalmusil.models.SearchResultModel;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * LRU cache výsledků scrapingu s TTL a omezením počtu záznamů i odhadované velikosti v bajtech.
+ * Klíčem je normalizované klíčové slovo ({@link KeywordNormalizer}).
+ */
+@Component
+public class ScrapeResultCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(ScrapeResultCache.class);
+
+    // Odhad režie jednoho záznamu (objekty, reference, hlavička mapy)
+    private static final long ENTRY_OVERHEAD_BYTES = 128;
+    private static final long RESULT_OVERHEAD_BYTES = 64;
+
+    @Value("${scraper.cache.ttl-seconds:3600}")
+    private long ttlSeconds;
+
+    @Value("${scraper.cache.max-entries:1000}")
+    private int maxEntries;
+
+    @Value("${scraper.cache.max-bytes:20971520}")
+    private long maxBytes;
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    // accessOrder = true -> iterace od nejdéle nepoužitého záznamu (LRU)
+    private final LinkedHashMap<String, CachedResults> entries = new LinkedHashMap<>(16, 0.75f, true);
+    // ReentrantLock místo synchronized - čekající virtuální vlákno neblokuje nosné vlákno
+    private final ReentrantLock lock = new ReentrantLock();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private long currentBytes;
+
+    @PostConstruct
+    void registerMetrics() {
+        if (meterRegistry == null) {
+            return;
+        }
+        FunctionCounter.builder("scraper.cache.requests", hits, AtomicLong::get)
+                .tag("result", "hit")
+                .description("Počet požadavků obsloužených z cache")
+                .register(meterRegistry);
+        FunctionCounter.builder("scraper.cache.requests", misses, AtomicLong::get)
+                .tag("result", "miss")
+                .description("Počet požadavků, které v cache nebyly")
+                .register(meterRegistry);
+        FunctionCounter.builder("scraper.cache.evictions", evictions, AtomicLong::get)
+                .register(meterRegistry);
+        Gauge.builder("scraper.cache.entries", this, ScrapeResultCache::size).register(meterRegistry);
+        Gauge.builder("scraper.cache.bytes", this, ScrapeResultCache::sizeInBytes).register(meterRegistry);
+    }
+
+    /**
+     * Vrátí platný (neexpirovaný) záznam pro normalizované klíčové slovo.
+     */
+    public Optional<CachedResults> get(String normalizedKeyword) {
+        lock.lock();
+        try {
+            CachedResults cached = entries.get(normalizedKeyword);
+            if (cached != null && cached.isExpired(System.currentTimeMillis())) {
+                remove(normalizedKeyword);
+                cached = null;
+            }
+            if (cached == null) {
+                misses.incrementAndGet();
+                return Optional.empty();
+            }
+            hits.incrementAndGet();
+            return Optional.of(cached);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Uloží výsledky do cache a případně vyřadí nejdéle nepoužité záznamy.
+     * Záznam větší než celý limit {@code max-bytes} se neuloží (starší záznam pro klíč se jen odstraní).
+     *
+     * @return uložený záznam, nebo prázdná hodnota, pokud se záznam do cache nevešel
+     */
+    public Optional<CachedResults> put(String normalizedKeyword, List<SearchResultModel> results) {
+        long now = System.currentTimeMillis();
+        CachedResults cached = new CachedResults(List.copyOf(results), now,
+                now + TimeUnit.SECONDS.toMillis(ttlSeconds), estimateBytes(normalizedKeyword, results));
+
+        lock.lock();
+        try {
+            remove(normalizedKeyword);
+            if (cached.sizeBytes > maxBytes) {
+                logger.debug("Cache: záznam '{}' ({} B) je větší než limit cache, neukládá se.", normalizedKeyword, cached.sizeBytes);
+                return Optional.empty();
+            }
+            entries.put(normalizedKeyword, cached);
+            currentBytes += cached.sizeBytes;
+            evictIfNeeded(now);
+            // containsKey nemění pořadí LRU (na rozdíl od get)
+            return entries.containsKey(normalizedKeyword) ? Optional.of(cached) : Optional.empty();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void invalidate(String normalizedKeyword) {
+        lock.lock();
+        try {
+            remove(normalizedKeyword);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void clear() {
+        lock.lock();
+        try {
+            entries.clear();
+            currentBytes = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long sizeInBytes() {
+        lock.lock();
+        try {
+            return currentBytes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    private void evictIfNeeded(long now) {
+        Iterator<Map.Entry<String, CachedResults>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext() && (entries.size() > maxEntries || currentBytes > maxBytes)) {
+            Map.Entry<String, CachedResults> eldest = iterator.next();
+            iterator.remove();
+            currentBytes -= eldest.getValue().sizeBytes;
+            evictions.incrementAndGet();
+            logger.debug("Cache: vyřazen záznam '{}' (expirovaný: {}).", eldest.getKey(), eldest.getValue().isExpired(now));
+        }
+    }
+
+    private void remove(String normalizedKeyword) {
+        CachedResults removed = entries.remove(normalizedKeyword);
+        if (removed != null) {
+            currentBytes -= removed.sizeBytes;
+        }
+    }
+
+    private static long estimateBytes(String keyword, List<SearchResultModel> results) {
+        long bytes = ENTRY_OVERHEAD_BYTES + 2L * keyword.length();
+        for (SearchResultModel result : results) {
+            bytes += RESULT_OVERHEAD_BYTES + 2L * (length(result.getTitle()) + length(result.getUrl())
+                    + length(result.getDescription()) + length(result.getSnippet()) + length(result.getDomain()));
+        }
+        return bytes;
+    }
+
+    private static int length(String value) {
+        return value == null ? 0 : value.length();
+    }
+
+    /**
+     * Záznam v cache - výsledky jsou neměnný seznam, sdílený mezi všemi odpověďmi.
+     */
+    public static class CachedResults {
+
+        private final List<SearchResultModel> results;
+        private final long createdAt;
+        private final long expiresAt;
+        private final long sizeBytes;
+
+        CachedResults(List<SearchResultModel> results, long createdAt, long expiresAt, long sizeBytes) {
+            this.results = results;
+            this.createdAt = createdAt;
+            this.expiresAt = expiresAt;
+            this.sizeBytes = sizeBytes;
+        }
+
+        public List<SearchResultModel> getResults() {
+            return results;
+        }
+
+        public long getCreatedAt() {
+            return createdAt;
+        }
+
+        public long getExpiresAt() {
+            return expiresAt;
+        }
+
+        /**
+         * Zbývající doba platnosti v sekundách.
+         */
+        public long getRemainingTtlSeconds() {
+            return Math.max(0, TimeUnit.MILLISECONDS.toSeconds(expiresAt - System.currentTimeMillis()));
+        }
+
+        boolean isExpired(long now) {
+            return now >= expiresAt;
+        }
+    }
+}
@@ -0,0 +1,282 @@
+package cz.michalmusil.services;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Profily selektorů pro parsování výsledků Google, načtené z properties souboru.
+ * Profily se zkouší v pořadí uvedeném v klíči {@code profiles}; použije se první, který najde
+ * nějaké výsledky. Externí soubor ({@code scraper.selectors.file}) se při změně sám znovu načte,
+ * takže úprava selektorů po změně HTML Google nevyžaduje nasazení.
+ * Pro každý profil se sleduje úspěšnost (podíl stránek, na kterých něco našel); když klesne pod
+ * {@code scraper.selectors.alert-hit-rate}, zaloguje se varování. Stránka jiné varianty HTML,
+ * kterou rozpozná záložní profil, se primárnímu profilu jako neúspěch nepočítá - neúspěch dostanou
+ * profily jen za stránku, kterou nerozpoznal žádný z nich.
+ */
+@Component
+public class SelectorProfileRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(SelectorProfileRegistry.class);
+
+    // Profily přibalené k aplikaci, pokud není nastaven externí soubor
+    static final String BUNDLED_PROFILES = "/selector-profiles.properties";
+
+    // Váha posledního pokusu v klouzavé úspěšnosti a minimum pokusů před varováním
+    private static final double HIT_RATE_SMOOTHING = 0.1;
+    private static final long MIN_ATTEMPTS_FOR_ALERT = 10;
+
+    @Value("${scraper.selectors.file:}")
+    private String profilesFile;
+
+    @Value("${scraper.selectors.reload-interval-seconds:30}")
+    private long reloadIntervalSeconds;
+
+    @Value("${scraper.selectors.alert-hit-rate:0.5}")
+    private double alertHitRate = 0.5;
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    // Přibalené profily platí i mimo Spring kontext (testy, benchmarky)
+    private volatile List<SerpSelectors> profiles = loadBundled();
+    private final Map<String, ProfileStats> stats = new ConcurrentHashMap<>();
+    private final ReentrantLock reloadLock = new ReentrantLock();
+    private long loadedModifiedTime = -1;
+    private ScheduledExecutorService reloader;
+
+    @PostConstruct
+    void start() {
+        if (profilesFile == null || profilesFile.isBlank()) {
+            return;
+        }
+        reloadIfChanged();
+        reloader = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "selector-profile-reloader");
+            thread.setDaemon(true);
+            return thread;
+        });
+        reloader.scheduleWithFixedDelay(this::reloadIfChanged, reloadIntervalSeconds, reloadIntervalSeconds, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (reloader != null) {
+            reloader.shutdownNow();
+        }
+    }
+
+    /**
+     * Profily v pořadí, ve kterém se mají zkoušet. Seznam je neměnný a po reloadu se vymění celý.
+     */
+    public List<SerpSelectors> getProfiles() {
+        return profiles;
+    }
+
+    public SerpSelectors getPrimary() {
+        return profiles.get(0);
+    }
+
+    /**
+     * Zaznamená výsledek parsování jedné stránky: úspěch profilu, který ji rozpoznal,
+     * nebo neúspěch všech profilů, pokud ji nerozpoznal žádný.
+     *
+     * @param matched profil, který na stránce našel výsledky, nebo null
+     */
+    public void recordPage(SerpSelectors matched) {
+        if (matched != null) {
+            recordAttempt(matched, true);
+            return;
+        }
+        for (SerpSelectors profile : profiles) {
+            recordAttempt(profile, false);
+        }
+    }
+
+    /**
+     * Zaznamená, zda profil na stránce našel nějaké výsledky.
+     */
+    public void recordAttempt(SerpSelectors profile, boolean hit) {
+        ProfileStats profileStats = stats.computeIfAbsent(profile.getName(), this::createStats);
+        profileStats.record(hit);
+
+        double hitRate = profileStats.getHitRate();
+        if (profileStats.getAttempts() >= MIN_ATTEMPTS_FOR_ALERT && hitRate < alertHitRate && !profileStats.alerting) {
+            profileStats.alerting = true;
+            logger.warn("Selektory: profil '{}' přestává odpovídat HTML Google (úspěšnost {}). Je potřeba aktualizovat selektory.",
+                    profile.getName(), String.format("%.2f", hitRate));
+        } else if (hitRate >= alertHitRate && profileStats.alerting) {
+            profileStats.alerting = false;
+            logger.info("Selektory: úspěšnost profilu '{}' se vrátila na {}.", profile.getName(), String.format("%.2f", hitRate));
+        }
+    }
+
+    /**
+     * Klouzavá úspěšnost profilu (0-1); 1 pro profil, který ještě nebyl použit.
+     */
+    public double getHitRate(String profileName) {
+        ProfileStats profileStats = stats.get(profileName);
+        return profileStats != null ? profileStats.getHitRate() : 1.0;
+    }
+
+    /**
+     * Znovu načte externí soubor s profily, pokud se od posledního načtení změnil.
+     * Při chybě (nečitelný soubor, neplatný selektor) zůstávají v platnosti dosavadní profily.
+     *
+     * @return true, pokud byly načteny nové profily
+     */
+    boolean reloadIfChanged() {
+        Path path = Path.of(profilesFile);
+        reloadLock.lock();
+        try {
+            long modifiedTime = Files.getLastModifiedTime(path).toMillis();
+            if (modifiedTime == loadedModifiedTime) {
+                return false;
+            }
+            try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+                apply(parse(reader), path.toString());
+            }
+            loadedModifiedTime = modifiedTime;
+            return true;
+        } catch (IOException | RuntimeException e) {
+            logger.error("Selektory: soubor s profily '{}' nelze načíst, ponechávám dosavadní profily: {}", profilesFile, e.getMessage());
+            return false;
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    private static List<SerpSelectors> loadBundled() {
+        try (InputStream input = SelectorProfileRegistry.class.getResourceAsStream(BUNDLED_PROFILES)) {
+            if (input == null) {
+                logger.info("Selektory: přibalené profily nenalezeny, používám výchozí selektory.");
+                return List.of(SerpSelectors.defaults());
+            }
+            List<SerpSelectors> loaded = parse(new InputStreamReader(input, StandardCharsets.UTF_8));
+            logger.info("Selektory: načteny profily {} z '{}'.", names(loaded), BUNDLED_PROFILES);
+            return loaded;
+        } catch (IOException | RuntimeException e) {
+            logger.error("Selektory: přibalené profily nelze načíst, používám výchozí selektory: {}", e.getMessage());
+            return List.of(SerpSelectors.defaults());
+        }
+    }
+
+    private void apply(List<SerpSelectors> loaded, String source) {
+        profiles = loaded;
+        logger.info("Selektory: načteny profily {} z '{}'.", names(loaded), source);
+    }
+
+    private static List<String> names(List<SerpSelectors> loaded) {
+        return loaded.stream().map(SerpSelectors::getName).toList();
+    }
+
+    /**
+     * Načte profily z properties ve formátu {@code profiles=a,b} a {@code <profil>.<pole>=selektor}
+     * (pole container, title, url, snippet, description, domain, ad-marker, featured-marker, video-marker).
+     * Chybějící pole profilu se doplní výchozími selektory.
+     *
+     * @throws IllegalArgumentException pokud soubor nedefinuje žádný profil
+     * @throws org.jsoup.select.Selector.SelectorParseException pokud některý selektor není platný
+     */
+    static List<SerpSelectors> parse(Reader reader) throws IOException {
+        Properties properties = new Properties();
+        properties.load(reader);
+
+        List<SerpSelectors> loaded = new ArrayList<>();
+        for (String name : properties.getProperty("profiles", "").split(",")) {
+            name = name.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            loaded.add(new SerpSelectors(
+                    name,
+                    properties.getProperty(name + ".container", SerpSelectors.DEFAULT_CONTAINER),
+                    properties.getProperty(name + ".title", SerpSelectors.DEFAULT_TITLE),
+                    properties.getProperty(name + ".url", SerpSelectors.DEFAULT_URL),
+                    properties.getProperty(name + ".snippet", SerpSelectors.DEFAULT_SNIPPET),
+                    properties.getProperty(name + ".description", SerpSelectors.DEFAULT_DESCRIPTION),
+                    properties.getProperty(name + ".domain", SerpSelectors.DEFAULT_DOMAIN),
+                    properties.getProperty(name + ".ad-marker", SerpSelectors.DEFAULT_AD_MARKER),
+                    properties.getProperty(name + ".featured-marker", SerpSelectors.DEFAULT_FEATURED_MARKER),
+                    properties.getProperty(name + ".video-marker", SerpSelectors.DEFAULT_VIDEO_MARKER)
+            ));
+        }
+        if (loaded.isEmpty()) {
+            throw new IllegalArgumentException("Soubor neobsahuje žádný profil (klíč 'profiles')");
+        }
+        return List.copyOf(loaded);
+    }
+
+    private ProfileStats createStats(String profileName) {
+        ProfileStats profileStats = new ProfileStats();
+        if (meterRegistry != null) {
+            FunctionCounter.builder("scraper.selectors.attempts", profileStats.attempts, AtomicLong::get)
+                    .tag("profile", profileName)
+                    .description("Počet stránek, na kterých byl profil selektorů vyzkoušen")
+                    .register(meterRegistry);
+            FunctionCounter.builder("scraper.selectors.hits", profileStats.hits, AtomicLong::get)
+                    .tag("profile", profileName)
+                    .description("Počet stránek, na kterých profil selektorů našel výsledky")
+                    .register(meterRegistry);
+            Gauge.builder("scraper.selectors.hit.rate", profileStats, ProfileStats::getHitRate)
+                    .tag("profile", profileName)
+                    .description("Klouzavá úspěšnost profilu selektorů (0-1)")
+                    .register(meterRegistry);
+        }
+        return profileStats;
+    }
+
+    /**
+     * Počty pokusů a klouzavá (exponenciálně vážená) úspěšnost jednoho profilu.
+     */
+    private static class ProfileStats {
+
+        private final AtomicLong attempts = new AtomicLong();
+        private final AtomicLong hits = new AtomicLong();
+        private final AtomicLong hitRateBits = new AtomicLong(Double.doubleToLongBits(1.0));
+        private volatile boolean alerting;
+
+        void record(boolean hit) {
+            attempts.incrementAndGet();
+            if (hit) {
+                hits.incrementAndGet();
+            }
+            double sample = hit ? 1.0 : 0.0;
+            hitRateBits.updateAndGet(bits -> Double.doubleToLongBits(
+                    Double.longBitsToDouble(bits) * (1 - HIT_RATE_SMOOTHING) + sample * HIT_RATE_SMOOTHING));
+        }
+
+        long getAttempts() {
+            return attempts.get();
+        }
+
+        double getHitRate() {
+            return Double.longBitsToDouble(hitRateBits.get());
+        }
+    }
+}
@@ -0,0 +1,354 @@
+package cz.michalmusil.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import cz.michalmusil.models.SearchResponseModel;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Lokální historie výsledků scrapingu: každá odpověď ({@link SearchResponseModel}) se připojí
+ * na konec segmentového souboru a už se nemění. Segment se po dosažení
+ * {@code scraper.history.segment-max-bytes} uzavře a zápis pokračuje do dalšího.
+ * <p>
+ * Formát záznamu: délka těla (int), CRC32 těla (int) a tělo - čas (long), délka klíčového slova (short),
+ * normalizované klíčové slovo (UTF-8) a gzip JSON odpovědi. Index klíčové slovo → (čas, segment, pozice)
+ * se drží v paměti a po startu se obnoví čtením hlaviček záznamů; nedopsaný záznam na konci
+ * posledního segmentu (pád během zápisu) se odřízne.
+ */
+@Component
+public class SerpHistoryStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(SerpHistoryStore.class);
+
+    private static final String SEGMENT_PREFIX = "history-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+    // Délka + CRC32 před tělem záznamu; v těle čas a délka klíčového slova
+    private static final int RECORD_HEADER_BYTES = Integer.BYTES * 2;
+    private static final int BODY_HEADER_BYTES = Long.BYTES + Short.BYTES;
+
+    @Value("${scraper.history.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${scraper.history.dir:data/history}")
+    private String directory = "data/history";
+
+    @Value("${scraper.history.segment-max-bytes:67108864}")
+    private long segmentMaxBytes = 64L * 1024 * 1024;
+
+    // Nejvýše tolik (nejnovějších) záznamů vrátí jeden dotaz
+    @Value("${scraper.history.max-query-results:1000}")
+    private int maxQueryResults = 1000;
+
+    private final ObjectMapper objectMapper;
+
+    private final Map<String, List<IndexEntry>> index = new ConcurrentHashMap<>();
+    private final Map<Integer, FileChannel> segments = new ConcurrentHashMap<>();
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private Path root;
+    private int activeSegment;
+    private long activeSize;
+
+    public SerpHistoryStore(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @PostConstruct
+    void start() throws IOException {
+        if (!enabled) {
+            logger.info("Historie: ukládání výsledků je vypnuto.");
+            return;
+        }
+        root = Path.of(directory);
+        Files.createDirectories(root);
+
+        List<Integer> ids;
+        try (Stream<Path> files = Files.list(root)) {
+            ids = files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX))
+                    .map(name -> Integer.parseInt(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())))
+                    .sorted()
+                    .toList();
+        }
+        long records = 0;
+        for (int i = 0; i < ids.size(); i++) {
+            records += loadSegment(ids.get(i), i == ids.size() - 1);
+        }
+        if (ids.isEmpty()) {
+            openSegment(1);
+        } else {
+            activeSegment = ids.get(ids.size() - 1);
+            activeSize = segments.get(activeSegment).size();
+        }
+        logger.info("Historie: načteno {} záznamů pro {} klíčových slov z {} segmentů v '{}'.",
+                records, index.size(), Math.max(1, ids.size()), root.toAbsolutePath());
+    }
+
+    @PreDestroy
+    void stop() {
+        appendLock.lock();
+        try {
+            for (FileChannel channel : segments.values()) {
+                try {
+                    channel.force(false);
+                    channel.close();
+                } catch (IOException e) {
+                    logger.warn("Historie: segment nelze uzavřít: {}", e.getMessage());
+                }
+            }
+            segments.clear();
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Připojí odpověď na konec historie. Chyba zápisu se zaloguje - scraping kvůli ní neselže.
+     */
+    public void append(SearchResponseModel response) {
+        if (!enabled) {
+            return;
+        }
+        String keyword = KeywordNormalizer.normalize(response.getKeyword());
+        try {
+            byte[] record = encode(keyword, response);
+            appendLock.lock();
+            try {
+                if (activeSize > 0 && activeSize + record.length > segmentMaxBytes) {
+                    openSegment(activeSegment + 1);
+                }
+                FileChannel channel = segments.get(activeSegment);
+                long position = activeSize;
+                ByteBuffer buffer = ByteBuffer.wrap(record);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer, position + buffer.position());
+                }
+                activeSize += record.length;
+                index.computeIfAbsent(keyword, k -> new CopyOnWriteArrayList<>())
+                        .add(new IndexEntry(response.getTimestamp(), activeSegment, position, record.length));
+            } finally {
+                appendLock.unlock();
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.error("Historie: výsledky pro '{}' nelze uložit: {}", keyword, e.getMessage());
+        }
+    }
+
+    /**
+     * Historické odpovědi pro klíčové slovo v časovém rozsahu, seřazené od nejstarší.
+     * Při více než {@code scraper.history.max-query-results} záznamech se vrátí ty nejnovější.
+     *
+     * @param from začátek rozsahu (včetně), null = bez omezení
+     * @param to   konec rozsahu (včetně), null = bez omezení
+     */
+    public List<SearchResponseModel> query(String keyword, Instant from, Instant to) {
+        List<IndexEntry> entries = index.getOrDefault(KeywordNormalizer.normalize(keyword), List.of());
+        long fromMillis = from != null ? from.toEpochMilli() : Long.MIN_VALUE;
+        long toMillis = to != null ? to.toEpochMilli() : Long.MAX_VALUE;
+
+        List<IndexEntry> matching = new ArrayList<>();
+        for (IndexEntry entry : entries) {
+            if (entry.timestamp >= fromMillis && entry.timestamp <= toMillis) {
+                matching.add(entry);
+            }
+        }
+        matching.sort((a, b) -> Long.compare(a.timestamp, b.timestamp));
+        if (matching.size() > maxQueryResults) {
+            matching = matching.subList(matching.size() - maxQueryResults, matching.size());
+        }
+
+        List<SearchResponseModel> responses = new ArrayList<>(matching.size());
+        for (IndexEntry entry : matching) {
+            try {
+                responses.add(read(entry));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Záznam historie nelze přečíst", e);
+            }
+        }
+        return responses;
+    }
+
+    /**
+     * Načte hlavičky záznamů segmentu do indexu. U posledního (aktivního) segmentu se ověří
+     * i kontrolní součty a nedopsaný nebo poškozený konec se odřízne.
+     *
+     * @return počet načtených záznamů
+     */
+    private long loadSegment(int id, boolean active) throws IOException {
+        FileChannel channel = FileChannel.open(segmentPath(id), active
+                ? new StandardOpenOption[]{StandardOpenOption.READ, StandardOpenOption.WRITE}
+                : new StandardOpenOption[]{StandardOpenOption.READ});
+        segments.put(id, channel);
+
+        long size = channel.size();
+        long position = 0;
+        long records = 0;
+        ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER_BYTES + BODY_HEADER_BYTES);
+        while (position + header.capacity() <= size) {
+            header.clear();
+            readFully(channel, header, position);
+            header.flip();
+            int bodyLength = header.getInt();
+            int crc = header.getInt();
+            long timestamp = header.getLong();
+            int keywordLength = Short.toUnsignedInt(header.getShort());
+            int recordLength = RECORD_HEADER_BYTES + bodyLength;
+            if (bodyLength < BODY_HEADER_BYTES + keywordLength || position + recordLength > size) {
+                break;
+            }
+            if (active) {
+                ByteBuffer body = ByteBuffer.allocate(bodyLength);
+                readFully(channel, body, position + RECORD_HEADER_BYTES);
+                if (crc32(body.array()) != crc) {
+                    break;
+                }
+            }
+            ByteBuffer keywordBytes = ByteBuffer.allocate(keywordLength);
+            readFully(channel, keywordBytes, position + RECORD_HEADER_BYTES + BODY_HEADER_BYTES);
+            String keyword = new String(keywordBytes.array(), StandardCharsets.UTF_8);
+            index.computeIfAbsent(keyword, k -> new CopyOnWriteArrayList<>())
+                    .add(new IndexEntry(timestamp, id, position, recordLength));
+            position += recordLength;
+            records++;
+        }
+
+        if (position < size) {
+            if (active) {
+                logger.warn("Historie: segment {} končí nedopsaným záznamem, odřezávám {} B.", id, size - position);
+                channel.truncate(position);
+            } else {
+                logger.warn("Historie: uzavřený segment {} obsahuje poškozená data od pozice {}, zbytek se ignoruje.", id, position);
+            }
+        }
+        return records;
+    }
+
+    private void openSegment(int id) throws IOException {
+        FileChannel channel = FileChannel.open(segmentPath(id),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        FileChannel previous = segments.get(activeSegment);
+        if (previous != null) {
+            // Uzavřený segment už se jen čte - data na disk, ať po pádu nechybí
+            previous.force(false);
+        }
+        segments.put(id, channel);
+        activeSegment = id;
+        activeSize = channel.size();
+        logger.info("Historie: zapisuji do segmentu {}.", id);
+    }
+
+    private Path segmentPath(int id) {
+        return root.resolve(String.format("%s%08d%s", SEGMENT_PREFIX, id, SEGMENT_SUFFIX));
+    }
+
+    private byte[] encode(String keyword, SearchResponseModel response) throws IOException {
+        byte[] keywordBytes = keyword.getBytes(StandardCharsets.UTF_8);
+        if (keywordBytes.length > 0xFFFF) {
+            throw new IllegalArgumentException("Klíčové slovo je příliš dlouhé pro uložení do historie");
+        }
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (OutputStream gzip = new GZIPOutputStream(compressed)) {
+            objectMapper.writeValue(gzip, response);
+        }
+
+        int bodyLength = BODY_HEADER_BYTES + keywordBytes.length + compressed.size();
+        ByteBuffer body = ByteBuffer.allocate(bodyLength)
+                .putLong(response.getTimestamp())
+                .putShort((short) keywordBytes.length)
+                .put(keywordBytes)
+                .put(compressed.toByteArray());
+        return ByteBuffer.allocate(RECORD_HEADER_BYTES + bodyLength)
+                .putInt(bodyLength)
+                .putInt(crc32(body.array()))
+                .put(body.array())
+                .array();
+    }
+
+    private SearchResponseModel read(IndexEntry entry) throws IOException {
+        FileChannel channel = segments.get(entry.segment);
+        if (channel == null) {
+            throw new IOException("Segment " + entry.segment + " není otevřen");
+        }
+        ByteBuffer record = ByteBuffer.allocate(entry.length);
+        readFully(channel, record, entry.position);
+        record.flip();
+        record.getInt();
+        int crc = record.getInt();
+        if (crc32(record.array(), RECORD_HEADER_BYTES, entry.length - RECORD_HEADER_BYTES) != crc) {
+            throw new IOException("Poškozený záznam historie v segmentu " + entry.segment + " na pozici " + entry.position);
+        }
+        record.getLong();
+        int keywordLength = Short.toUnsignedInt(record.getShort());
+        int payloadOffset = RECORD_HEADER_BYTES + BODY_HEADER_BYTES + keywordLength;
+        try (InputStream gzip = new GZIPInputStream(new ByteArrayInputStream(record.array(), payloadOffset, entry.length - payloadOffset))) {
+            return objectMapper.readValue(gzip, SearchResponseModel.class);
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Neočekávaný konec segmentu");
+            }
+        }
+    }
+
+    private static int crc32(byte[] bytes) {
+        return crc32(bytes, 0, bytes.length);
+    }
+
+    private static int crc32(byte[] bytes, int offset, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes, offset, length);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Umístění jednoho záznamu: čas odpovědi, segment, pozice a délka záznamu v segmentu.
+     */
+    private static final class IndexEntry {
+
+        private final long timestamp;
+        private final int segment;
+        private final long position;
+        private final int length;
+
+        IndexEntry(long timestamp, int segment, long position, int length) {
+            this.timestamp = timestamp;
+            this.segment = segment;
+            this.position = position;
+            this.length = length;
+        }
+    }
+}
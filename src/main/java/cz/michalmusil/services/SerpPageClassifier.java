@@ -0,0 +1,90 @@
+package cz.michalmusil.services;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+
+import java.util.List;
+
+/**
+ * Rozpoznání typu stažené stránky s výsledky vyhledávání (SERP) podle známých značek v HTML.
+ * Sdílí ho HTTP i Selenium vrstva, aby se blokace vyhodnocovala všude stejně.
+ * <p>
+ * CAPTCHA se pozná jen podle strukturálních značek (přesměrování na /sorry/, formulář g-recaptcha,
+ * hláška o neobvyklém provozu) mimo kontejner výsledků - výsledek, který o reCAPTCHA jen píše,
+ * blokací není.
+ */
+public final class SerpPageClassifier {
+
+    public enum PageType {
+        // Stránka obsahuje kontejner s výsledky
+        RESULTS,
+        // Google zobrazil CAPTCHA / stránku o neobvyklém provozu
+        CAPTCHA,
+        // Google nenašel žádné dokumenty
+        NO_RESULTS,
+        // Neznámá struktura (změna HTML, consent stránka, ...)
+        UNKNOWN
+    }
+
+    // Strukturální značky blokační stránky: formulář na /sorry/ a widget reCAPTCHA
+    private static final String CAPTCHA_SELECTOR = "form[action*='/sorry/'], form#captcha-form, #recaptcha, "
+            + ".g-recaptcha, iframe[src*=recaptcha], script[src*=recaptcha]";
+
+    // Značky blokace ve viditelném textu stránky (pro čekání v prohlížeči, viz SerpPageConditions)
+    static final List<String> TEXT_CAPTCHA_MARKERS = List.of(
+            "Our systems have detected unusual traffic"
+    );
+
+    static final String NO_RESULTS_MARKER = "did not match any documents";
+
+    // id="search" je hlavní kontejner výsledků, na který čeká i Selenium
+    private static final String RESULTS_CONTAINER_ID = "search";
+
+    private SerpPageClassifier() {
+    }
+
+    public static PageType classify(String html) {
+        if (html == null || html.isEmpty()) {
+            return PageType.UNKNOWN;
+        }
+        Document document = Jsoup.parse(html);
+        Element results = document.getElementById(RESULTS_CONTAINER_ID);
+        if (isCaptcha(document, results)) {
+            return PageType.CAPTCHA;
+        }
+        if (html.contains(NO_RESULTS_MARKER)) {
+            return PageType.NO_RESULTS;
+        }
+        return results != null ? PageType.RESULTS : PageType.UNKNOWN;
+    }
+
+    public static boolean isCaptcha(String html) {
+        if (html == null || html.isEmpty()) {
+            return false;
+        }
+        Document document = Jsoup.parse(html);
+        return isCaptcha(document, document.getElementById(RESULTS_CONTAINER_ID));
+    }
+
+    public static boolean isNoResults(String html) {
+        return html != null && html.contains(NO_RESULTS_MARKER);
+    }
+
+    // Značky uvnitř kontejneru výsledků patří obsahu výsledků, proto se hledají jen mimo něj
+    private static boolean isCaptcha(Document document, Element results) {
+        if (results != null) {
+            results.remove();
+        }
+        if (!document.select(CAPTCHA_SELECTOR).isEmpty()) {
+            return true;
+        }
+        String text = document.text();
+        for (String marker : TEXT_CAPTCHA_MARKERS) {
+            if (text.contains(marker)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,61 @@
+package cz.michalmusil.services;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.support.ui.ExpectedCondition;
+
+/**
+ * Podmínky pro {@link org.openqa.selenium.support.ui.WebDriverWait} nad stránkou s výsledky Google.
+ * Místo čekání jen na {@code id="search"} (u CAPTCHA až do vypršení limitu) se současně hlídají
+ * i značky blokace a prázdných výsledků, takže čekání skončí hned, jak se vykreslí kterákoli z nich.
+ */
+public final class SerpPageConditions {
+
+    // Jeden dotaz do prohlížeče na jedno kolo čekání: blokace > žádné výsledky > výsledky.
+    // Značky blokace se hledají jen mimo kontejner výsledků (stejně jako SerpPageClassifier).
+    // Text stránky se čte přes textContent (nevynucuje layout jako innerText).
+    private static final String DETECT_PAGE_SCRIPT = """
+            var captchaMarkers = arguments[0], noResultsMarker = arguments[1];
+            var results = document.getElementById('search');
+            var form = document.querySelector('form#captcha-form, #recaptcha, .g-recaptcha, iframe[src*="recaptcha"]');
+            if (location.pathname.indexOf('/sorry/') === 0 || (form && !(results && results.contains(form)))) {
+                return 'CAPTCHA';
+            }
+            var text = document.body ? document.body.textContent : '';
+            var outside = results ? text.replace(results.textContent, '') : text;
+            for (var i = 0; i < captchaMarkers.length; i++) {
+                if (outside.indexOf(captchaMarkers[i]) >= 0) {
+                    return 'CAPTCHA';
+                }
+            }
+            if (text.indexOf(noResultsMarker) >= 0) {
+                return 'NO_RESULTS';
+            }
+            return document.getElementById('search') ? 'RESULTS' : null;
+            """;
+
+    private SerpPageConditions() {
+    }
+
+    /**
+     * Počká, dokud stránka neobsahuje výsledky, CAPTCHA nebo hlášku o žádných výsledcích.
+     *
+     * @return podmínka vracející rozpoznaný typ stránky (nikdy {@link SerpPageClassifier.PageType#UNKNOWN});
+     * dokud není rozpoznán, vrací null a čekání pokračuje
+     */
+    public static ExpectedCondition<SerpPageClassifier.PageType> resultsOrBlock() {
+        return new ExpectedCondition<>() {
+            @Override
+            public SerpPageClassifier.PageType apply(WebDriver driver) {
+                Object pageType = ((JavascriptExecutor) driver).executeScript(DETECT_PAGE_SCRIPT,
+                        SerpPageClassifier.TEXT_CAPTCHA_MARKERS, SerpPageClassifier.NO_RESULTS_MARKER);
+                return pageType != null ? SerpPageClassifier.PageType.valueOf(pageType.toString()) : null;
+            }
+
+            @Override
+            public String toString() {
+                return "výsledky vyhledávání, CAPTCHA nebo stránka bez výsledků";
+            }
+        };
+    }
+}
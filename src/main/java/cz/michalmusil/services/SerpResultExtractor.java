@@ -0,0 +1,176 @@
+package cz.michalmusil.services;
+
+import cz.michalmusil.models.SearchResultModel;
+import org.jsoup.nodes.Element;
+import org.jsoup.nodes.Node;
+import org.jsoup.select.Evaluator;
+import org.jsoup.select.NodeFilter;
+import org.jsoup.select.NodeTraversor;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Extrakce výsledků vyhledávání z jsoup dokumentu.
+ * Kontejnery výsledků se najdou jedním průchodem dokumentem (vnořené kontejnery se přeskočí)
+ * a všechna pole výsledku včetně značek reklamy se vyhodnotí jedním průchodem jeho podstromem,
+ * bez opakovaného {@code select(...)} a mezivýsledků {@code Elements}.
+ * Sada selektorů se předává při každém volání, takže ji lze za běhu vyměnit ({@link SelectorProfileRegistry}).
+ */
+@Component
+public class SerpResultExtractor {
+
+    /**
+     * Najde kontejnery jednotlivých výsledků v pořadí dokumentu.
+     */
+    public List<Element> findContainers(Element root, SerpSelectors selectors) {
+        List<Element> containers = new ArrayList<>();
+        NodeTraversor.filter(new NodeFilter() {
+            @Override
+            public FilterResult head(Node node, int depth) {
+                if (node instanceof Element element && selectors.getContainer().matches(root, element)) {
+                    containers.add(element);
+                    // Uvnitř kontejneru další (vnořené) kontejnery nehledáme - výsledek by se započítal dvakrát
+                    return FilterResult.SKIP_CHILDREN;
+                }
+                return FilterResult.CONTINUE;
+            }
+
+            @Override
+            public FilterResult tail(Node node, int depth) {
+                return FilterResult.CONTINUE;
+            }
+        }, root);
+        return containers;
+    }
+
+    /**
+     * Vytáhne pole jednoho výsledku jediným průchodem jeho podstromem.
+     * Pro každé pole se použije první vyhovující element v pořadí dokumentu.
+     * Typ výsledku se určí v témže průchodu (video) a krátkou cestou přes předky kontejneru (featured snippet).
+     */
+    public ExtractedResult extract(Element container, SerpSelectors selectors) {
+        Element[] found = new Element[5];
+        boolean[] advertisement = new boolean[1];
+        boolean[] video = new boolean[1];
+
+        NodeTraversor.filter(new NodeFilter() {
+            @Override
+            public FilterResult head(Node node, int depth) {
+                if (!(node instanceof Element element)) {
+                    return FilterResult.CONTINUE;
+                }
+                if (selectors.getAdMarker().matches(container, element)) {
+                    // U reklamy už další pole nepotřebujeme
+                    advertisement[0] = true;
+                    return FilterResult.STOP;
+                }
+                matchField(found, 0, selectors.getTitle(), container, element);
+                matchField(found, 1, selectors.getUrl(), container, element);
+                matchField(found, 2, selectors.getSnippet(), container, element);
+                matchField(found, 3, selectors.getDescription(), container, element);
+                matchField(found, 4, selectors.getDomain(), container, element);
+                if (!video[0] && selectors.getVideoMarker().matches(container, element)) {
+                    video[0] = true;
+                }
+                return FilterResult.CONTINUE;
+            }
+
+            @Override
+            public FilterResult tail(Node node, int depth) {
+                return FilterResult.CONTINUE;
+            }
+        }, container);
+
+        if (advertisement[0]) {
+            return ExtractedResult.ADVERTISEMENT;
+        }
+        SearchResultModel.ResultType type;
+        if (container.closest(selectors.getFeaturedMarker()) != null) {
+            type = SearchResultModel.ResultType.FEATURED_SNIPPET;
+        } else if (video[0]) {
+            type = SearchResultModel.ResultType.VIDEO;
+        } else {
+            type = SearchResultModel.ResultType.ORGANIC;
+        }
+        return new ExtractedResult(
+                text(found[0]),
+                found[1] != null ? found[1].attr("href") : null,
+                text(found[2]),
+                text(found[3]),
+                text(found[4]),
+                type,
+                false
+        );
+    }
+
+    private static void matchField(Element[] found, int index, Evaluator evaluator,
+                                   Element root, Element element) {
+        if (found[index] == null && evaluator.matches(root, element)) {
+            found[index] = element;
+        }
+    }
+
+    private static String text(Element element) {
+        return element != null ? element.text() : null;
+    }
+
+    /**
+     * Pole jednoho výsledku; chybějící pole jsou {@code null}.
+     */
+    public static class ExtractedResult {
+
+        static final ExtractedResult ADVERTISEMENT = new ExtractedResult(null, null, null, null, null, null, true);
+
+        private final String title;
+        private final String url;
+        private final String snippet;
+        private final String description;
+        private final String domain;
+        private final SearchResultModel.ResultType type;
+        private final boolean advertisement;
+
+        public ExtractedResult(String title, String url, String snippet, String description, String domain,
+                               SearchResultModel.ResultType type, boolean advertisement) {
+            this.title = title;
+            this.url = url;
+            this.snippet = snippet;
+            this.description = description;
+            this.domain = domain;
+            this.type = type;
+            this.advertisement = advertisement;
+        }
+
+        public String getTitle() {
+            return title;
+        }
+
+        public String getUrl() {
+            return url;
+        }
+
+        public String getSnippet() {
+            return snippet;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+
+        public String getDomain() {
+            return domain;
+        }
+
+        /**
+         * @return typ výsledku, u reklamy null
+         */
+        public SearchResultModel.ResultType getType() {
+            return type;
+        }
+
+        public boolean isAdvertisement() {
+            return advertisement;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package cz.michalmusil.services;
+
+import org.jsoup.select.Evaluator;
+import org.jsoup.select.QueryParser;
+
+import java.util.Map;
+
+/**
+ * Sada CSS selektorů pro parsování stránky s výsledky vyhledávání.
+ * Selektory se zkompilují na jsoup {@link Evaluator}y jednou při vytvoření, takže se
+ * při parsování každé stránky znovu neparsují řetězce dotazů.
+ * Jednotlivé selektory mohou obsahovat více alternativ oddělených čárkou.
+ * Pojmenovaná sada tvoří profil, viz {@link SelectorProfileRegistry}.
+ */
+public final class SerpSelectors {
+
+    // Výchozí selektory - přesné třídy je vždy dobré ověřit v prohlížeči (F12) pro aktuální Google
+    public static final String DEFAULT_CONTAINER = "div.g, div.tF2Cxc";
+    public static final String DEFAULT_TITLE = "h3";
+    public static final String DEFAULT_URL = "a[href]";
+    public static final String DEFAULT_SNIPPET = ".lBwE0B.NA7gNc.IUO0K";
+    public static final String DEFAULT_DESCRIPTION = ".VwiC3b";
+    public static final String DEFAULT_DOMAIN = ".yuRUbf .TbwUpd.NJjxre cite";
+    // Značky reklam: třídy reklamních bloků a štítky "Sponzorováno" / "Reklama"
+    public static final String DEFAULT_AD_MARKER = ".ads-ad, [data-text-ad], span.cHIEz.WJg5P, [class~=(?i)sponsored], "
+            + "span:matchesOwn((?i)^(ad|ads|sponsored|sponzorováno|reklama)$), a:matchesOwn((?i)^sponsored\\b)";
+    // Blok zvýrazněného úryvku (featured snippet) - hledá se mezi předky kontejneru výsledku
+    public static final String DEFAULT_FEATURED_MARKER = ".xpdopen, .c2xzTb, block-component";
+    // Videovýsledek - hledá se uvnitř kontejneru výsledku
+    public static final String DEFAULT_VIDEO_MARKER = "video-voyager, [data-vid], [data-curl*=youtube.com/watch]";
+
+    public static final String DEFAULT_PROFILE = "default";
+
+    private static final SerpSelectors DEFAULTS = new SerpSelectors(DEFAULT_PROFILE, DEFAULT_CONTAINER, DEFAULT_TITLE, DEFAULT_URL,
+            DEFAULT_SNIPPET, DEFAULT_DESCRIPTION, DEFAULT_DOMAIN, DEFAULT_AD_MARKER, DEFAULT_FEATURED_MARKER, DEFAULT_VIDEO_MARKER);
+
+    private final String name;
+    private final String containerQuery;
+    // Původní dotazy podle pole - pro extrakci přímo v prohlížeči (BrowserResultExtractor)
+    private final Map<String, String> queries;
+    private final Evaluator container;
+    private final Evaluator title;
+    private final Evaluator url;
+    private final Evaluator snippet;
+    private final Evaluator description;
+    private final Evaluator domain;
+    private final Evaluator adMarker;
+    private final Evaluator featuredMarker;
+    private final Evaluator videoMarker;
+
+    /**
+     * @throws org.jsoup.select.Selector.SelectorParseException pokud některý selektor není platný
+     */
+    public SerpSelectors(String name, String container, String title, String url, String snippet,
+                         String description, String domain, String adMarker, String featuredMarker, String videoMarker) {
+        this.name = name;
+        this.containerQuery = container;
+        this.queries = Map.of("container", container, "title", title, "url", url, "snippet", snippet,
+                "description", description, "domain", domain, "ad", adMarker,
+                "featured", featuredMarker, "video", videoMarker);
+        this.container = QueryParser.parse(container);
+        this.title = QueryParser.parse(title);
+        this.url = QueryParser.parse(url);
+        this.snippet = QueryParser.parse(snippet);
+        this.description = QueryParser.parse(description);
+        this.domain = QueryParser.parse(domain);
+        this.adMarker = QueryParser.parse(adMarker);
+        this.featuredMarker = QueryParser.parse(featuredMarker);
+        this.videoMarker = QueryParser.parse(videoMarker);
+    }
+
+    public static SerpSelectors defaults() {
+        return DEFAULTS;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getContainerQuery() {
+        return containerQuery;
+    }
+
+    Map<String, String> getQueries() {
+        return queries;
+    }
+
+    Evaluator getContainer() {
+        return container;
+    }
+
+    Evaluator getTitle() {
+        return title;
+    }
+
+    Evaluator getUrl() {
+        return url;
+    }
+
+    Evaluator getSnippet() {
+        return snippet;
+    }
+
+    Evaluator getDescription() {
+        return description;
+    }
+
+    Evaluator getDomain() {
+        return domain;
+    }
+
+    Evaluator getAdMarker() {
+        return adMarker;
+    }
+
+    Evaluator getFeaturedMarker() {
+        return featuredMarker;
+    }
+
+    Evaluator getVideoMarker() {
+        return videoMarker;
+    }
+}
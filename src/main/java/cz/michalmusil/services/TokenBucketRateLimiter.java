@@ -0,0 +1,240 @@
+package cz.michalmusil.services;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Omezení počtu požadavků na klienta algoritmem token bucket. Každý klient (API klíč, jinak IP adresa)
+ * má vědro o kapacitě {@code capacity} tokenů, které se průběžně doplňuje rychlostí
+ * {@code refill-per-minute}; každý požadavek spotřebuje jeden token, dávkové požadavky jeden token
+ * za každé klíčové slovo ({@link #tryAcquire(String, int)}).
+ * <p>
+ * Stav vědra (tokeny + čas posledního doplnění) je neměnný objekt v {@link AtomicReference}
+ * a mění se compare-and-set smyčkou - souběžné požadavky se neblokují zámkem.
+ * Vědra klientů, kteří delší dobu nic neposlali (jsou opět plná), se jednou za minutu odstraní.
+ */
+@Service
+public class TokenBucketRateLimiter {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenBucketRateLimiter.class);
+
+    private static final long NANOS_PER_MINUTE = TimeUnit.MINUTES.toNanos(1);
+
+    @Value("${scraper.ratelimit.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${scraper.ratelimit.capacity:10}")
+    private int capacity = 10;
+
+    @Value("${scraper.ratelimit.refill-per-minute:10}")
+    private double refillPerMinute = 10;
+
+    // Kvóty jednotlivých klientů: identita=kapacita/za minutu oddělené čárkou
+    @Value("${scraper.ratelimit.quotas:}")
+    private List<String> quotaSpecs = List.of();
+
+    private final Map<String, Quota> quotas = new HashMap<>();
+    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+    private final AtomicLong lastPurgeAt = new AtomicLong(System.nanoTime());
+    private Quota defaultQuota;
+
+    @PostConstruct
+    void start() {
+        defaultQuota = new Quota(capacity, refillPerMinute);
+        for (String spec : quotaSpecs) {
+            if (spec.isBlank()) {
+                continue;
+            }
+            int separator = spec.lastIndexOf('=');
+            int slash = spec.lastIndexOf('/');
+            if (separator <= 0 || slash < separator) {
+                throw new IllegalArgumentException("Neplatná kvóta (očekáváno identita=kapacita/za minutu): " + spec);
+            }
+            quotas.put(spec.substring(0, separator).trim(), new Quota(
+                    Integer.parseInt(spec.substring(separator + 1, slash).trim()),
+                    Double.parseDouble(spec.substring(slash + 1).trim())));
+        }
+        logger.info("Rate limit: {} požadavků, doplnění {}/min, individuálních kvót: {}.",
+                capacity, refillPerMinute, quotas.size());
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Pokusí se spotřebovat jeden token klienta.
+     *
+     * @param clientId identita klienta (viz {@code ClientIdentity})
+     * @return rozhodnutí včetně údajů pro hlavičky X-RateLimit-* a Retry-After
+     */
+    public Decision tryAcquire(String clientId) {
+        return tryAcquire(clientId, 1);
+    }
+
+    /**
+     * Pokusí se spotřebovat {@code tokens} tokenů klienta najednou - buď všechny, nebo žádný.
+     * Požadavek na víc tokenů, než je kapacita vědra, se nepovolí nikdy.
+     *
+     * @param clientId identita klienta (viz {@code ClientIdentity})
+     * @param tokens   počet tokenů (alespoň 1)
+     * @return rozhodnutí včetně údajů pro hlavičky X-RateLimit-* a Retry-After
+     */
+    public Decision tryAcquire(String clientId, int tokens) {
+        if (tokens < 1) {
+            throw new IllegalArgumentException("Počet tokenů musí být kladný");
+        }
+        long now = System.nanoTime();
+        purgeIdleBuckets(now);
+        Bucket bucket = buckets.computeIfAbsent(clientId, id -> new Bucket(quotas.getOrDefault(id, defaultQuota), now));
+
+        while (true) {
+            BucketState current = bucket.state.get();
+            double available = bucket.quota.available(current, now);
+            if (available < tokens) {
+                return new Decision(false, bucket.quota, available, tokens);
+            }
+            if (bucket.state.compareAndSet(current, new BucketState(available - tokens, now))) {
+                return new Decision(true, bucket.quota, available - tokens, tokens);
+            }
+        }
+    }
+
+    /**
+     * Vrátí klientovi dříve spotřebované tokeny, nejvýše do kapacity vědra - např. za požadavek,
+     * který zaplatil interceptor, ale kontroler ho odmítl.
+     *
+     * @param clientId identita klienta (viz {@code ClientIdentity})
+     * @param tokens   počet vrácených tokenů (alespoň 1)
+     */
+    public void refund(String clientId, int tokens) {
+        if (tokens < 1) {
+            throw new IllegalArgumentException("Počet tokenů musí být kladný");
+        }
+        long now = System.nanoTime();
+        Bucket bucket = buckets.computeIfAbsent(clientId, id -> new Bucket(quotas.getOrDefault(id, defaultQuota), now));
+        while (true) {
+            BucketState current = bucket.state.get();
+            double available = Math.min(bucket.quota.capacity, bucket.quota.available(current, now) + tokens);
+            if (bucket.state.compareAndSet(current, new BucketState(available, now))) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Odstraní vědra, která se mezitím úplně doplnila - jejich klient by začal se stejným stavem.
+     * Běží nejvýše jednou za minutu.
+     */
+    private void purgeIdleBuckets(long now) {
+        long last = lastPurgeAt.get();
+        if (now - last < NANOS_PER_MINUTE || !lastPurgeAt.compareAndSet(last, now)) {
+            return;
+        }
+        buckets.values().removeIf(bucket -> bucket.quota.available(bucket.state.get(), now) >= bucket.quota.capacity);
+    }
+
+    /**
+     * Výsledek pokusu o spotřebu tokenu.
+     */
+    public static final class Decision {
+
+        private final boolean allowed;
+        private final int limit;
+        private final int remaining;
+        private final long retryAfterSeconds;
+        private final long resetSeconds;
+
+        Decision(boolean allowed, Quota quota, double tokens, int requested) {
+            this.allowed = allowed;
+            this.limit = quota.capacity;
+            this.remaining = (int) Math.floor(tokens);
+            this.retryAfterSeconds = allowed ? 0 : quota.secondsUntil(tokens, Math.min(requested, quota.capacity));
+            this.resetSeconds = quota.secondsUntil(tokens, quota.capacity);
+        }
+
+        public boolean isAllowed() {
+            return allowed;
+        }
+
+        public int getLimit() {
+            return limit;
+        }
+
+        public int getRemaining() {
+            return remaining;
+        }
+
+        /**
+         * Za kolik sekund bude k dispozici požadovaný počet tokenů (0 pokud byl požadavek povolen).
+         */
+        public long getRetryAfterSeconds() {
+            return retryAfterSeconds;
+        }
+
+        /**
+         * Za kolik sekund bude vědro opět plné.
+         */
+        public long getResetSeconds() {
+            return resetSeconds;
+        }
+    }
+
+    private static final class Quota {
+
+        private final int capacity;
+        private final double tokensPerNano;
+
+        Quota(int capacity, double refillPerMinute) {
+            if (capacity < 1 || refillPerMinute <= 0) {
+                throw new IllegalArgumentException("Kapacita i doplňování rate limitu musí být kladné");
+            }
+            this.capacity = capacity;
+            this.tokensPerNano = refillPerMinute / NANOS_PER_MINUTE;
+        }
+
+        double available(BucketState state, long now) {
+            return Math.min(capacity, state.tokens + Math.max(0, now - state.updatedAt) * tokensPerNano);
+        }
+
+        long secondsUntil(double tokens, double target) {
+            if (tokens >= target) {
+                return 0;
+            }
+            return (long) Math.ceil((target - tokens) / tokensPerNano / TimeUnit.SECONDS.toNanos(1));
+        }
+    }
+
+    private static final class Bucket {
+
+        private final Quota quota;
+        private final AtomicReference<BucketState> state;
+
+        Bucket(Quota quota, long now) {
+            this.quota = quota;
+            this.state = new AtomicReference<>(new BucketState(quota.capacity, now));
+        }
+    }
+
+    private static final class BucketState {
+
+        private final double tokens;
+        private final long updatedAt;
+
+        BucketState(double tokens, long updatedAt) {
+            this.tokens = tokens;
+            this.updatedAt = updatedAt;
+        }
+    }
+}
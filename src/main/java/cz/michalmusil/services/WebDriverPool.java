@@ -0,0 +1,351 @@
+package cz.michalmusil.services;
+
+import io.github.bonigarcia.wdm.WebDriverManager;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.openqa.selenium.PageLoadStrategy;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.chrome.ChromeDriver;
+import org.openqa.selenium.chrome.ChromeOptions;
+import org.openqa.selenium.chromium.HasCdp;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Omezený pool headless Chrome prohlížečů.
+ * Místo spouštění a ukončování Chrome pro každý požadavek si služba prohlížeč
+ * vypůjčí ({@link #borrow()}) a po použití vrátí ({@link #release(PooledWebDriver)}).
+ * Prohlížeče jsou recyklovány po N navigacích, po detekci CAPTCHA
+ * ({@link #invalidate(PooledWebDriver)}) a nečinné jsou po čase ukončeny.
+ * <p>
+ * V úsporném profilu ({@code scraper.browser.lean-profile}) prohlížeč nenačítá obrázky, přes CDP
+ * blokuje fonty, média a měřicí skripty a navigace končí už po načtení DOM ({@link PageLoadStrategy#EAGER}) -
+ * scraper čte jen HTML, takže nic z toho nepotřebuje.
+ */
+@Component
+public class WebDriverPool {
+
+    private static final Logger logger = LoggerFactory.getLogger(WebDriverPool.class);
+
+    // Fonty, média, obrázky a měřicí/reklamní skripty třetích stran
+    // Vzory přípon končí * - jinak by nezachytily URL s query stringem (logo.png?v=2)
+    static final String DEFAULT_BLOCKED_URL_PATTERNS = "*.woff*,*.woff2*,*.ttf*,*.otf*,"
+            + "*.mp4*,*.webm*,*.mp3*,*.m3u8*,"
+            + "*.png*,*.jpg*,*.jpeg*,*.gif*,*.webp*,*.svg*,*.ico*,"
+            + "*doubleclick.net*,*googlesyndication.com*,*googleadservices.com*,*google-analytics.com*,*googletagmanager.com*";
+
+    // Název profilu pro metriky (scraper.browser.page.bytes)
+    public static final String PROFILE_LEAN = "lean";
+    public static final String PROFILE_FULL = "full";
+
+    @Value("${scraper.pool.min-size:0}")
+    private int minSize;
+
+    @Value("${scraper.pool.max-size:2}")
+    private int maxSize;
+
+    @Value("${scraper.pool.borrow-timeout-seconds:60}")
+    private long borrowTimeoutSeconds;
+
+    @Value("${scraper.pool.idle-timeout-seconds:300}")
+    private long idleTimeoutSeconds;
+
+    @Value("${scraper.pool.eviction-interval-seconds:30}")
+    private long evictionIntervalSeconds;
+
+    @Value("${scraper.pool.max-navigations:50}")
+    private int maxNavigations;
+
+    @Value("${scraper.browser.lean-profile:false}")
+    private boolean leanProfile;
+
+    // Vzory URL (se zástupným znakem *), které úsporný profil blokuje přes Network.setBlockedURLs
+    @Value("${scraper.browser.blocked-url-patterns:" + DEFAULT_BLOCKED_URL_PATTERNS + "}")
+    private List<String> blockedUrlPatterns = List.of(DEFAULT_BLOCKED_URL_PATTERNS.split(","));
+
+    private final EgressProxyPool egressPool;
+
+    // Nečinné prohlížeče; naposledy vrácený je na začátku, aby se "studené" mohly vyřadit
+    private final BlockingDeque<PooledWebDriver> idle = new LinkedBlockingDeque<>();
+    private final AtomicInteger liveCount = new AtomicInteger();
+    private final Random random = new Random();
+
+    private Semaphore permits;
+    private ScheduledExecutorService evictor;
+    private volatile boolean driverBinarySetUp = false;
+    private final ReentrantLock setupLock = new ReentrantLock();
+    private volatile boolean closed = false;
+
+    public WebDriverPool(EgressProxyPool egressPool) {
+        this.egressPool = egressPool;
+    }
+
+    @PostConstruct
+    void start() {
+        permits = new Semaphore(maxSize, true);
+        evictor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "webdriver-pool-evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Předehřátí i údržba běží mimo startovací vlákno - chybějící Chrome nesmí shodit aplikaci
+        evictor.scheduleWithFixedDelay(this::evictAndRefill, 0, evictionIntervalSeconds, TimeUnit.SECONDS);
+        logger.info("WebDriverPool: inicializován (min={}, max={}, maxNavigací={}).", minSize, maxSize, maxNavigations);
+    }
+
+    /**
+     * Vypůjčí prohlížeč z poolu. Pokud není žádný volný, vytvoří nový (do max. velikosti),
+     * jinak čeká nejvýše {@code scraper.pool.borrow-timeout-seconds}.
+     *
+     * @return zdravý prohlížeč připravený k navigaci
+     * @throws InterruptedException pokud je čekání přerušeno
+     */
+    public PooledWebDriver borrow() throws InterruptedException {
+        if (closed) {
+            throw new IllegalStateException("WebDriverPool je ukončen");
+        }
+        if (!permits.tryAcquire(borrowTimeoutSeconds, TimeUnit.SECONDS)) {
+            throw new IllegalStateException(String.format(
+                    "Žádný volný prohlížeč v poolu během %d s (max. velikost %d)", borrowTimeoutSeconds, maxSize));
+        }
+        try {
+            PooledWebDriver pooled;
+            while ((pooled = idle.pollFirst()) != null) {
+                if (isHealthy(pooled)) {
+                    pooled.touch();
+                    return pooled;
+                }
+                logger.warn("WebDriverPool: nečinný prohlížeč neprošel kontrolou stavu nebo jeho proxy je vyřazená, vyřazuji.");
+                destroy(pooled);
+            }
+            liveCount.incrementAndGet();
+            try {
+                return createDriver();
+            } catch (RuntimeException e) {
+                liveCount.decrementAndGet();
+                throw e;
+            }
+        } catch (RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Vrátí prohlížeč do poolu. Prohlížeč, který dosáhl limitu navigací, je ukončen.
+     */
+    public void release(PooledWebDriver pooled) {
+        if (pooled == null) {
+            return;
+        }
+        try {
+            if (closed || pooled.getNavigationCount() >= maxNavigations) {
+                logger.info("WebDriverPool: prohlížeč dosáhl {} navigací, recykluji.", pooled.getNavigationCount());
+                destroy(pooled);
+                return;
+            }
+            try {
+                // Vyčištění cookies nahrazuje dřívější čistou incognito session pro každý požadavek
+                pooled.getDriver().manage().deleteAllCookies();
+            } catch (RuntimeException e) {
+                logger.warn("WebDriverPool: nepodařilo se vyčistit cookies, vyřazuji prohlížeč: {}", e.getMessage());
+                destroy(pooled);
+                return;
+            }
+            pooled.touch();
+            idle.offerFirst(pooled);
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Vyřadí prohlížeč z poolu (např. po detekci CAPTCHA nebo chybě) a ukončí jeho proces.
+     */
+    public void invalidate(PooledWebDriver pooled) {
+        if (pooled == null) {
+            return;
+        }
+        try {
+            destroy(pooled);
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Ukončí nečinné prohlížeče po uplynutí idle timeoutu a doplní pool na min. velikost.
+     */
+    void evictAndRefill() {
+        try {
+            long now = System.currentTimeMillis();
+            long idleTimeoutMillis = TimeUnit.SECONDS.toMillis(idleTimeoutSeconds);
+            Iterator<PooledWebDriver> iterator = idle.descendingIterator();
+            while (iterator.hasNext() && liveCount.get() > minSize) {
+                PooledWebDriver pooled = iterator.next();
+                if (now - pooled.getLastUsedAt() > idleTimeoutMillis && idle.remove(pooled)) {
+                    logger.info("WebDriverPool: ukončuji nečinný prohlížeč.");
+                    destroy(pooled);
+                }
+            }
+
+            while (!closed && liveCount.get() < minSize) {
+                if (liveCount.incrementAndGet() > maxSize) {
+                    liveCount.decrementAndGet();
+                    break;
+                }
+                try {
+                    idle.offerLast(createDriver());
+                } catch (RuntimeException e) {
+                    liveCount.decrementAndGet();
+                    throw e;
+                }
+            }
+        } catch (Exception e) {
+            logger.error("WebDriverPool: chyba při údržbě poolu: {}", e.getMessage(), e);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        closed = true;
+        if (evictor != null) {
+            evictor.shutdownNow();
+        }
+        PooledWebDriver pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            destroy(pooled);
+        }
+        logger.info("WebDriverPool: ukončen.");
+    }
+
+    public int getIdleCount() {
+        return idle.size();
+    }
+
+    public int getLiveCount() {
+        return liveCount.get();
+    }
+
+    /**
+     * Profil, se kterým se spouští prohlížeče ({@link #PROFILE_LEAN} / {@link #PROFILE_FULL}).
+     */
+    public String getProfileName() {
+        return leanProfile ? PROFILE_LEAN : PROFILE_FULL;
+    }
+
+    private boolean isHealthy(PooledWebDriver pooled) {
+        if (egressPool.isCoolingDown(pooled.getEgress())) {
+            return false;
+        }
+        long idleTimeoutMillis = TimeUnit.SECONDS.toMillis(idleTimeoutSeconds);
+        if (System.currentTimeMillis() - pooled.getLastUsedAt() > idleTimeoutMillis) {
+            return false;
+        }
+        try {
+            // Levný dotaz přes WebDriver protokol - selže, pokud proces Chrome spadl
+            pooled.getDriver().getWindowHandle();
+            return true;
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    private PooledWebDriver createDriver() {
+        ChromeOptions options = new ChromeOptions();
+        options.addArguments("--headless"); // Spustí Chrome v headless (bezhlavém) režimu
+        options.addArguments("--disable-gpu"); // Doporučeno pro headless na některých systémech
+        options.addArguments("--no-sandbox"); // Důležité pro Linux prostředí a izolaci
+        options.addArguments("--window-size=1920,1080"); // Simulace standardního rozlišení obrazovky
+        // --- Vylepšené maskování Selenium ---
+        options.setExperimentalOption("excludeSwitches", List.of("enable-automation"));
+        options.setExperimentalOption("useAutomationExtension", false);
+        options.addArguments("--disable-blink-features=AutomationControlled");
+        options.addArguments("--incognito"); // Použít anonymní režim pro čistší session
+        // Náhodný User-Agent pro celou dobu života prohlížeče
+        options.addArguments("user-agent=" + GoogleScraperService.USER_AGENTS[random.nextInt(GoogleScraperService.USER_AGENTS.length)]);
+
+        if (leanProfile) {
+            // Obrázky se vůbec nestahují; navigace nečeká na načtení zbylých zdrojů (onload)
+            options.addArguments("--blink-settings=imagesEnabled=false");
+            options.setExperimentalOption("prefs", Map.of("profile.managed_default_content_settings.images", 2));
+            options.setPageLoadStrategy(PageLoadStrategy.EAGER);
+        }
+
+        // Odchozí identita platí po celou dobu života prohlížeče
+        EgressProxyPool.EgressProxy egress = egressPool.acquire();
+        if (!egress.isDirect()) {
+            options.addArguments("--proxy-server=" + egress.toProxyServerArgument());
+        }
+
+        WebDriver driver = launchBrowser(options);
+        if (leanProfile && driver instanceof HasCdp cdp) {
+            blockResources(cdp);
+        }
+        PooledWebDriver pooled = new PooledWebDriver(driver, egress);
+        logger.info("WebDriverPool: spuštěn nový headless Chrome ({}) přes '{}' (živých prohlížečů: {}).",
+                getProfileName(), egress.getId(), liveCount.get());
+        return pooled;
+    }
+
+    /**
+     * Spustí proces Chrome s danými volbami (při prvním spuštění nejdřív připraví ChromeDriver).
+     * Testy metodu přepisují, aby pool šlo ověřit bez prohlížeče.
+     */
+    protected WebDriver launchBrowser(ChromeOptions options) {
+        if (!driverBinarySetUp) {
+            // Stažení ChromeDriveru je síťová operace - ReentrantLock nepřipíná virtuální vlákno
+            setupLock.lock();
+            try {
+                if (!driverBinarySetUp) {
+                    // Nastavení WebDriverManager (automatické stažení ChromeDriveru) stačí jednou
+                    WebDriverManager.chromedriver().setup();
+                    logger.info("Selenium: ChromeDriver nastaven pomocí WebDriverManager.");
+                    driverBinarySetUp = true;
+                }
+            } finally {
+                setupLock.unlock();
+            }
+        }
+
+        return new ChromeDriver(options);
+    }
+
+    /**
+     * Zablokuje požadavky na fonty, média a měřicí skripty přes Chrome DevTools Protocol.
+     * Blokace platí pro celou dobu života prohlížeče (jedna karta). Když se nepodaří,
+     * prohlížeč se použije i bez ní.
+     */
+    private void blockResources(HasCdp driver) {
+        try {
+            driver.executeCdpCommand("Network.enable", Map.of());
+            driver.executeCdpCommand("Network.setBlockedURLs", Map.of("urls", blockedUrlPatterns));
+        } catch (RuntimeException e) {
+            logger.warn("WebDriverPool: blokaci zdrojů přes CDP nelze nastavit, prohlížeč běží bez ní: {}", e.getMessage());
+        }
+    }
+
+    private void destroy(PooledWebDriver pooled) {
+        liveCount.decrementAndGet();
+        try {
+            pooled.getDriver().quit(); // Ukončí proces Chrome a vyčistí zdroje
+        } catch (RuntimeException e) {
+            logger.warn("WebDriverPool: chyba při ukončování prohlížeče: {}", e.getMessage());
+        }
+    }
+}
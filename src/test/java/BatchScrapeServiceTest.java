@@ -0,0 +1,116 @@
+import cz.michalmusil.models.SearchResponseModel;
+import cz.michalmusil.models.SearchResultModel;
+import cz.michalmusil.services.BatchScrapeService;
+import cz.michalmusil.services.CachingScraperService;
+import cz.michalmusil.services.ScrapeOutcome;
+import cz.michalmusil.services.ScrapeQueue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for BatchScrapeService ordering, partial failures and cancellation.
+ * The caching layer is mocked; each test completes the scrape futures by hand and in any order.
+ */
+@ExtendWith(MockitoExtension.class)
+class BatchScrapeServiceTest {
+
+    @Mock
+    private CachingScraperService scraperService;
+
+    private BatchScrapeService batchService;
+    private final Map<String, CompletableFuture<ScrapeOutcome>> scrapes = new HashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        batchService = new BatchScrapeService(scraperService, new ScrapeQueue());
+        ReflectionTestUtils.setField(batchService, "maxKeywords", 1000);
+        ReflectionTestUtils.setField(batchService, "defaultParallelism", 2);
+        ReflectionTestUtils.setField(batchService, "maxParallelism", 2);
+    }
+
+    /**
+     * Results arrive in completion order (as the stream sends them) but carry their index,
+     * so the batch response keeps the request order; one failed keyword does not fail the others.
+     */
+    @Test
+    @DisplayName("results should keep their index and failures should stay per keyword")
+    void testOrderingAndPartialFailure() {
+        stubScrape("java");
+        stubScrape("spring");
+        stubScrape("maven");
+        List<Integer> delivered = new ArrayList<>();
+        SearchResponseModel[] responses = new SearchResponseModel[4];
+
+        CompletableFuture<Void> batch = batchService.scrapeEach(List.of("java", "spring", " ", "maven"), null, "ip:10.0.0.1",
+                (index, response) -> {
+                    delivered.add(index);
+                    responses[index] = response;
+                });
+
+        scrapes.get("spring").completeExceptionally(new IllegalStateException("blocked"));
+        scrapes.get("maven").complete(outcome("Maven"));
+        scrapes.get("java").complete(outcome("Java"));
+
+        assertTrue(batch.isDone());
+        assertEquals(List.of(1, 2, 3, 0), delivered, "results are delivered as they complete");
+        assertTrue(responses[0].isSuccess());
+        assertEquals("Java", responses[0].getResults().get(0).getTitle());
+        assertFalse(responses[1].isSuccess());
+        assertTrue(responses[1].getMessage().contains("blocked"));
+        assertFalse(responses[2].isSuccess(), "a blank keyword is reported, not scraped");
+        assertEquals("Maven", responses[3].getResults().get(0).getTitle());
+    }
+
+    /**
+     * Cancelling the batch cancels the scrapes in progress, starts no new keywords and
+     * delivers nothing more.
+     */
+    @Test
+    @DisplayName("cancelling the batch should cancel outstanding scrapes")
+    void testCancel() {
+        stubScrape("java");
+        stubScrape("spring");
+        List<Integer> delivered = new ArrayList<>();
+
+        CompletableFuture<Void> batch = batchService.scrapeEach(List.of("java", "spring", "maven"), null, "ip:10.0.0.1",
+                (index, response) -> delivered.add(index));
+        batch.cancel(false);
+
+        assertTrue(scrapes.get("java").isCancelled());
+        assertTrue(scrapes.get("spring").isCancelled());
+        assertTrue(delivered.isEmpty());
+        verify(scraperService, never()).scrapeAsync(eq("maven"), anyInt(), any(ScrapeQueue.Priority.class), anyString(), any(Runnable.class));
+    }
+
+    private void stubScrape(String keyword) {
+        CompletableFuture<ScrapeOutcome> future = new CompletableFuture<>();
+        scrapes.put(keyword, future);
+        when(scraperService.scrapeAsync(eq(keyword), eq(1), any(ScrapeQueue.Priority.class), anyString(), any(Runnable.class)))
+                .thenReturn(future);
+    }
+
+    private static ScrapeOutcome outcome(String title) {
+        return new ScrapeOutcome(List.of(new SearchResultModel(title, "https://example.com", "Description")),
+                ScrapeOutcome.CacheStatus.MISS, 3600);
+    }
+}
@@ -0,0 +1,74 @@
+import cz.michalmusil.models.SearchResultModel;
+import cz.michalmusil.services.BrowserResultExtractor;
+import cz.michalmusil.services.SerpResultExtractor;
+import cz.michalmusil.services.SerpSelectors;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Unit tests for BrowserResultExtractor mapping of the in-browser script output.
+ * The browser is a mock that returns the compact JSON the extraction script would produce.
+ */
+class BrowserResultExtractorTest {
+
+    private final WebDriver driver = mock(WebDriver.class, withSettings().extraInterfaces(JavascriptExecutor.class));
+    private final BrowserResultExtractor extractor = new BrowserResultExtractor();
+
+    /**
+     * Every JSON key maps to its result field and the type code maps to the result type.
+     */
+    @Test
+    @DisplayName("extract should map the script JSON to results in document order")
+    void testJsonMapping() {
+        scriptReturns("""
+                [{"t":"Featured","u":"https://a.com","s":"Snippet A","d":"Description A","m":"a.com","y":"F"},
+                 {"t":"Organic","u":"https://b.com","s":null,"d":"Description B","m":"b.com","y":"O"},
+                 {"t":"Video","u":"https://c.com","y":"V"}]
+                """);
+
+        List<SerpResultExtractor.ExtractedResult> results = extractor.extract(driver, SerpSelectors.defaults());
+
+        assertEquals(3, results.size());
+        SerpResultExtractor.ExtractedResult first = results.get(0);
+        assertEquals("Featured", first.getTitle());
+        assertEquals("https://a.com", first.getUrl());
+        assertEquals("Snippet A", first.getSnippet());
+        assertEquals("Description A", first.getDescription());
+        assertEquals("a.com", first.getDomain());
+        assertEquals(SearchResultModel.ResultType.FEATURED_SNIPPET, first.getType());
+        assertFalse(first.isAdvertisement());
+
+        assertNull(results.get(1).getSnippet());
+        assertEquals(SearchResultModel.ResultType.ORGANIC, results.get(1).getType());
+        assertEquals(SearchResultModel.ResultType.VIDEO, results.get(2).getType());
+        assertNull(results.get(2).getDomain());
+    }
+
+    /**
+     * A script that returns no string or malformed JSON fails, so the caller falls back to Jsoup.
+     */
+    @Test
+    @DisplayName("extract should fail on a missing or malformed script result")
+    void testInvalidScriptResult_Throws() {
+        scriptReturns(null);
+        assertThrows(IllegalStateException.class, () -> extractor.extract(driver, SerpSelectors.defaults()));
+
+        scriptReturns("[{\"t\":");
+        assertThrows(IllegalStateException.class, () -> extractor.extract(driver, SerpSelectors.defaults()));
+    }
+
+    private void scriptReturns(Object value) {
+        when(((JavascriptExecutor) driver).executeScript(anyString(), any())).thenReturn(value);
+    }
+}
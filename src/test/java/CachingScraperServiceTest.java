@@ -0,0 +1,196 @@
+import com.fasterxml.jackson.databind.ObjectMapper;
+import cz.michalmusil.models.SearchResponseModel;
+import cz.michalmusil.models.SearchResultModel;
+import cz.michalmusil.services.CachingScraperService;
+import cz.michalmusil.services.GoogleScraperService;
+import cz.michalmusil.services.ScrapeOutcome;
+import cz.michalmusil.services.ScrapeQueue;
+import cz.michalmusil.services.ScrapeResultCache;
+import cz.michalmusil.services.SerpHistoryStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for CachingScraperService.
+ * The underlying GoogleScraperService is mocked so that the caching and
+ * single-flight behaviour can be verified without launching a browser.
+ */
+@ExtendWith(MockitoExtension.class)
+class CachingScraperServiceTest {
+
+    @Mock
+    private GoogleScraperService scraperService;
+
+    private CachingScraperService cachingService;
+
+    @BeforeEach
+    void setUp() {
+        ScrapeResultCache cache = new ScrapeResultCache();
+        ReflectionTestUtils.setField(cache, "ttlSeconds", 3600L);
+        ReflectionTestUtils.setField(cache, "maxEntries", 100);
+        ReflectionTestUtils.setField(cache, "maxBytes", 1_000_000L);
+
+        // History persistence is covered by SerpHistoryStoreTest
+        SerpHistoryStore historyStore = new SerpHistoryStore(new ObjectMapper());
+        ReflectionTestUtils.setField(historyStore, "enabled", false);
+
+        // A queue created outside Spring starts every task immediately
+        cachingService = new CachingScraperService(scraperService, cache, historyStore, new ScrapeQueue());
+    }
+
+    /**
+     * A second request for the same normalized keyword is served from the cache.
+     */
+    @Test
+    @DisplayName("scrape should serve repeated normalized keyword from cache")
+    void testScrape_RepeatedKeyword_ServedFromCache() throws Exception {
+        List<SearchResultModel> results = List.of(new SearchResultModel("Title", "https://example.com", "Description"));
+        when(scraperService.scrapeGoogleResultsAsync(anyString(), anyInt(), any(Runnable.class)))
+                .thenReturn(CompletableFuture.completedFuture(results));
+
+        ScrapeOutcome first = cachingService.scrape("Java Spring");
+        ScrapeOutcome second = cachingService.scrape("  java   spring ");
+
+        assertEquals(ScrapeOutcome.CacheStatus.MISS, first.getCacheStatus());
+        assertEquals(ScrapeOutcome.CacheStatus.HIT, second.getCacheStatus());
+        assertEquals(results, second.getResults());
+        assertTrue(second.getMaxAgeSeconds() > 0);
+        verify(scraperService, times(1)).scrapeGoogleResultsAsync(anyString(), anyInt(), any(Runnable.class));
+    }
+
+    /**
+     * Concurrent requests for the same keyword share one in-flight scrape.
+     */
+    @Test
+    @DisplayName("scrapeAsync should coalesce concurrent requests for the same keyword")
+    void testScrapeAsync_ConcurrentRequests_Coalesced() {
+        CompletableFuture<List<SearchResultModel>> pending = new CompletableFuture<>();
+        when(scraperService.scrapeGoogleResultsAsync(anyString(), anyInt(), any(Runnable.class))).thenReturn(pending);
+
+        CompletableFuture<ScrapeOutcome> first = cachingService.scrapeAsync("java");
+        CompletableFuture<ScrapeOutcome> second = cachingService.scrapeAsync("JAVA");
+        assertFalse(first.isDone());
+        assertFalse(second.isDone());
+
+        List<SearchResultModel> results = List.of(new SearchResultModel("Title", "https://example.com", "Description"));
+        pending.complete(results);
+
+        assertEquals(ScrapeOutcome.CacheStatus.MISS, first.join().getCacheStatus());
+        assertEquals(ScrapeOutcome.CacheStatus.COALESCED, second.join().getCacheStatus());
+        assertSame(first.join().getResults(), second.join().getResults());
+        verify(scraperService, times(1)).scrapeGoogleResultsAsync(anyString(), anyInt(), any(Runnable.class));
+    }
+
+    /**
+     * A request that joins an in-flight scrape gets its start callback when the shared scrape starts.
+     */
+    @Test
+    @DisplayName("coalesced requests should be notified when the shared scrape starts")
+    void testScrapeAsync_CoalescedRequest_NotifiedOnStart() {
+        ArgumentCaptor<Runnable> leaderStart = ArgumentCaptor.forClass(Runnable.class);
+        CompletableFuture<List<SearchResultModel>> pending = new CompletableFuture<>();
+        when(scraperService.scrapeGoogleResultsAsync(anyString(), anyInt(), leaderStart.capture())).thenReturn(pending);
+        AtomicInteger leaderStarted = new AtomicInteger();
+        AtomicInteger followerStarted = new AtomicInteger();
+
+        cachingService.scrapeAsync("java", leaderStarted::incrementAndGet);
+        cachingService.scrapeAsync("java", followerStarted::incrementAndGet);
+        assertEquals(0, followerStarted.get(), "the follower must not start before the shared scrape");
+
+        leaderStart.getValue().run();
+        assertEquals(1, leaderStarted.get());
+        assertEquals(1, followerStarted.get());
+
+        // A request joining after the start is notified immediately
+        AtomicInteger lateStarted = new AtomicInteger();
+        cachingService.scrapeAsync("java", lateStarted::incrementAndGet);
+        assertEquals(1, lateStarted.get());
+        pending.complete(List.of());
+    }
+
+    /**
+     * The queued scrape is cancelled only after every request waiting for it has cancelled.
+     */
+    @Test
+    @DisplayName("cancelling all waiting requests should cancel the queued scrape")
+    void testScrapeAsync_AllCallersCancel_CancelsScrape() {
+        CompletableFuture<List<SearchResultModel>> pending = new CompletableFuture<>();
+        when(scraperService.scrapeGoogleResultsAsync(anyString(), anyInt(), any(Runnable.class))).thenReturn(pending);
+
+        CompletableFuture<ScrapeOutcome> leader = cachingService.scrapeAsync("java");
+        CompletableFuture<ScrapeOutcome> follower = cachingService.scrapeAsync("java");
+
+        leader.cancel(false);
+        assertFalse(follower.isDone(), "the follower still waits for the shared scrape");
+
+        pending.complete(List.of(new SearchResultModel("Title", "https://example.com", "Description")));
+        assertEquals(ScrapeOutcome.CacheStatus.COALESCED, follower.join().getCacheStatus());
+
+        // A new scrape whose only caller cancels is cancelled as well
+        when(scraperService.scrapeGoogleResultsAsync(anyString(), anyInt(), any(Runnable.class)))
+                .thenReturn(new CompletableFuture<>());
+        CompletableFuture<ScrapeOutcome> lonely = cachingService.scrapeAsync("spring");
+        lonely.cancel(false);
+        cachingService.scrapeAsync("spring");
+        // The next request starts a fresh scrape instead of joining the cancelled one
+        verify(scraperService, times(2)).scrapeGoogleResultsAsync(eq("spring"), anyInt(), any(Runnable.class));
+    }
+
+    /**
+     * Empty results are not cached, so the next request scrapes again.
+     */
+    @Test
+    @DisplayName("scrape should not cache empty results")
+    void testScrape_EmptyResults_NotCached() throws Exception {
+        when(scraperService.scrapeGoogleResultsAsync(anyString(), anyInt(), any(Runnable.class)))
+                .thenReturn(CompletableFuture.completedFuture(List.of()));
+
+        assertEquals(ScrapeOutcome.CacheStatus.MISS, cachingService.scrape("java").getCacheStatus());
+        assertEquals(ScrapeOutcome.CacheStatus.MISS, cachingService.scrape("java").getCacheStatus());
+        verify(scraperService, times(2)).scrapeGoogleResultsAsync(anyString(), anyInt(), any(Runnable.class));
+    }
+
+    /**
+     * History records carry the page depth, so a pages=3 scrape is not mistaken for a single-page one.
+     */
+    @Test
+    @DisplayName("history record should store the number of scraped pages")
+    void testHistoryRecordStoresPages() throws Exception {
+        SerpHistoryStore historyStore = mock(SerpHistoryStore.class);
+        ScrapeResultCache cache = new ScrapeResultCache();
+        ReflectionTestUtils.setField(cache, "ttlSeconds", 3600L);
+        ReflectionTestUtils.setField(cache, "maxEntries", 100);
+        ReflectionTestUtils.setField(cache, "maxBytes", 1_000_000L);
+        cachingService = new CachingScraperService(scraperService, cache, historyStore, new ScrapeQueue());
+        when(scraperService.scrapeGoogleResultsAsync(anyString(), anyInt(), any(Runnable.class)))
+                .thenReturn(CompletableFuture.completedFuture(List.of(new SearchResultModel("Title", "https://example.com", "Description"))));
+
+        cachingService.scrape("java", 3);
+        cachingService.scrape("java");
+
+        ArgumentCaptor<SearchResponseModel> records = ArgumentCaptor.forClass(SearchResponseModel.class);
+        verify(historyStore, times(2)).append(records.capture());
+        assertEquals(3, records.getAllValues().get(0).getPages());
+        assertEquals(1, records.getAllValues().get(1).getPages());
+    }
+}
@@ -0,0 +1,89 @@
+import cz.michalmusil.services.EgressProxyPool;
+import cz.michalmusil.services.EgressProxyPool.EgressProxy;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for EgressProxyPool selection, scoring and cooldown.
+ */
+class EgressProxyPoolTest {
+
+    private EgressProxyPool pool;
+
+    @BeforeEach
+    void setUp() {
+        pool = new EgressProxyPool();
+        ReflectionTestUtils.setField(pool, "proxySpecs", List.of("http://10.0.0.1:3128", "10.0.0.2:3128"));
+        ReflectionTestUtils.setField(pool, "cooldownSeconds", 300L);
+        ReflectionTestUtils.setField(pool, "maxCooldownSeconds", 3600L);
+        ReflectionTestUtils.invokeMethod(pool, "start");
+    }
+
+    /**
+     * Without configured proxies every request goes out directly.
+     */
+    @Test
+    @DisplayName("empty configuration should fall back to a direct connection")
+    void testDirectWithoutProxies() {
+        EgressProxyPool emptyPool = new EgressProxyPool();
+        ReflectionTestUtils.invokeMethod(emptyPool, "start");
+
+        EgressProxy egress = emptyPool.acquire();
+        assertTrue(egress.isDirect());
+        assertNull(egress.getAddress());
+    }
+
+    /**
+     * A blocked proxy cools down and the other one is used until the cooldown ends.
+     */
+    @Test
+    @DisplayName("blocked proxy should cool down and be skipped")
+    void testBlockedProxyIsSkipped() {
+        EgressProxy first = pool.acquire();
+        pool.recordBlock(first);
+
+        assertTrue(pool.isCoolingDown(first));
+        assertEquals(1, pool.getCoolingDownCount());
+        for (int i = 0; i < 5; i++) {
+            assertNotEquals(first.getId(), pool.acquire().getId());
+        }
+    }
+
+    /**
+     * When every proxy has been blocked, the least recently blocked one is preferred.
+     */
+    @Test
+    @DisplayName("selection should prefer the least recently blocked proxy")
+    void testLeastRecentlyBlocked() throws InterruptedException {
+        EgressProxy first = pool.acquire();
+        EgressProxy second = pool.acquire();
+        assertNotEquals(first.getId(), second.getId());
+
+        pool.recordBlock(first);
+        Thread.sleep(5);
+        pool.recordBlock(second);
+        // Reset cooldowns so both proxies are eligible again
+        ReflectionTestUtils.setField(first, "cooldownUntil", 0L);
+        ReflectionTestUtils.setField(second, "cooldownUntil", 0L);
+
+        assertEquals(first.getId(), pool.acquire().getId());
+        assertTrue(first.getScore() < 1.0);
+    }
+
+    /**
+     * Only plain HTTP proxies are accepted.
+     */
+    @Test
+    @DisplayName("unsupported proxy scheme should be rejected")
+    void testRejectsUnsupportedScheme() {
+        EgressProxyPool invalidPool = new EgressProxyPool();
+        ReflectionTestUtils.setField(invalidPool, "proxySpecs", List.of("socks5://10.0.0.3:1080"));
+        assertThrows(IllegalArgumentException.class, () -> ReflectionTestUtils.invokeMethod(invalidPool, "start"));
+    }
+}
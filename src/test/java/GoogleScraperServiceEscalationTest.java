@@ -0,0 +1,149 @@
+import com.fasterxml.jackson.databind.ObjectMapper;
+import cz.michalmusil.models.SearchResultModel;
+import cz.michalmusil.services.BrowserResultExtractor;
+import cz.michalmusil.services.EgressProxyPool;
+import cz.michalmusil.services.GoogleScraperService;
+import cz.michalmusil.services.HttpFetchTier;
+import cz.michalmusil.services.PageArchive;
+import cz.michalmusil.services.PolitenessScheduler;
+import cz.michalmusil.services.ScrapeMetrics;
+import cz.michalmusil.services.SelectorProfileRegistry;
+import cz.michalmusil.services.SerpResultExtractor;
+import cz.michalmusil.services.WebDriverPool;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for the HTTP-first fetch and its escalation to Selenium.
+ * The politeness scheduler runs tasks immediately; the browser pool is mocked, and a failing
+ * borrow stands in for a Selenium failure, so no Chrome is started.
+ */
+class GoogleScraperServiceEscalationTest {
+
+    private static final String RESULTS_PAGE = """
+            <html><body><div id="search">
+                <div class="g"><h3>Title</h3><a href="https://example.com">Link</a><div class="VwiC3b">Description</div></div>
+            </div></body></html>
+            """;
+
+    private final WebDriverPool webDriverPool = mock(WebDriverPool.class);
+    private final PolitenessScheduler politenessScheduler = mock(PolitenessScheduler.class);
+    private final HttpFetchTier httpFetchTier = mock(HttpFetchTier.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private GoogleScraperService scraperService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() throws Exception {
+        ScrapeMetrics metrics = new ScrapeMetrics();
+        ReflectionTestUtils.setField(metrics, "meterRegistry", meterRegistry);
+        scraperService = new GoogleScraperService(webDriverPool, politenessScheduler, httpFetchTier,
+                mock(EgressProxyPool.class), new SerpResultExtractor(), new SelectorProfileRegistry(),
+                new BrowserResultExtractor(), metrics, new PageArchive(new ObjectMapper()));
+
+        when(httpFetchTier.isEnabled()).thenReturn(true);
+        when(politenessScheduler.schedule(any(), any(), any())).thenAnswer(invocation ->
+                CompletableFuture.supplyAsync(((Supplier<Object>) invocation.getArgument(1))::get, Runnable::run));
+        when(webDriverPool.borrow()).thenThrow(new NoClassDefFoundError("chrome"));
+    }
+
+    /**
+     * A page with recognisable results is served by the HTTP tier without a browser.
+     */
+    @Test
+    @DisplayName("a results page should not escalate to Selenium")
+    void testResultsPage_NoEscalation() throws Exception {
+        fetchReturns(200, RESULTS_PAGE);
+
+        List<SearchResultModel> results = scraperService.scrapeGoogleResultsAsync("java").join();
+
+        assertEquals(1, results.size());
+        assertEquals("Title", results.get(0).getTitle());
+        verify(webDriverPool, never()).borrow();
+        assertEquals(1, count("http", ScrapeMetrics.OUTCOME_SUCCESS));
+    }
+
+    /**
+     * A CAPTCHA and an unrecognised page both escalate, and a failure of the escalated Selenium scrape
+     * is reported as it is - not retried as if the HTTP fetch had failed.
+     */
+    @Test
+    @DisplayName("a blocked or unrecognised page should escalate to Selenium exactly once")
+    void testBlockedPage_EscalatesOnce() throws Exception {
+        fetchReturns(429, "<html><body><form action=\"/sorry/index\"></form></body></html>");
+        CompletableFuture<List<SearchResultModel>> blocked = scraperService.scrapeGoogleResultsAsync("java");
+
+        CompletionException error = assertThrows(CompletionException.class, blocked::join);
+        assertInstanceOf(NoClassDefFoundError.class, error.getCause());
+        verify(webDriverPool, times(1)).borrow();
+        assertEquals(1, count("http", ScrapeMetrics.OUTCOME_CAPTCHA));
+        assertEquals(0, count("http", ScrapeMetrics.OUTCOME_EXCEPTION));
+
+        fetchReturns(200, "<html><body><div id=\"search\"></div></body></html>");
+        assertThrows(CompletionException.class, scraperService.scrapeGoogleResultsAsync("spring")::join);
+        verify(webDriverPool, times(2)).borrow();
+        assertEquals(1, count("http", ScrapeMetrics.OUTCOME_SELECTOR_MISS));
+        assertEquals(0, count("http", ScrapeMetrics.OUTCOME_EXCEPTION));
+    }
+
+    /**
+     * A failed HTTP fetch escalates once and is counted as an HTTP exception.
+     */
+    @Test
+    @DisplayName("a failed HTTP fetch should escalate to Selenium once")
+    void testFetchFailure_EscalatesOnce() throws Exception {
+        when(httpFetchTier.fetch(anyString())).thenReturn(CompletableFuture.failedFuture(new IOException("connection reset")));
+
+        assertThrows(CompletionException.class, scraperService.scrapeGoogleResultsAsync("java")::join);
+
+        verify(webDriverPool, times(1)).borrow();
+        assertEquals(1, count("http", ScrapeMetrics.OUTCOME_EXCEPTION));
+    }
+
+    /**
+     * With escalation disabled (load tests without Chrome) escalations are only counted.
+     */
+    @Test
+    @DisplayName("disabled escalation should count escalations without starting a browser")
+    void testEscalationDisabled_OnlyCounts() throws Exception {
+        ReflectionTestUtils.setField(scraperService, "escalationEnabled", false);
+        fetchReturns(429, "<html><body><form action=\"/sorry/index\"></form></body></html>");
+
+        assertTrue(scraperService.scrapeGoogleResultsAsync("java").join().isEmpty());
+
+        when(httpFetchTier.fetch(anyString())).thenReturn(CompletableFuture.failedFuture(new IOException("connection reset")));
+        CompletionException error = assertThrows(CompletionException.class, scraperService.scrapeGoogleResultsAsync("spring")::join);
+        assertInstanceOf(IOException.class, error.getCause());
+
+        verify(webDriverPool, never()).borrow();
+        assertEquals(1, meterRegistry.counter(ScrapeMetrics.ESCALATION_COUNTER, "reason", ScrapeMetrics.OUTCOME_CAPTCHA).count());
+        assertEquals(1, meterRegistry.counter(ScrapeMetrics.ESCALATION_COUNTER, "reason", ScrapeMetrics.OUTCOME_EXCEPTION).count());
+    }
+
+    private void fetchReturns(int status, String body) {
+        when(httpFetchTier.fetch(anyString())).thenReturn(CompletableFuture.completedFuture(
+                new HttpFetchTier.FetchedPage(status, body, EgressProxyPool.EgressProxy.DIRECT)));
+    }
+
+    private double count(String tier, String outcome) {
+        return meterRegistry.counter("scraper.fetch.tier", "tier", tier, "outcome", outcome).count();
+    }
+}
@@ -0,0 +1,153 @@
+import com.fasterxml.jackson.databind.ObjectMapper;
+import cz.michalmusil.models.SearchResultModel;
+import cz.michalmusil.services.BrowserResultExtractor;
+import cz.michalmusil.services.EgressProxyPool;
+import cz.michalmusil.services.GoogleScraperService;
+import cz.michalmusil.services.HttpFetchTier;
+import cz.michalmusil.services.PageArchive;
+import cz.michalmusil.services.PolitenessScheduler;
+import cz.michalmusil.services.PooledWebDriver;
+import cz.michalmusil.services.ScrapeMetrics;
+import cz.michalmusil.services.SelectorProfileRegistry;
+import cz.michalmusil.services.SerpResultExtractor;
+import cz.michalmusil.services.WebDriverPool;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.openqa.selenium.JavascriptException;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Unit tests for multi-page scraping in one browser session.
+ * The browser is a mock: the page detection script answers with the page type of each navigation
+ * and the page source is a fixed results page. The in-browser extraction path and its Jsoup fallback are covered too.
+ */
+class GoogleScraperServicePaginationTest {
+
+    private static final String RESULTS_PAGE = """
+            <html><body><div id="search">
+                <div class="g"><h3>Title</h3><a href="https://example.com">Link</a><div class="VwiC3b">Description</div></div>
+            </div></body></html>
+            """;
+
+    private final WebDriverPool webDriverPool = mock(WebDriverPool.class);
+    private final PooledWebDriver pooled = mock(PooledWebDriver.class);
+    private final WebDriver driver = mock(WebDriver.class, withSettings().extraInterfaces(JavascriptExecutor.class));
+    private GoogleScraperService scraperService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() throws Exception {
+        PolitenessScheduler politenessScheduler = mock(PolitenessScheduler.class);
+        scraperService = new GoogleScraperService(webDriverPool, politenessScheduler, mock(HttpFetchTier.class),
+                mock(EgressProxyPool.class), new SerpResultExtractor(), new SelectorProfileRegistry(),
+                new BrowserResultExtractor(), new ScrapeMetrics(), new PageArchive(new ObjectMapper()));
+
+        when(politenessScheduler.schedule(any(), any(), any())).thenAnswer(invocation ->
+                CompletableFuture.supplyAsync(((Supplier<Object>) invocation.getArgument(1))::get, Runnable::run));
+        when(webDriverPool.borrow()).thenReturn(pooled);
+        when(pooled.getDriver()).thenReturn(driver);
+        when(pooled.getEgress()).thenReturn(EgressProxyPool.EgressProxy.DIRECT);
+        when(driver.getPageSource()).thenReturn(RESULTS_PAGE);
+    }
+
+    /**
+     * All requested pages are loaded in one session and the browser goes back to the pool.
+     */
+    @Test
+    @DisplayName("all pages should be scraped in one browser session")
+    void testAllPages() throws Exception {
+        detectedPages("RESULTS", "RESULTS");
+
+        List<SearchResultModel> results = scraperService.scrapeGoogleResultsAsync("java", 2, () -> { }).join();
+
+        assertEquals(1, results.size(), "the result repeated on the second page is counted once");
+        verify(webDriverPool).release(pooled);
+    }
+
+    /**
+     * A CAPTCHA after the first page fails the scrape instead of passing off the first page as the full result,
+     * so nothing partial is cached or recorded.
+     */
+    @Test
+    @DisplayName("a CAPTCHA in the middle of pagination should fail the scrape")
+    void testCaptchaMidPagination_Fails() throws Exception {
+        detectedPages("RESULTS", "CAPTCHA");
+
+        CompletableFuture<List<SearchResultModel>> scrape = scraperService.scrapeGoogleResultsAsync("java", 3, () -> { });
+
+        CompletionException error = assertThrows(CompletionException.class, scrape::join);
+        assertInstanceOf(IllegalStateException.class, error.getCause());
+        assertTrue(error.getCause().getMessage().contains("na stránce 2 z 3"));
+        verify(webDriverPool).invalidate(pooled);
+        verify(webDriverPool, never()).release(pooled);
+    }
+
+    /**
+     * A CAPTCHA on the first page is a plain block: empty results, as for a single page.
+     */
+    @Test
+    @DisplayName("a CAPTCHA on the first page should return no results")
+    void testCaptchaFirstPage_Empty() throws Exception {
+        detectedPages("CAPTCHA");
+
+        assertTrue(scraperService.scrapeGoogleResultsAsync("java", 3, () -> { }).join().isEmpty());
+        verify(webDriverPool).invalidate(pooled);
+    }
+
+    /**
+     * With in-browser extraction on, results come from the script JSON and the page source is never transferred.
+     */
+    @Test
+    @DisplayName("in-browser extraction should skip the page source")
+    void testInBrowserExtraction() throws Exception {
+        ReflectionTestUtils.setField(scraperService, "inBrowserExtraction", true);
+        detectedPages("RESULTS");
+        when(((JavascriptExecutor) driver).executeScript(anyString(), any()))
+                .thenReturn("[{\"t\":\"Browser title\",\"u\":\"https://browser.example.com\",\"d\":\"Description\",\"y\":\"O\"}]");
+
+        List<SearchResultModel> results = scraperService.scrapeGoogleResultsAsync("java", 1, () -> { }).join();
+
+        assertEquals(1, results.size());
+        assertEquals("Browser title", results.get(0).getTitle());
+        verify(driver, never()).getPageSource();
+    }
+
+    /**
+     * When the extraction script fails, the page source is parsed with Jsoup instead.
+     */
+    @Test
+    @DisplayName("a failing extraction script should fall back to Jsoup")
+    void testInBrowserExtractionFailure_FallsBackToJsoup() throws Exception {
+        ReflectionTestUtils.setField(scraperService, "inBrowserExtraction", true);
+        detectedPages("RESULTS");
+        when(((JavascriptExecutor) driver).executeScript(anyString(), any()))
+                .thenThrow(new JavascriptException("querySelectorAll failed"));
+
+        List<SearchResultModel> results = scraperService.scrapeGoogleResultsAsync("java", 1, () -> { }).join();
+
+        assertEquals(1, results.size());
+        assertEquals("Title", results.get(0).getTitle());
+        verify(driver).getPageSource();
+    }
+
+    private void detectedPages(String first, String... rest) {
+        when(((JavascriptExecutor) driver).executeScript(anyString(), any(), any())).thenReturn(first, (Object[]) rest);
+    }
+}
@@ -1,5 +1,15 @@
+import com.fasterxml.jackson.databind.ObjectMapper;
 import cz.michalmusil.models.SearchResultModel;
+import cz.michalmusil.services.BrowserResultExtractor;
+import cz.michalmusil.services.EgressProxyPool;
 import cz.michalmusil.services.GoogleScraperService;
+import cz.michalmusil.services.HttpFetchTier;
+import cz.michalmusil.services.PageArchive;
+import cz.michalmusil.services.PolitenessScheduler;
+import cz.michalmusil.services.ScrapeMetrics;
+import cz.michalmusil.services.SelectorProfileRegistry;
+import cz.michalmusil.services.SerpResultExtractor;
+import cz.michalmusil.services.WebDriverPool;
 import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
 import org.junit.jupiter.api.BeforeEach;
@@ -12,6 +22,7 @@ import java.lang.reflect.Method;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
 
 /**
  * Unit tests for GoogleScraperService.
@@ -25,9 +36,11 @@ class GoogleScraperServiceTest {
 
     @BeforeEach
     void setUp() {
-        scraperService = new GoogleScraperService();
-        // If you had dependencies in GoogleScraperService, you'd mock them here
-        // e.g., if it depended on a HttpClient, you'd mock that.
+        // Browser, HTTP tier and scheduler are mocked; parsing uses the real extractor and bundled selector profiles
+        scraperService = new GoogleScraperService(mock(WebDriverPool.class), mock(PolitenessScheduler.class),
+                mock(HttpFetchTier.class), mock(EgressProxyPool.class), new SerpResultExtractor(),
+                new SelectorProfileRegistry(), new BrowserResultExtractor(), new ScrapeMetrics(),
+                new PageArchive(new ObjectMapper()));
     }
 
     /**
@@ -174,8 +187,8 @@ class GoogleScraperServiceTest {
         assertEquals("", cleanUrl, "Empty URL should return empty string");
 
         // Test with null URL
-        cleanUrl = (String) cleanUrlMethod.invoke(scraperService, null);
-        assertNull(cleanUrl, "Null URL should return null"); // Or empty string, depends on cleanUrl implementation, currently returns ""
+        cleanUrl = (String) cleanUrlMethod.invoke(scraperService, (Object) null);
+        assertNull(cleanUrl, "Null URL should return null");
     }
 
     /**
@@ -347,4 +360,76 @@ class GoogleScraperServiceTest {
         assertEquals(1, results.size(), "Only one valid result should be extracted");
         assertEquals("Valid Title", results.get(0).getTitle());
     }
-}
\ No newline at end of file
+
+    /**
+     * Results of several pages get absolute positions and repeated URLs are counted only once.
+     */
+    @Test
+    @DisplayName("mergePages should assign absolute positions across pages")
+    void testMergePages_AssignsAbsolutePositions() throws Exception {
+        List<SearchResultModel> firstPage = List.of(
+                new SearchResultModel("One", "https://one.example", "1"),
+                new SearchResultModel("Two", "https://two.example", "2"));
+        List<SearchResultModel> secondPage = List.of(
+                new SearchResultModel("Two again", "https://two.example", "2"),
+                new SearchResultModel("Three", "https://three.example", "3"));
+
+        Method mergeMethod = GoogleScraperService.class.getDeclaredMethod("mergePages", List.class);
+        mergeMethod.setAccessible(true);
+
+        @SuppressWarnings("unchecked")
+        List<SearchResultModel> merged = (List<SearchResultModel>) mergeMethod.invoke(null, List.of(firstPage, secondPage));
+
+        assertEquals(3, merged.size());
+        assertEquals("Three", merged.get(2).getTitle());
+        assertEquals(List.of(1, 2, 3), merged.stream().map(SearchResultModel::getPosition).toList());
+    }
+
+    /**
+     * Domain, snippet and result type are filled from the same parse as title and URL.
+     */
+    @Test
+    @DisplayName("parseSearchResults should fill domain, snippet and result type")
+    void testParseSearchResults_RichFields() throws Exception {
+        String mockHtml = """
+                <html>
+                    <body>
+                        <div class="xpdopen">
+                            <div class="g">
+                                <h3>Featured</h3>
+                                <a href="https://www.Example.org/answer">Link</a>
+                                <div class="VwiC3b">Featured description</div>
+                            </div>
+                        </div>
+                        <div class="g">
+                            <h3>Organic</h3>
+                            <a href="/url?q=https://docs.example.com/guide&sa=U">Link</a>
+                            <div class="lBwE0B NA7gNc IUO0K">Organic snippet</div>
+                            <div class="VwiC3b">Organic description</div>
+                        </div>
+                        <div class="g">
+                            <h3>Video</h3>
+                            <a href="https://www.youtube.com/watch?v=abc">Link</a>
+                            <div data-vid="abc"></div>
+                        </div>
+                    </body>
+                </html>
+                """;
+
+        Method parseMethod = GoogleScraperService.class.getDeclaredMethod("parseSearchResults", Document.class);
+        parseMethod.setAccessible(true);
+
+        @SuppressWarnings("unchecked")
+        List<SearchResultModel> results = (List<SearchResultModel>) parseMethod.invoke(scraperService, Jsoup.parse(mockHtml));
+
+        assertEquals(3, results.size());
+        assertEquals(SearchResultModel.ResultType.FEATURED_SNIPPET, results.get(0).getType());
+        assertEquals("example.org", results.get(0).getDomain());
+        assertEquals(SearchResultModel.ResultType.ORGANIC, results.get(1).getType());
+        assertEquals("docs.example.com", results.get(1).getDomain());
+        assertEquals("Organic snippet", results.get(1).getSnippet());
+        assertEquals(2, results.get(1).getPosition());
+        assertEquals(SearchResultModel.ResultType.VIDEO, results.get(2).getType());
+        assertEquals("youtube.com", results.get(2).getDomain());
+    }
+}
@@ -0,0 +1,174 @@
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import cz.michalmusil.models.TrackedKeywordModel;
+import cz.michalmusil.models.TrackedKeywordSetModel;
+import cz.michalmusil.models.TrackingRequestModel;
+import cz.michalmusil.services.CachingScraperService;
+import cz.michalmusil.services.KeywordTrackingService;
+import cz.michalmusil.services.ScrapeQueue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for KeywordTrackingService spreading, restart recovery and retry scheduling.
+ * Keyword sets are persisted to a temporary file; a restart is a second service started on the same file.
+ */
+@ExtendWith(MockitoExtension.class)
+class KeywordTrackingServiceTest {
+
+    private static final long HOUR_MILLIS = TimeUnit.HOURS.toMillis(1);
+    private static final long DAY_MILLIS = TimeUnit.DAYS.toMillis(1);
+
+    @Mock
+    private CachingScraperService scraperService;
+
+    @TempDir
+    Path directory;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<KeywordTrackingService> started = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        started.forEach(service -> ReflectionTestUtils.invokeMethod(service, "shutdown"));
+    }
+
+    /**
+     * Keywords of a set get slots evenly spaced across the period; duplicates are dropped.
+     */
+    @Test
+    @DisplayName("register should spread keywords evenly across the interval")
+    void testKeywordsAreSpreadEvenly() {
+        TrackedKeywordSetModel set = start().register(new TrackingRequestModel("daily",
+                List.of("java", "spring", " Java ", "maven", "gradle"), 60L, null));
+
+        List<TrackedKeywordModel> keywords = set.getKeywords();
+        assertEquals(4, keywords.size());
+        for (int i = 1; i < keywords.size(); i++) {
+            assertEquals(HOUR_MILLIS / 4, keywords.get(i).getNextRunAt() - keywords.get(i - 1).getNextRunAt());
+        }
+        assertTrue(keywords.get(0).getNextRunAt() - System.currentTimeMillis() < HOUR_MILLIS / 4);
+    }
+
+    /**
+     * After a restart every keyword keeps its slot: the persisted next run, or the last run plus the period.
+     */
+    @Test
+    @DisplayName("restart should resume from the persisted schedule instead of a new random phase")
+    void testRestartResumesSchedule() throws Exception {
+        TrackedKeywordSetModel registered = start().register(new TrackingRequestModel("daily",
+                List.of("java", "spring", "maven"), 24 * 60L, null));
+        long now = System.currentTimeMillis();
+        TrackedKeywordModel lastRunOnly = new TrackedKeywordModel("gradle");
+        lastRunOnly.setLastRunAt(now - 23 * HOUR_MILLIS);
+        TrackedKeywordSetModel legacy = new TrackedKeywordSetModel("legacy", "legacy", 24 * 60L, 1, List.of(lastRunOnly));
+        objectMapper.writeValue(directory.resolve("sets.json").toFile(), List.of(registered, legacy));
+
+        KeywordTrackingService restarted = start();
+
+        List<TrackedKeywordModel> restored = restarted.getSet(registered.getId()).orElseThrow().getKeywords();
+        for (int i = 0; i < restored.size(); i++) {
+            assertEquals(registered.getKeywords().get(i).getNextRunAt(), restored.get(i).getNextRunAt());
+        }
+        assertEquals(now + HOUR_MILLIS, restarted.getSet("legacy").orElseThrow().getKeywords().get(0).getNextRunAt());
+        verifyNoInteractions(scraperService);
+    }
+
+    /**
+     * An overdue keyword runs right after a restart; failures are retried with a growing delay, after the
+     * last retry the keyword waits for its next slot, and the outcome is persisted.
+     */
+    @Test
+    @DisplayName("failures should be retried with backoff before the next slot and persisted")
+    void testRetryWithBackoff() throws Exception {
+        long slot = System.currentTimeMillis() - 1_000;
+        TrackedKeywordModel overdue = new TrackedKeywordModel("java");
+        overdue.setNextRunAt(slot);
+        objectMapper.writeValue(directory.resolve("sets.json").toFile(),
+                List.of(new TrackedKeywordSetModel("daily", "daily", 24 * 60L, 1, List.of(overdue))));
+
+        List<Long> attempts = new CopyOnWriteArrayList<>();
+        when(scraperService.scrapeAsync(eq("java"), anyInt(), any(ScrapeQueue.Priority.class), anyString(), any(Runnable.class)))
+                .thenAnswer(invocation -> {
+                    attempts.add(System.currentTimeMillis());
+                    return CompletableFuture.failedFuture(new RuntimeException("blocked"));
+                });
+
+        KeywordTrackingService trackingService = service();
+        ReflectionTestUtils.setField(trackingService, "retryInitialDelaySeconds", 1L);
+        ReflectionTestUtils.setField(trackingService, "maxRetries", 2);
+        ReflectionTestUtils.invokeMethod(trackingService, "start");
+        started.add(trackingService);
+
+        verify(scraperService, timeout(10_000).times(3))
+                .scrapeAsync(eq("java"), anyInt(), any(ScrapeQueue.Priority.class), anyString(), any(Runnable.class));
+        // The status is final only once the outcome has been written, so wait for the file, not the model
+        TrackedKeywordModel persisted = readPersisted().get(0).getKeywords().get(0);
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (persisted.getStatus() != TrackedKeywordModel.Status.FAILED && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+            persisted = readPersisted().get(0).getKeywords().get(0);
+        }
+
+        assertEquals(TrackedKeywordModel.Status.FAILED, persisted.getStatus());
+        assertEquals(3, persisted.getConsecutiveFailures());
+        assertTrue(attempts.get(2) - attempts.get(1) > (attempts.get(1) - attempts.get(0)) * 3 / 2, "retry delay should grow");
+        assertEquals(slot + DAY_MILLIS, persisted.getNextRunAt());
+
+        TrackedKeywordModel keyword = trackingService.getSet("daily").orElseThrow().getKeywords().get(0);
+        assertEquals(TrackedKeywordModel.Status.FAILED, keyword.getStatus());
+        assertEquals(slot + DAY_MILLIS, keyword.getNextRunAt());
+    }
+
+    /**
+     * Intervals below the configured minimum are rejected.
+     */
+    @Test
+    @DisplayName("register should reject too short intervals")
+    void testRejectsShortInterval() {
+        KeywordTrackingService trackingService = start();
+        assertThrows(IllegalArgumentException.class, () -> trackingService.register(
+                new TrackingRequestModel("burst", List.of("java"), 5L, null)));
+    }
+
+    private KeywordTrackingService service() {
+        KeywordTrackingService trackingService = new KeywordTrackingService(scraperService, objectMapper);
+        ReflectionTestUtils.setField(trackingService, "file", directory.resolve("sets.json").toString());
+        return trackingService;
+    }
+
+    private KeywordTrackingService start() {
+        KeywordTrackingService trackingService = service();
+        ReflectionTestUtils.invokeMethod(trackingService, "start");
+        started.add(trackingService);
+        return trackingService;
+    }
+
+    private List<TrackedKeywordSetModel> readPersisted() throws Exception {
+        return objectMapper.readValue(directory.resolve("sets.json").toFile(), new TypeReference<>() {
+        });
+    }
+}
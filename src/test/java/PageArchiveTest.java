@@ -0,0 +1,117 @@
+import com.fasterxml.jackson.databind.ObjectMapper;
+import cz.michalmusil.models.SearchResponseModel;
+import cz.michalmusil.services.BrowserResultExtractor;
+import cz.michalmusil.services.EgressProxyPool;
+import cz.michalmusil.services.GoogleScraperService;
+import cz.michalmusil.services.HttpFetchTier;
+import cz.michalmusil.services.PageArchive;
+import cz.michalmusil.services.PolitenessScheduler;
+import cz.michalmusil.services.ScrapeMetrics;
+import cz.michalmusil.services.SelectorProfileRegistry;
+import cz.michalmusil.services.SerpResultExtractor;
+import cz.michalmusil.services.WebDriverPool;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Unit tests for PageArchive deduplication and offline replay through GoogleScraperService.
+ */
+class PageArchiveTest {
+
+    private static final String PAGE_ONE = """
+            <html><body>
+                <div class="g"><h3>One</h3><a href="https://one.example">Link</a><div class="VwiC3b">1</div></div>
+                <div class="g"><h3>Two</h3><a href="https://two.example">Link</a><div class="VwiC3b">2</div></div>
+            </body></html>
+            """;
+
+    private static final String PAGE_TWO = """
+            <html><body>
+                <div class="g"><h3>Two</h3><a href="https://two.example">Link</a><div class="VwiC3b">2</div></div>
+                <div class="g"><h3>Three</h3><a href="https://three.example">Link</a><div class="VwiC3b">3</div></div>
+            </body></html>
+            """;
+
+    @TempDir
+    Path directory;
+
+    private PageArchive archive;
+
+    @BeforeEach
+    void setUp() {
+        archive = open();
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.invokeMethod(archive, "stop");
+    }
+
+    /**
+     * The same HTML fetched twice is stored once, and the manifest survives a restart.
+     */
+    @Test
+    @DisplayName("identical pages should be stored once and listed after reopening")
+    void testDeduplication() {
+        archive.archive("Java", 1_000, 0, "http", PAGE_ONE);
+        archive.archive("java", 2_000, 0, "browser", PAGE_ONE);
+
+        assertEquals(1, archive.getStoredBlobCount());
+        assertEquals(1, archive.getDeduplicatedCount());
+
+        ReflectionTestUtils.invokeMethod(archive, "stop");
+        archive = open();
+        List<PageArchive.ArchivedPage> pages = archive.list("JAVA", null, null);
+        assertEquals(2, pages.size());
+        assertEquals(pages.get(0).getSha256(), pages.get(1).getSha256());
+        assertEquals(PAGE_ONE, archive.load(pages.get(1)));
+    }
+
+    /**
+     * Replay re-parses every page of a capture and merges them like a live paginated scrape,
+     * up to the requested number of newest captures.
+     */
+    @Test
+    @DisplayName("replay should re-parse archived pages grouped by capture")
+    void testReplay() {
+        archive.archive("java", 1_000, 0, "browser", PAGE_ONE);
+        archive.archive("java", 1_000, 1, "browser", PAGE_TWO);
+        archive.archive("java", 5_000, 0, "http", PAGE_TWO);
+
+        GoogleScraperService scraperService = new GoogleScraperService(mock(WebDriverPool.class),
+                mock(PolitenessScheduler.class), mock(HttpFetchTier.class), mock(EgressProxyPool.class),
+                new SerpResultExtractor(), new SelectorProfileRegistry(), new BrowserResultExtractor(),
+                new ScrapeMetrics(), archive);
+
+        List<SearchResponseModel> captures = scraperService.replayArchived("java", null, null, 10);
+
+        assertEquals(2, captures.size());
+        assertEquals(1_000, captures.get(0).getTimestamp());
+        assertEquals(List.of("One", "Two", "Three"),
+                captures.get(0).getResults().stream().map(result -> result.getTitle()).toList());
+        assertEquals(2, captures.get(1).getResults().size());
+
+        // The limit keeps only the newest captures
+        List<SearchResponseModel> newest = scraperService.replayArchived("java", null, null, 1);
+        assertEquals(1, newest.size());
+        assertEquals(5_000, newest.get(0).getTimestamp());
+    }
+
+    private PageArchive open() {
+        PageArchive pageArchive = new PageArchive(new ObjectMapper());
+        ReflectionTestUtils.setField(pageArchive, "enabled", true);
+        ReflectionTestUtils.setField(pageArchive, "directory", directory.toString());
+        ReflectionTestUtils.invokeMethod(pageArchive, "start");
+        return pageArchive;
+    }
+}
@@ -0,0 +1,150 @@
+import cz.michalmusil.services.PolitenessScheduler;
+import cz.michalmusil.services.ScrapeMetrics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for pacing and the adaptive backoff in PolitenessScheduler.
+ * Most tests reserve slots directly, so no task is executed.
+ */
+class PolitenessSchedulerTest {
+
+    private static final String TARGET = "www.google.com";
+
+    private PolitenessScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        scheduler = new PolitenessScheduler(new ScrapeMetrics());
+        ReflectionTestUtils.setField(scheduler, "minDelaySeconds", 1L);
+        ReflectionTestUtils.setField(scheduler, "maxDelaySeconds", 1L);
+        ReflectionTestUtils.setField(scheduler, "burst", 1);
+    }
+
+    /**
+     * Consecutive reservations on one target are spaced by the configured delay; other targets are independent.
+     */
+    @Test
+    @DisplayName("reservations should be spaced by the politeness delay per target")
+    void testPacing() {
+        assertEquals(0, reserve());
+        long second = reserve();
+        long third = reserve();
+
+        assertTrue(second > 900 && second <= 1_000, "second slot should be one interval later: " + second);
+        assertTrue(third > 1_900 && third <= 2_000, "third slot should be two intervals later: " + third);
+        assertEquals(0L, (long) ReflectionTestUtils.invokeMethod(scheduler, "reserve", "other.example"));
+    }
+
+    /**
+     * Scheduled tasks run on the given executor in their slots, without blocking the caller.
+     */
+    @Test
+    @DisplayName("schedule should run tasks in their slots without blocking the caller")
+    void testScheduleRunsInSlots() throws Exception {
+        ReflectionTestUtils.invokeMethod(scheduler, "start");
+        try {
+            long startedAt = System.nanoTime();
+            CompletableFuture<Long> first = scheduler.schedule(TARGET, System::nanoTime, Runnable::run);
+            CompletableFuture<Long> second = scheduler.schedule(TARGET, System::nanoTime, Runnable::run);
+
+            assertTrue(first.isDone(), "the first task should run immediately");
+            assertFalse(second.isDone(), "the second task should wait for its slot");
+            assertTrue(second.get(5, TimeUnit.SECONDS) - startedAt >= TimeUnit.MILLISECONDS.toNanos(900));
+        } finally {
+            ReflectionTestUtils.invokeMethod(scheduler, "shutdown");
+        }
+    }
+
+    /**
+     * A task cancelled before its slot gives the slot back: a slot in the middle is taken by the next request,
+     * the last one moves the schedule back. A task that already ran cannot be cancelled.
+     */
+    @Test
+    @DisplayName("cancelling before the slot should release the reservation")
+    void testCancelReleasesSlot() {
+        ReflectionTestUtils.invokeMethod(scheduler, "start");
+        try {
+            CompletableFuture<Long> first = scheduler.schedule(TARGET, System::nanoTime, Runnable::run);
+            CompletableFuture<Long> second = scheduler.schedule(TARGET, System::nanoTime, Runnable::run);
+            CompletableFuture<Long> third = scheduler.schedule(TARGET, System::nanoTime, Runnable::run);
+
+            assertFalse(first.cancel(false), "a task that already ran cannot be cancelled");
+            assertTrue(second.cancel(false));
+            long reused = reserve();
+            assertTrue(reused > 900 && reused <= 1_000, "the freed middle slot should be reused: " + reused);
+
+            assertTrue(third.cancel(false));
+            long rolledBack = reserve();
+            assertTrue(rolledBack > 1_900 && rolledBack <= 2_000, "the last slot should be given back: " + rolledBack);
+        } finally {
+            ReflectionTestUtils.invokeMethod(scheduler, "shutdown");
+        }
+    }
+
+    /**
+     * Repeated blocks double the spacing up to the configured maximum and push the next slot out.
+     */
+    @Test
+    @DisplayName("blocks above the threshold should slow down the target")
+    void testBackoffOnBlocks() {
+        long baseline = reserve();
+        assertEquals(0, baseline);
+
+        for (int i = 0; i < 10; i++) {
+            scheduler.recordBlock(TARGET);
+        }
+
+        assertEquals(16, scheduler.getBackoffMultiplier(TARGET));
+        assertTrue(reserve() >= 15_000, "next slot should be delayed by the backoff");
+    }
+
+    /**
+     * A single block, whether on a fresh target or after a run of successes, does not slow the target down.
+     */
+    @Test
+    @DisplayName("an isolated block should not double the delay")
+    void testIsolatedBlock_NoBackoff() {
+        scheduler.recordBlock(TARGET);
+        assertEquals(1, scheduler.getBackoffMultiplier(TARGET));
+
+        for (int i = 0; i < 10; i++) {
+            scheduler.recordSuccess(TARGET);
+        }
+        scheduler.recordBlock(TARGET);
+        assertEquals(1, scheduler.getBackoffMultiplier(TARGET));
+
+        scheduler.recordBlock(TARGET);
+        scheduler.recordBlock(TARGET);
+        assertEquals(2, scheduler.getBackoffMultiplier(TARGET), "three blocks in a row should slow the target down");
+    }
+
+    /**
+     * Successful requests bring the multiplier back to 1 once the block rate drops.
+     */
+    @Test
+    @DisplayName("successes should gradually remove the backoff")
+    void testRecoveryOnSuccess() {
+        for (int i = 0; i < 3; i++) {
+            scheduler.recordBlock(TARGET);
+        }
+        assertTrue(scheduler.getBackoffMultiplier(TARGET) > 1);
+
+        for (int i = 0; i < 20; i++) {
+            scheduler.recordSuccess(TARGET);
+        }
+
+        assertEquals(1, scheduler.getBackoffMultiplier(TARGET));
+    }
+
+    private long reserve() {
+        return ReflectionTestUtils.invokeMethod(scheduler, "reserve", TARGET);
+    }
+}
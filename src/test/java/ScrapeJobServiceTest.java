@@ -0,0 +1,125 @@
+import cz.michalmusil.models.ScrapeJobModel;
+import cz.michalmusil.models.SearchResultModel;
+import cz.michalmusil.services.CachingScraperService;
+import cz.michalmusil.services.ScrapeJobService;
+import cz.michalmusil.services.ScrapeOutcome;
+import cz.michalmusil.services.ScrapeQueue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for ScrapeJobService job lifecycle, queue capacity and retention.
+ * The caching layer is mocked; each test completes the scrape futures by hand.
+ */
+@ExtendWith(MockitoExtension.class)
+class ScrapeJobServiceTest {
+
+    @Mock
+    private CachingScraperService scraperService;
+
+    private ScrapeJobService jobService;
+
+    @BeforeEach
+    void setUp() {
+        jobService = new ScrapeJobService(scraperService, new ScrapeQueue());
+        ReflectionTestUtils.setField(jobService, "queueCapacity", 1);
+        ReflectionTestUtils.setField(jobService, "retentionMinutes", 1L);
+        ReflectionTestUtils.invokeMethod(jobService, "start");
+    }
+
+    /**
+     * A job moves QUEUED -> RUNNING -> COMPLETED, and a full queue rejects new jobs until it finishes.
+     */
+    @Test
+    @DisplayName("a job should go through QUEUED, RUNNING and COMPLETED")
+    void testJobLifecycle() {
+        CompletableFuture<ScrapeOutcome> scrape = new CompletableFuture<>();
+        ArgumentCaptor<Runnable> onStart = ArgumentCaptor.forClass(Runnable.class);
+        when(scraperService.scrapeAsync(eq("java"), eq(1), eq(ScrapeQueue.Priority.BULK), anyString(), onStart.capture()))
+                .thenReturn(scrape);
+
+        ScrapeJobModel job = jobService.submit("java", "ip:10.0.0.1");
+        assertEquals(ScrapeJobModel.Status.QUEUED, job.getStatus());
+        assertThrows(RejectedExecutionException.class, () -> jobService.submit("spring", "ip:10.0.0.1"));
+
+        onStart.getValue().run();
+        assertEquals(ScrapeJobModel.Status.RUNNING, job.getStatus());
+        assertNotNull(job.getStartedAt());
+
+        scrape.complete(new ScrapeOutcome(List.of(new SearchResultModel("Title", "https://example.com", "Description")),
+                ScrapeOutcome.CacheStatus.MISS, 3600));
+        assertEquals(ScrapeJobModel.Status.COMPLETED, job.getStatus());
+        assertEquals(1, job.getResponse().getResults().size());
+        assertNotNull(job.getFinishedAt());
+        assertEquals(0, jobService.getPendingCount());
+    }
+
+    /**
+     * A failed scrape marks the job FAILED, and finished jobs are purged after the retention period.
+     */
+    @Test
+    @DisplayName("failed jobs should be reported and purged after retention")
+    void testFailureAndRetention() {
+        when(scraperService.scrapeAsync(anyString(), anyInt(), any(ScrapeQueue.Priority.class), anyString(), any(Runnable.class)))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("blocked")));
+
+        ScrapeJobModel job = jobService.submit("java", "ip:10.0.0.1");
+        assertEquals(ScrapeJobModel.Status.FAILED, job.getStatus());
+        assertFalse(job.getResponse().isSuccess());
+        assertTrue(jobService.getJob(job.getId()).isPresent());
+
+        // Finished two minutes ago and the last purge ran long before that
+        job.setFinishedAt(System.currentTimeMillis() - 120_000);
+        ReflectionTestUtils.setField(jobService, "lastPurgeAt", 0L);
+        jobService.submit("spring", "ip:10.0.0.1");
+
+        assertFalse(jobService.getJob(job.getId()).isPresent());
+    }
+
+    /**
+     * A job the scrape queue could not start within the bulk max-wait is rejected at submit
+     * instead of being accepted and failing an hour later.
+     */
+    @Test
+    @DisplayName("submit should reject jobs the scrape queue cannot start in time")
+    void testRejectsWhenScrapeQueueIsFull() {
+        ScrapeQueue scrapeQueue = new ScrapeQueue();
+        ReflectionTestUtils.setField(scrapeQueue, "enabled", true);
+        ReflectionTestUtils.setField(scrapeQueue, "concurrency", 1);
+        ReflectionTestUtils.setField(scrapeQueue, "bulkMaxWaitSeconds", 30L);
+        ReflectionTestUtils.invokeMethod(scrapeQueue, "start");
+        try {
+            // One running and two waiting scrapes: the next one would start in about 45 s
+            for (int i = 0; i < 3; i++) {
+                scrapeQueue.submit(ScrapeQueue.Priority.BULK, "ip:10.0.0.2", CompletableFuture::new);
+            }
+            jobService = new ScrapeJobService(scraperService, scrapeQueue);
+            ReflectionTestUtils.setField(jobService, "queueCapacity", 10);
+            ReflectionTestUtils.invokeMethod(jobService, "start");
+
+            assertThrows(RejectedExecutionException.class, () -> jobService.submit("java", "ip:10.0.0.1"));
+            assertEquals(0, jobService.getPendingCount());
+            verifyNoInteractions(scraperService);
+        } finally {
+            ReflectionTestUtils.invokeMethod(scrapeQueue, "shutdown");
+        }
+    }
+}
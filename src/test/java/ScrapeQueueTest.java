@@ -0,0 +1,148 @@
+import cz.michalmusil.services.ScrapeQueue;
+import cz.michalmusil.services.ScrapeQueue.Priority;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ScrapeQueue ordering, expiry and admission.
+ * With a concurrency of one, a blocker task holds the only slot while the others queue up.
+ */
+class ScrapeQueueTest {
+
+    private ScrapeQueue queue;
+    private final List<String> started = new ArrayList<>();
+    private final List<CompletableFuture<String>> running = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        queue = new ScrapeQueue();
+        ReflectionTestUtils.setField(queue, "enabled", true);
+        ReflectionTestUtils.setField(queue, "concurrency", 1);
+        ReflectionTestUtils.setField(queue, "clientWeightSpecs", List.of("ip:10.0.0.1:2"));
+        ReflectionTestUtils.invokeMethod(queue, "start");
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.invokeMethod(queue, "shutdown");
+    }
+
+    /**
+     * Interactive work runs before bulk work, and bulk clients alternate according to their weights.
+     */
+    @Test
+    @DisplayName("interactive requests should go first and bulk clients should share by weight")
+    void testPriorityAndWeightedRoundRobin() {
+        submit(Priority.BULK, "blocker", "blocker");
+        for (int i = 1; i <= 4; i++) {
+            submit(Priority.BULK, "ip:10.0.0.1", "heavy" + i);
+        }
+        submit(Priority.BULK, "ip:10.0.0.2", "light1");
+        submit(Priority.BULK, "ip:10.0.0.2", "light2");
+        submit(Priority.INTERACTIVE, "ip:10.0.0.3", "ui");
+
+        assertEquals(7, queue.getDepth(Priority.BULK) + queue.getDepth(Priority.INTERACTIVE));
+        while (started.size() < 8) {
+            running.get(started.size() - 1).complete("done");
+        }
+
+        assertEquals(List.of("blocker", "ui", "heavy1", "heavy2", "light1", "heavy3", "heavy4", "light2"), started);
+        assertEquals(0, queue.getDepth(Priority.BULK));
+    }
+
+    /**
+     * A request waiting longer than the maximum wait is rejected and never started.
+     */
+    @Test
+    @DisplayName("requests should be rejected after the maximum wait")
+    void testMaxWait() {
+        ReflectionTestUtils.setField(queue, "interactiveMaxWaitSeconds", 0L);
+        // An optimistic estimate lets the request in, so it is the wait itself that rejects it
+        ReflectionTestUtils.setField(queue, "startIntervalNanos", 0L);
+        submit(Priority.BULK, "blocker", "blocker");
+        CompletableFuture<String> waiting = submit(Priority.INTERACTIVE, "ip:10.0.0.3", "ui");
+
+        ExecutionException error = assertThrows(ExecutionException.class, () -> waiting.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(RejectedExecutionException.class, error.getCause());
+
+        running.get(0).complete("done");
+        assertEquals(List.of("blocker"), started);
+        assertEquals(0, queue.getRunning());
+    }
+
+    /**
+     * A request that would wait longer than its class allows is rejected right away, without queueing.
+     */
+    @Test
+    @DisplayName("requests should be rejected up front when the expected wait exceeds the maximum")
+    void testRejectsExpectedWaitOverMaxWait() throws Exception {
+        ReflectionTestUtils.setField(queue, "bulkMaxWaitSeconds", 20L);
+        submit(Priority.BULK, "blocker", "blocker");
+        submit(Priority.BULK, "ip:10.0.0.2", "first");
+        assertEquals(30, queue.estimateWaitSeconds(Priority.BULK));
+        assertEquals(15, queue.estimateWaitSeconds(Priority.INTERACTIVE));
+
+        CompletableFuture<String> rejected = submit(Priority.BULK, "ip:10.0.0.2", "second");
+        ExecutionException error = assertThrows(ExecutionException.class, () -> rejected.get(1, TimeUnit.SECONDS));
+        assertInstanceOf(RejectedExecutionException.class, error.getCause());
+        assertEquals(1, queue.getDepth(Priority.BULK));
+    }
+
+    /**
+     * Cancelling a waiting request removes it from the queue. Cancelling a started request is passed on
+     * to its scrape: one still waiting for its politeness slot is cancelled and frees its capacity,
+     * one already working refuses and keeps its capacity until it finishes.
+     */
+    @Test
+    @DisplayName("cancelled requests should leave the queue without starting")
+    void testCancel() {
+        CompletableFuture<String> blocker = queue.submit(Priority.BULK, "blocker", () -> {
+            started.add("blocker");
+            CompletableFuture<String> task = new CompletableFuture<>() {
+                @Override
+                public boolean cancel(boolean mayInterruptIfRunning) {
+                    return false; // Already working, like a scrape past its politeness slot
+                }
+            };
+            running.add(task);
+            return task;
+        });
+        CompletableFuture<String> waiting = submit(Priority.BULK, "ip:10.0.0.2", "cancelled");
+        CompletableFuture<String> next = submit(Priority.BULK, "ip:10.0.0.3", "next");
+
+        assertTrue(waiting.cancel(false));
+        assertEquals(1, queue.getDepth(Priority.BULK));
+
+        blocker.cancel(false);
+        assertEquals(1, queue.getRunning(), "the cancelled blocker still runs");
+        running.get(0).complete("done");
+
+        assertEquals(List.of("blocker", "next"), started);
+        assertEquals(0, queue.getDepth(Priority.BULK));
+
+        next.cancel(false);
+        assertTrue(running.get(1).isCancelled(), "a scrape still waiting for its slot is cancelled");
+        assertEquals(0, queue.getRunning());
+    }
+
+    private CompletableFuture<String> submit(Priority priority, String clientId, String name) {
+        return queue.submit(priority, clientId, () -> {
+            started.add(name);
+            CompletableFuture<String> task = new CompletableFuture<>();
+            running.add(task);
+            return task;
+        });
+    }
+}
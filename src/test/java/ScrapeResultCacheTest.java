@@ -0,0 +1,122 @@
+import cz.michalmusil.models.SearchResultModel;
+import cz.michalmusil.services.KeywordNormalizer;
+import cz.michalmusil.services.ScrapeResultCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ScrapeResultCache and KeywordNormalizer.
+ * The cache is created directly (no Spring context) with its configuration injected via reflection.
+ */
+class ScrapeResultCacheTest {
+
+    private ScrapeResultCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new ScrapeResultCache();
+        ReflectionTestUtils.setField(cache, "ttlSeconds", 3600L);
+        ReflectionTestUtils.setField(cache, "maxEntries", 2);
+        ReflectionTestUtils.setField(cache, "maxBytes", 1_000_000L);
+    }
+
+    /**
+     * Keywords differing only in case and whitespace must map to the same cache key.
+     */
+    @Test
+    @DisplayName("normalize should trim, case-fold and collapse whitespace")
+    void testNormalize() {
+        assertEquals("java spring", KeywordNormalizer.normalize("  Java \t  SPRING "));
+        assertEquals("", KeywordNormalizer.normalize(null));
+    }
+
+    /**
+     * A stored entry is returned and hit/miss counters are updated.
+     */
+    @Test
+    @DisplayName("get should return stored results and count hits and misses")
+    void testPutAndGet() {
+        assertTrue(cache.get("java").isEmpty(), "Empty cache should miss");
+
+        cache.put("java", List.of(new SearchResultModel("Title", "https://example.com", "Description")));
+
+        ScrapeResultCache.CachedResults cached = cache.get("java").orElseThrow();
+        assertEquals(1, cached.getResults().size());
+        assertEquals("https://example.com", cached.getResults().get(0).getUrl());
+        assertTrue(cached.getRemainingTtlSeconds() > 0, "Fresh entry should have remaining TTL");
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    /**
+     * The least recently used entry is evicted once max entries is exceeded.
+     */
+    @Test
+    @DisplayName("put should evict least recently used entry when max entries is exceeded")
+    void testLruEviction() {
+        cache.put("a", List.of(new SearchResultModel("A", "https://a.com", "A")));
+        cache.put("b", List.of(new SearchResultModel("B", "https://b.com", "B")));
+        cache.get("a"); // "a" is now more recently used than "b"
+        cache.put("c", List.of(new SearchResultModel("C", "https://c.com", "C")));
+
+        assertEquals(2, cache.size());
+        assertTrue(cache.get("a").isPresent(), "Recently used entry should stay");
+        assertTrue(cache.get("b").isEmpty(), "Least recently used entry should be evicted");
+        assertTrue(cache.get("c").isPresent());
+    }
+
+    /**
+     * Entries are evicted when their estimated size exceeds the byte budget.
+     */
+    @Test
+    @DisplayName("put should evict entries when max bytes is exceeded")
+    void testByteBoundEviction() {
+        ReflectionTestUtils.setField(cache, "maxBytes", 600L);
+        cache.put("a", List.of(new SearchResultModel("A", "https://a.com", "x".repeat(100))));
+        cache.put("b", List.of(new SearchResultModel("B", "https://b.com", "y".repeat(100))));
+
+        assertTrue(cache.sizeInBytes() <= 600L, "Cache must stay within the byte budget");
+        assertTrue(cache.get("b").isPresent(), "Newest entry should be kept");
+        assertTrue(cache.get("a").isEmpty(), "Older entry should be evicted");
+
+        // An entry larger than the whole budget is not stored and does not advertise a TTL
+        assertTrue(cache.put("c", List.of(new SearchResultModel("C", "https://c.com", "z".repeat(400)))).isEmpty());
+        assertTrue(cache.get("c").isEmpty());
+        assertTrue(cache.get("b").isPresent(), "Oversized entry must not evict the others");
+    }
+
+    /**
+     * Snippet and domain count towards the entry size, so a result with a large snippet
+     * cannot slip past the byte budget.
+     */
+    @Test
+    @DisplayName("size estimate should include snippet and domain")
+    void testByteEstimateIncludesSnippetAndDomain() {
+        ReflectionTestUtils.setField(cache, "maxBytes", 600L);
+        SearchResultModel result = new SearchResultModel("A", "https://a.com", "x");
+        result.setSnippet("s".repeat(400));
+        result.setDomain("a.com");
+
+        assertTrue(cache.put("a", List.of(result)).isEmpty(), "Entry over budget because of its snippet must not be stored");
+        assertEquals(0, cache.sizeInBytes());
+    }
+
+    /**
+     * Expired entries are not returned.
+     */
+    @Test
+    @DisplayName("get should not return expired entries")
+    void testExpiry() {
+        ReflectionTestUtils.setField(cache, "ttlSeconds", 0L);
+        cache.put("java", List.of(new SearchResultModel("Title", "https://example.com", "Description")));
+
+        assertTrue(cache.get("java").isEmpty());
+        assertEquals(0, cache.size());
+    }
+}
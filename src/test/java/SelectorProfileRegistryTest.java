@@ -0,0 +1,113 @@
+import cz.michalmusil.services.SelectorProfileRegistry;
+import cz.michalmusil.services.SerpSelectors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for SelectorProfileRegistry.
+ * Profiles are loaded from a temporary file; the periodic reload is triggered manually.
+ */
+class SelectorProfileRegistryTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path profilesFile;
+    private SelectorProfileRegistry registry;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        profilesFile = tempDir.resolve("selector-profiles.properties");
+        Files.writeString(profilesFile, """
+                profiles=primary,fallback
+                primary.container=div.result
+                fallback.container=li.result
+                """);
+
+        registry = new SelectorProfileRegistry();
+        ReflectionTestUtils.setField(registry, "profilesFile", profilesFile.toString());
+        ReflectionTestUtils.setField(registry, "reloadIntervalSeconds", 3600L);
+        ReflectionTestUtils.invokeMethod(registry, "start");
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.invokeMethod(registry, "stop");
+    }
+
+    /**
+     * Profiles are loaded in file order and missing fields fall back to the defaults.
+     */
+    @Test
+    @DisplayName("profiles should load in order with defaults for missing fields")
+    void testLoadProfiles() {
+        assertEquals(2, registry.getProfiles().size());
+        assertEquals("primary", registry.getPrimary().getName());
+        assertEquals("div.result", registry.getPrimary().getContainerQuery());
+        assertEquals("fallback", registry.getProfiles().get(1).getName());
+    }
+
+    /**
+     * A changed file is picked up on reload; an invalid file keeps the previous profiles.
+     */
+    @Test
+    @DisplayName("reload should apply changed profiles and keep previous ones on error")
+    void testReload() throws Exception {
+        Files.writeString(profilesFile, "profiles=updated\nupdated.container=section.result\n");
+        Files.setLastModifiedTime(profilesFile, FileTime.fromMillis(System.currentTimeMillis() + 10_000));
+        assertTrue((Boolean) ReflectionTestUtils.invokeMethod(registry, "reloadIfChanged"));
+        assertEquals("updated", registry.getPrimary().getName());
+
+        Files.writeString(profilesFile, "profiles=broken\nbroken.container=div[\n");
+        Files.setLastModifiedTime(profilesFile, FileTime.fromMillis(System.currentTimeMillis() + 20_000));
+        assertFalse((Boolean) ReflectionTestUtils.invokeMethod(registry, "reloadIfChanged"));
+        assertEquals("updated", registry.getPrimary().getName(), "Invalid file must not replace working profiles");
+    }
+
+    /**
+     * The smoothed hit rate drops when a profile repeatedly finds nothing.
+     */
+    @Test
+    @DisplayName("hit rate should drop when a profile stops matching")
+    void testHitRate() {
+        SerpSelectors primary = registry.getPrimary();
+        assertEquals(1.0, registry.getHitRate("primary"));
+
+        for (int i = 0; i < 20; i++) {
+            registry.recordAttempt(primary, false);
+        }
+
+        assertTrue(registry.getHitRate("primary") < 0.5, "Hit rate should fall below the alert threshold");
+    }
+
+    /**
+     * Pages of a markup variant recognised by the fallback profile do not count against the primary;
+     * only pages no profile recognises do.
+     */
+    @Test
+    @DisplayName("pages matched by the fallback profile should not lower the primary hit rate")
+    void testRecordPage_FallbackMatch() {
+        SerpSelectors fallback = registry.getProfiles().get(1);
+        for (int i = 0; i < 20; i++) {
+            registry.recordPage(fallback);
+        }
+        assertEquals(1.0, registry.getHitRate("primary"));
+        assertEquals(1.0, registry.getHitRate("fallback"));
+
+        for (int i = 0; i < 20; i++) {
+            registry.recordPage(null);
+        }
+        assertTrue(registry.getHitRate("primary") < 0.5);
+        assertTrue(registry.getHitRate("fallback") < 0.5);
+    }
+}
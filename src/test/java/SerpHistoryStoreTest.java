@@ -0,0 +1,99 @@
+import com.fasterxml.jackson.databind.ObjectMapper;
+import cz.michalmusil.models.SearchResponseModel;
+import cz.michalmusil.models.SearchResultModel;
+import cz.michalmusil.services.SerpHistoryStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for SerpHistoryStore segment writing, time range queries and index recovery.
+ */
+class SerpHistoryStoreTest {
+
+    @TempDir
+    Path directory;
+
+    private SerpHistoryStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = open();
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.invokeMethod(store, "stop");
+    }
+
+    /**
+     * Responses are returned oldest first and filtered by their timestamp.
+     */
+    @Test
+    @DisplayName("query should return responses within the time range in order")
+    void testQueryByTimeRange() {
+        store.append(response("Java Tutorial", 1_000, "https://a.example"));
+        store.append(response("java tutorial", 2_000, "https://b.example"));
+        store.append(response("java tutorial", 3_000, "https://c.example"));
+        store.append(response("python", 2_000, "https://d.example"));
+
+        List<SearchResponseModel> all = store.query("JAVA  tutorial", null, null);
+        assertEquals(3, all.size());
+        assertEquals("https://a.example", all.get(0).getResults().get(0).getUrl());
+
+        List<SearchResponseModel> range = store.query("java tutorial",
+                Instant.ofEpochMilli(1_500), Instant.ofEpochMilli(3_000));
+        assertEquals(2, range.size());
+        assertEquals(2_000, range.get(0).getTimestamp());
+        assertEquals(3_000, range.get(1).getTimestamp());
+    }
+
+    /**
+     * After a restart the index is rebuilt from disk and a torn last record is cut off.
+     */
+    @Test
+    @DisplayName("reopening should rebuild the index and truncate a torn tail")
+    void testRecoveryAfterRestart() throws IOException {
+        store.append(response("java", 1_000, "https://a.example"));
+        store.append(response("java", 2_000, "https://b.example"));
+        ReflectionTestUtils.invokeMethod(store, "stop");
+
+        Path segment = directory.resolve("history-00000001.seg");
+        long intactSize = Files.size(segment);
+        // Simulate a crash in the middle of writing the next record
+        Files.write(segment, new byte[]{0, 0, 1, 0, 1, 2, 3}, StandardOpenOption.APPEND);
+
+        store = open();
+        assertEquals(intactSize, Files.size(segment));
+        assertEquals(2, store.query("java", null, null).size());
+
+        store.append(response("java", 3_000, "https://c.example"));
+        assertEquals("https://c.example", store.query("java", null, null).get(2).getResults().get(0).getUrl());
+    }
+
+    private SerpHistoryStore open() {
+        SerpHistoryStore historyStore = new SerpHistoryStore(new ObjectMapper());
+        ReflectionTestUtils.setField(historyStore, "directory", directory.toString());
+        ReflectionTestUtils.invokeMethod(historyStore, "start");
+        return historyStore;
+    }
+
+    private static SearchResponseModel response(String keyword, long timestamp, String url) {
+        SearchResponseModel response = new SearchResponseModel(keyword,
+                List.of(new SearchResultModel("Title", url, "Description")), true, "ok");
+        response.setTimestamp(timestamp);
+        return response;
+    }
+}
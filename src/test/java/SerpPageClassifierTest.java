@@ -0,0 +1,78 @@
+import cz.michalmusil.services.SerpPageClassifier;
+import cz.michalmusil.services.SerpPageClassifier.PageType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for SerpPageClassifier, which decides whether a fetched page holds results,
+ * a block page or something the selectors do not know.
+ */
+class SerpPageClassifierTest {
+
+    /**
+     * A page with the results container is recognised as results.
+     */
+    @Test
+    @DisplayName("classify should recognise the results container")
+    void testClassify_Results() {
+        assertEquals(PageType.RESULTS, SerpPageClassifier.classify("<html><body><div id=\"search\"></div></body></html>"));
+        assertEquals(PageType.RESULTS, SerpPageClassifier.classify("<html><body><div id=search></div></body></html>"));
+    }
+
+    /**
+     * Block pages are recognised by any of the known markers, even when they also contain a results container.
+     */
+    @Test
+    @DisplayName("classify should recognise CAPTCHA and unusual traffic pages")
+    void testClassify_Captcha() {
+        assertEquals(PageType.CAPTCHA, SerpPageClassifier.classify(
+                "<html><body>Our systems have detected unusual traffic from your computer network.</body></html>"));
+        assertEquals(PageType.CAPTCHA, SerpPageClassifier.classify(
+                "<html><body><form action=\"/sorry/index\"></form><div id=\"search\"></div></body></html>"));
+        assertEquals(PageType.CAPTCHA, SerpPageClassifier.classify("<script src=\"https://www.google.com/recaptcha/api.js\"></script>"));
+    }
+
+    /**
+     * Results that merely talk about reCAPTCHA or unusual traffic are still results: block markers only
+     * count outside the results container.
+     */
+    @Test
+    @DisplayName("classify should not mistake results about reCAPTCHA for a block page")
+    void testClassify_ResultsMentioningCaptcha() {
+        String html = """
+                <html><body><div id="search"><div class="g">
+                <a href="https://developers.google.com/recaptcha/docs/display"><h3>reCAPTCHA v2 | Google for Developers</h3></a>
+                <div class="VwiC3b">Render the g-recaptcha widget; see /sorry/index when Google says
+                "Our systems have detected unusual traffic".</div>
+                <img src="https://www.gstatic.com/recaptcha/logo.png">
+                </div></div></body></html>
+                """;
+        assertEquals(PageType.RESULTS, SerpPageClassifier.classify(html));
+        assertFalse(SerpPageClassifier.isCaptcha(html));
+    }
+
+    /**
+     * The "did not match any documents" page is an empty search, not a block.
+     */
+    @Test
+    @DisplayName("classify should recognise an empty search")
+    void testClassify_NoResults() {
+        String html = "<html><body><div id=\"search\">Your search - xyzzy - did not match any documents.</div></body></html>";
+        assertEquals(PageType.NO_RESULTS, SerpPageClassifier.classify(html));
+        assertTrue(SerpPageClassifier.isNoResults(html));
+    }
+
+    /**
+     * Pages without any known marker (consent page, changed markup) and empty bodies are unknown.
+     */
+    @Test
+    @DisplayName("classify should report unknown markup as UNKNOWN")
+    void testClassify_Unknown() {
+        assertEquals(PageType.UNKNOWN, SerpPageClassifier.classify("<html><body><div id=\"consent\">Before you continue</div></body></html>"));
+        assertEquals(PageType.UNKNOWN, SerpPageClassifier.classify(""));
+        assertEquals(PageType.UNKNOWN, SerpPageClassifier.classify(null));
+        assertFalse(SerpPageClassifier.isCaptcha(null));
+    }
+}
@@ -0,0 +1,112 @@
+import cz.michalmusil.services.TokenBucketRateLimiter;
+import cz.michalmusil.services.TokenBucketRateLimiter.Decision;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for TokenBucketRateLimiter limits, quotas and concurrent consumption.
+ * The refill rate is slow enough that no token is added while a test runs.
+ */
+class TokenBucketRateLimiterTest {
+
+    private TokenBucketRateLimiter rateLimiter;
+
+    @BeforeEach
+    void setUp() {
+        rateLimiter = new TokenBucketRateLimiter();
+        ReflectionTestUtils.setField(rateLimiter, "capacity", 3);
+        ReflectionTestUtils.setField(rateLimiter, "refillPerMinute", 1.0);
+        ReflectionTestUtils.setField(rateLimiter, "quotaSpecs", List.of("key:premium=5/60"));
+        ReflectionTestUtils.invokeMethod(rateLimiter, "start");
+    }
+
+    /**
+     * After the bucket is empty the client is rejected with a retry hint; other clients are unaffected.
+     */
+    @Test
+    @DisplayName("exhausted bucket should reject with retry-after while quotas apply per client")
+    void testLimitAndQuota() {
+        for (int i = 0; i < 3; i++) {
+            assertTrue(rateLimiter.tryAcquire("ip:10.0.0.1").isAllowed());
+        }
+        Decision rejected = rateLimiter.tryAcquire("ip:10.0.0.1");
+        assertFalse(rejected.isAllowed());
+        assertEquals(3, rejected.getLimit());
+        assertEquals(0, rejected.getRemaining());
+        assertTrue(rejected.getRetryAfterSeconds() > 0 && rejected.getRetryAfterSeconds() <= 60);
+        assertTrue(rejected.getResetSeconds() > 120);
+
+        Decision premium = rateLimiter.tryAcquire("key:premium");
+        assertTrue(premium.isAllowed());
+        assertEquals(5, premium.getLimit());
+        assertEquals(4, premium.getRemaining());
+    }
+
+    /**
+     * A multi-token request takes all tokens or none, and one larger than the bucket is never allowed.
+     */
+    @Test
+    @DisplayName("multi-token acquire should be all or nothing")
+    void testAcquireMultipleTokens() {
+        Decision batch = rateLimiter.tryAcquire("key:premium", 4);
+        assertTrue(batch.isAllowed());
+        assertEquals(1, batch.getRemaining());
+
+        Decision rejected = rateLimiter.tryAcquire("key:premium", 2);
+        assertFalse(rejected.isAllowed());
+        assertEquals(1, rejected.getRemaining(), "a rejected request must not consume tokens");
+        assertTrue(rejected.getRetryAfterSeconds() > 0);
+        assertTrue(rateLimiter.tryAcquire("key:premium").isAllowed());
+
+        assertFalse(rateLimiter.tryAcquire("ip:10.0.0.2", 4).isAllowed(), "more than the capacity never fits");
+        assertEquals(2, rateLimiter.tryAcquire("ip:10.0.0.2").getRemaining(), "the rejected request left the bucket full");
+    }
+
+    /**
+     * Refunded tokens are available again, but never beyond the bucket capacity.
+     */
+    @Test
+    @DisplayName("refund should return tokens up to the capacity")
+    void testRefund() {
+        assertEquals(0, rateLimiter.tryAcquire("ip:10.0.0.3", 3).getRemaining());
+        rateLimiter.refund("ip:10.0.0.3", 1);
+        assertEquals(0, rateLimiter.tryAcquire("ip:10.0.0.3").getRemaining());
+
+        rateLimiter.refund("ip:10.0.0.3", 10);
+        assertEquals(2, rateLimiter.tryAcquire("ip:10.0.0.3").getRemaining());
+    }
+
+    /**
+     * Concurrent requests never consume more tokens than the bucket holds.
+     */
+    @Test
+    @DisplayName("concurrent requests should not exceed the bucket capacity")
+    void testConcurrentConsumption() {
+        AtomicInteger allowed = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            CompletableFuture<?>[] requests = new CompletableFuture[200];
+            for (int i = 0; i < requests.length; i++) {
+                requests[i] = CompletableFuture.runAsync(() -> {
+                    if (rateLimiter.tryAcquire("key:premium").isAllowed()) {
+                        allowed.incrementAndGet();
+                    }
+                }, executor);
+            }
+            CompletableFuture.allOf(requests).join();
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(5, allowed.get());
+    }
+}
@@ -0,0 +1,149 @@
+import cz.michalmusil.services.EgressProxyPool;
+import cz.michalmusil.services.PooledWebDriver;
+import cz.michalmusil.services.WebDriverPool;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.openqa.selenium.PageLoadStrategy;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.chrome.ChromeOptions;
+import org.openqa.selenium.chromium.HasCdp;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Unit tests for WebDriverPool borrowing, bounding and recycling.
+ * Browser launch is overridden to hand out mocked drivers (with CDP support), so no Chrome is started.
+ */
+class WebDriverPoolTest {
+
+    private final List<WebDriver> launched = new ArrayList<>();
+    private final List<ChromeOptions> launchOptions = new ArrayList<>();
+    private WebDriverPool pool;
+
+    @BeforeEach
+    void setUp() {
+        pool = new WebDriverPool(new EgressProxyPool()) {
+            @Override
+            protected WebDriver launchBrowser(ChromeOptions options) {
+                WebDriver driver = mock(WebDriver.class, withSettings().defaultAnswer(RETURNS_DEEP_STUBS)
+                        .extraInterfaces(HasCdp.class));
+                launched.add(driver);
+                launchOptions.add(options);
+                return driver;
+            }
+        };
+        ReflectionTestUtils.setField(pool, "maxSize", 2);
+        ReflectionTestUtils.setField(pool, "borrowTimeoutSeconds", 0L);
+        ReflectionTestUtils.setField(pool, "idleTimeoutSeconds", 300L);
+        ReflectionTestUtils.setField(pool, "evictionIntervalSeconds", 3600L);
+        ReflectionTestUtils.setField(pool, "maxNavigations", 2);
+        ReflectionTestUtils.invokeMethod(pool, "start");
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.invokeMethod(pool, "shutdown");
+    }
+
+    /**
+     * A released browser is reused, the pool never hands out more than max-size browsers,
+     * and an invalidated browser frees its slot.
+     */
+    @Test
+    @DisplayName("borrow should reuse released browsers and respect the max size")
+    void testBorrowReuseAndBound() throws Exception {
+        PooledWebDriver first = pool.borrow();
+        pool.release(first);
+        assertSame(first, pool.borrow(), "the idle browser should be reused");
+
+        PooledWebDriver second = pool.borrow();
+        assertEquals(2, launched.size());
+        assertThrows(IllegalStateException.class, pool::borrow, "a third browser exceeds the max size");
+
+        pool.invalidate(second);
+        verify(second.getDriver()).quit();
+        assertNotNull(pool.borrow());
+        assertEquals(3, launched.size());
+        assertEquals(2, pool.getLiveCount());
+    }
+
+    /**
+     * A browser that reached the navigation limit is shut down on release instead of being pooled.
+     */
+    @Test
+    @DisplayName("release should recycle a browser after the navigation limit")
+    void testRecycleAfterMaxNavigations() throws Exception {
+        PooledWebDriver pooled = pool.borrow();
+        pooled.navigate("https://www.google.com/search?q=a");
+        pool.release(pooled);
+        verify(pooled.getDriver(), never()).quit();
+        assertEquals(1, pool.getIdleCount());
+
+        pooled = pool.borrow();
+        pooled.navigate("https://www.google.com/search?q=b");
+        pool.release(pooled);
+
+        verify(pooled.getDriver()).quit();
+        assertEquals(0, pool.getIdleCount());
+        assertEquals(0, pool.getLiveCount());
+    }
+
+    /**
+     * The lean profile turns off images, stops navigation at DOMContentLoaded and blocks resources over CDP;
+     * the blocked patterns must also catch URLs with a query string.
+     */
+    @Test
+    @DisplayName("lean profile should disable images and block resources including query-string URLs")
+    @SuppressWarnings("unchecked")
+    void testLeanProfile() throws Exception {
+        ReflectionTestUtils.setField(pool, "leanProfile", true);
+
+        PooledWebDriver pooled = pool.borrow();
+
+        ChromeOptions options = launchOptions.get(0);
+        Map<String, Object> chromeOptions = (Map<String, Object>) options.asMap().get(ChromeOptions.CAPABILITY);
+        assertTrue(((List<String>) chromeOptions.get("args")).contains("--blink-settings=imagesEnabled=false"));
+        assertEquals(PageLoadStrategy.EAGER.toString(), String.valueOf(options.getCapability("pageLoadStrategy")));
+
+        ArgumentCaptor<Map<String, Object>> blocked = ArgumentCaptor.forClass(Map.class);
+        verify((HasCdp) pooled.getDriver()).executeCdpCommand(eq("Network.setBlockedURLs"), blocked.capture());
+        List<String> patterns = (List<String>) blocked.getValue().get("urls");
+        assertTrue(isBlocked(patterns, "https://www.gstatic.com/images/logo.png?v=2"));
+        assertTrue(isBlocked(patterns, "https://fonts.gstatic.com/s/roboto.woff2"));
+        assertTrue(isBlocked(patterns, "https://www.googletagmanager.com/gtag/js?id=G-1"));
+        assertFalse(isBlocked(patterns, "https://www.google.com/search?q=java"));
+    }
+
+    /**
+     * The default profile launches a plain browser without any CDP blocking.
+     */
+    @Test
+    @DisplayName("full profile should not block resources")
+    void testFullProfile_NoBlocking() throws Exception {
+        PooledWebDriver pooled = pool.borrow();
+
+        verify((HasCdp) pooled.getDriver(), never()).executeCdpCommand(eq("Network.setBlockedURLs"), any());
+    }
+
+    // Same semantics as Network.setBlockedURLs: * matches any string
+    private static boolean isBlocked(List<String> patterns, String url) {
+        return patterns.stream().anyMatch(pattern ->
+                Pattern.matches(("\\Q" + pattern + "\\E").replace("*", "\\E.*\\Q"), url));
+    }
+}
@@ -0,0 +1,485 @@
+package cz.michalmusil.controllers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import cz.michalmusil.models.BatchScrapeRequestModel;
+import cz.michalmusil.models.SearchResponseModel;
+import cz.michalmusil.models.SearchResultModel;
+import org.junit.jupiter.api.DisplayName; // For more descriptive test names
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import cz.michalmusil.services.BatchScrapeService;
+import cz.michalmusil.services.CachingScraperService;
+import cz.michalmusil.services.ScrapeOutcome;
+import cz.michalmusil.services.TokenBucketRateLimiter;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.BiConsumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print; // Added for debugging output
+
+/**
+ * Unit tests for GoogleScraperController
+ * These tests focus on verifying the controller's behavior,
+ * including request mapping, parameter handling, and JSON response structure,
+ * while mocking the underlying service logic.
+ */
+@WebMvcTest(GoogleScraperController.class)
+@Import({TokenBucketRateLimiter.class, ClientIdentity.class}) // RateLimitInterceptor is part of the MVC slice
+// Enough tokens for the whole class; a few client addresses get tiny quotas for the rate limit tests.
+// The allowed API key is "allowed-key".
+@TestPropertySource(properties = {"scraper.ratelimit.capacity=1000",
+        "scraper.ratelimit.quotas=ip:10.0.0.99=2/1,ip:10.0.0.98=3/1,ip:10.0.0.97=3/1,ip:10.0.0.96=1/1",
+        "scraper.clients.api-keys=key:7ed80fabb2a8300d"})
+class GoogleScraperControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    // The service layer (cache in front of the scraper) is mocked to isolate controller testing
+    @MockBean
+    private CachingScraperService scraperService;
+
+    @MockBean
+    private BatchScrapeService batchScrapeService;
+
+    // ObjectMapper is useful for debugging but not strictly necessary for these tests
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * Test successful API call for scraping Google results.
+     * Verifies correct status, content type, and JSON structure with mock data.
+     */
+    @Test
+    @DisplayName("should return 200 OK with search results on successful scrape")
+    void testScrapeGoogleResults_Success() throws Exception {
+        // Given: Mock search results from the service
+        List<SearchResultModel> mockResults = Arrays.asList(
+                new SearchResultModel("Test Title 1", "https://example1.com", "Test Description 1"),
+                new SearchResultModel("Test Title 2", "https://example2.com", "Test Description 2")
+        );
+        when(scraperService.scrape(eq("test keyword"), eq(1), anyString())).thenReturn(new ScrapeOutcome(mockResults, ScrapeOutcome.CacheStatus.MISS, 3600));
+
+        // When & Then: Perform GET request and assert response
+        mockMvc.perform(get("/api/scrape")
+                        .param("keyword", "test keyword")
+                        .accept(MediaType.APPLICATION_JSON)) // Use accept for what we want to receive
+                // .andDo(print()) // Uncomment for detailed debug output of the request/response
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.success").value(true))
+                .andExpect(jsonPath("$.keyword").value("test keyword"))
+                .andExpect(jsonPath("$.results").isArray())
+                .andExpect(jsonPath("$.results.length()").value(2))
+                .andExpect(jsonPath("$.results[0].title").value("Test Title 1"))
+                .andExpect(jsonPath("$.results[0].url").value("https://example1.com"))
+                .andExpect(jsonPath("$.results[0].description").value("Test Description 1"))
+                .andExpect(jsonPath("$.results[1].title").value("Test Title 2"))
+                .andExpect(jsonPath("$.results[1].url").value("https://example2.com"))
+                .andExpect(jsonPath("$.results[1].description").value("Test Description 2"))
+                .andExpect(jsonPath("$.message").value("Úspěšně nalezeno 2 výsledků"))
+                .andExpect(jsonPath("$.timestamp").isNumber()); // More specific assertion for timestamp
+    }
+
+    /**
+     * Test API call with an empty keyword parameter.
+     * Expects a 400 Bad Request with a specific error message.
+     */
+    @Test
+    @DisplayName("should return 400 Bad Request for empty keyword")
+    void testScrapeGoogleResults_EmptyKeyword() throws Exception {
+        // When & Then: Perform GET request with empty keyword and assert response
+        mockMvc.perform(get("/api/scrape")
+                        .param("keyword", "")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.success").value(false))
+                .andExpect(jsonPath("$.message").value("Klíčové slovo nesmí být prázdné"))
+                .andExpect(jsonPath("$.results").isEmpty()); // Empty list, never null
+    }
+
+    /**
+     * Test API call without the 'keyword' parameter.
+     * Expects a 400 Bad Request due to missing required parameter.
+     */
+    @Test
+    @DisplayName("should return 400 Bad Request for missing keyword parameter")
+    void testScrapeGoogleResults_MissingKeyword() throws Exception {
+        // When & Then: Perform GET request without keyword and assert response
+        mockMvc.perform(get("/api/scrape")
+                        .accept(MediaType.APPLICATION_JSON)) // Only accept header relevant here
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.success").doesNotExist()); // Or check for Spring's default error response if preferred
+    }
+
+    /**
+     * Test API call when the underlying service throws a general RuntimeException.
+     * Expects a 500 Internal Server Error with a detailed error message.
+     */
+    @Test
+    @DisplayName("should return 500 Internal Server Error when service throws RuntimeException")
+    void testScrapeGoogleResults_ServiceException() throws Exception {
+        // Given: Service configured to throw a RuntimeException
+        when(scraperService.scrape(anyString(), anyInt(), anyString()))
+                .thenThrow(new RuntimeException("Chyba při scrapingu"));
+
+        // When & Then: Perform GET request and assert response
+        mockMvc.perform(get("/api/scrape")
+                        .param("keyword", "test keyword")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isInternalServerError())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.success").value(false))
+                .andExpect(jsonPath("$.keyword").value("test keyword"))
+                .andExpect(jsonPath("$.message").value("Chyba při získávání výsledků: Chyba při scrapingu"))
+                .andExpect(jsonPath("$.results").isEmpty()); // Empty list, never null
+    }
+
+    /**
+     * Test API call when the underlying service throws an InterruptedException.
+     * Expects a 500 Internal Server Error with a specific message for interruption.
+     */
+    @Test
+    @DisplayName("should return 500 Internal Server Error when service throws InterruptedException")
+    void testScrapeGoogleResults_InterruptedException() throws Exception {
+        // Given: Service configured to throw an InterruptedException
+        when(scraperService.scrape(anyString(), anyInt(), anyString()))
+                .thenThrow(new InterruptedException("Přerušeno"));
+
+        // When & Then: Perform GET request and assert response
+        mockMvc.perform(get("/api/scrape")
+                        .param("keyword", "test keyword")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isInternalServerError())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.success").value(false))
+                .andExpect(jsonPath("$.keyword").value("test keyword"))
+                .andExpect(jsonPath("$.message").value("Scraping byl přerušen"))
+                .andExpect(jsonPath("$.results").isEmpty()); // Empty list, never null
+    }
+
+    /**
+     * Test API call when the underlying service returns an empty list of results.
+     * Expects a 200 OK with an empty results array.
+     */
+    @Test
+    @DisplayName("should return 200 OK with empty results when no results found")
+    void testScrapeGoogleResults_EmptyResults() throws Exception {
+        // Given: Service returns an empty list
+        when(scraperService.scrape(eq("test keyword"), eq(1), anyString()))
+                .thenReturn(new ScrapeOutcome(Collections.emptyList(), ScrapeOutcome.CacheStatus.MISS, 3600));
+
+        // When & Then: Perform GET request and assert response
+        mockMvc.perform(get("/api/scrape")
+                        .param("keyword", "test keyword")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.success").value(true))
+                .andExpect(jsonPath("$.keyword").value("test keyword"))
+                .andExpect(jsonPath("$.results").isArray())
+                .andExpect(jsonPath("$.results.length()").value(0))
+                .andExpect(jsonPath("$.message").value("Úspěšně nalezeno 0 výsledků"));
+    }
+
+    /**
+     * Test the health check endpoint.
+     * Verifies correct status and response body.
+     */
+    @Test
+    @DisplayName("should return 200 OK for health endpoint")
+    void testHealthEndpoint() throws Exception {
+        // When & Then: Perform GET request and assert response
+        mockMvc.perform(get("/api/health")
+                        .accept(MediaType.TEXT_PLAIN)) // Health endpoint returns text/plain
+                .andExpect(status().isOk())
+                .andExpect(content().string("Google Scraper API je funkční"));
+    }
+
+    /**
+     * Test API call with a keyword containing leading/trailing spaces.
+     * Verifies that the keyword is trimmed correctly by the controller.
+     */
+    @Test
+    @DisplayName("should trim keyword and return results for keyword with spaces")
+    void testScrapeGoogleResults_KeywordWithSpaces() throws Exception {
+        // Given: Mock results for the trimmed keyword
+        List<SearchResultModel> mockResults = Collections.singletonList(
+                new SearchResultModel("Test Title", "https://example.com", "Test Description")
+        );
+        when(scraperService.scrape(eq("test keyword with spaces"), eq(1), anyString())) // Mock the service call with the *trimmed* keyword
+                .thenReturn(new ScrapeOutcome(mockResults, ScrapeOutcome.CacheStatus.MISS, 3600));
+
+        // When & Then: Perform GET request with spaced keyword and assert response
+        mockMvc.perform(get("/api/scrape")
+                        .param("keyword", "  test keyword with spaces  ") // Pass the keyword with spaces
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.success").value(true))
+                // Assert that the 'keyword' in the response is the trimmed version
+                .andExpect(jsonPath("$.keyword").value("test keyword with spaces"))
+                .andExpect(jsonPath("$.results.length()").value(1));
+    }
+
+    /**
+     * Test that the cache status and freshness of the outcome are exposed as headers.
+     */
+    @Test
+    @DisplayName("should expose cache status in X-Cache and Cache-Control headers")
+    void testScrapeGoogleResults_CacheHeaders() throws Exception {
+        List<SearchResultModel> results = List.of(new SearchResultModel("Title", "https://example.com", "Description"));
+        when(scraperService.scrape(eq("cached"), eq(1), anyString()))
+                .thenReturn(new ScrapeOutcome(results, ScrapeOutcome.CacheStatus.HIT, 120));
+        when(scraperService.scrape(eq("empty"), eq(1), anyString()))
+                .thenReturn(new ScrapeOutcome(Collections.emptyList(), ScrapeOutcome.CacheStatus.MISS, 0));
+
+        mockMvc.perform(get("/api/scrape").param("keyword", "cached"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Cache", "HIT"))
+                .andExpect(header().string("Cache-Control", "max-age=120"));
+        mockMvc.perform(get("/api/scrape").param("keyword", "empty"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Cache", "MISS"))
+                .andExpect(header().string("Cache-Control", "no-store"));
+    }
+
+    /**
+     * Test that the page count is validated against the configured maximum and passed to the service.
+     */
+    @Test
+    @DisplayName("should validate the pages parameter")
+    void testScrapeGoogleResults_PagesValidation() throws Exception {
+        when(scraperService.scrape(eq("test keyword"), eq(3), anyString()))
+                .thenReturn(new ScrapeOutcome(Collections.emptyList(), ScrapeOutcome.CacheStatus.MISS, 0));
+
+        mockMvc.perform(get("/api/scrape").param("keyword", "test keyword").param("pages", "0"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Počet stránek musí být mezi 1 a 5"));
+        mockMvc.perform(get("/api/scrape").param("keyword", "test keyword").param("pages", "6"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/scrape").param("keyword", "test keyword").param("pages", "3"))
+                .andExpect(status().isOk());
+        verify(scraperService, never()).scrape(anyString(), eq(6), anyString());
+    }
+
+    /**
+     * Test that a request rejected by the scrape queue gets 503 with Retry-After.
+     */
+    @Test
+    @DisplayName("should return 503 Service Unavailable with Retry-After when the queue rejects the scrape")
+    void testScrapeGoogleResults_QueueRejected() throws Exception {
+        when(scraperService.scrape(anyString(), anyInt(), anyString()))
+                .thenThrow(new RejectedExecutionException("Scraping čekal ve frontě déle než 60 s"));
+
+        mockMvc.perform(get("/api/scrape").param("keyword", "test keyword"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "30"))
+                .andExpect(jsonPath("$.success").value(false))
+                .andExpect(jsonPath("$.message").value("Scraping čekal ve frontě déle než 60 s"));
+    }
+
+    /**
+     * Test that a client over its quota gets 429 with the rate limit headers.
+     */
+    @Test
+    @DisplayName("should return 429 Too Many Requests with X-RateLimit headers when the quota is exhausted")
+    void testScrapeGoogleResults_RateLimited() throws Exception {
+        when(scraperService.scrape(anyString(), anyInt(), anyString()))
+                .thenReturn(new ScrapeOutcome(Collections.emptyList(), ScrapeOutcome.CacheStatus.MISS, 0));
+
+        mockMvc.perform(get("/api/scrape").param("keyword", "test keyword").with(remoteAddr("10.0.0.99")))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-RateLimit-Limit", "2"))
+                .andExpect(header().string("X-RateLimit-Remaining", "1"));
+        mockMvc.perform(get("/api/scrape").param("keyword", "test keyword").with(remoteAddr("10.0.0.99")))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/scrape").param("keyword", "test keyword").with(remoteAddr("10.0.0.99")))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("X-RateLimit-Limit", "2"))
+                .andExpect(header().string("X-RateLimit-Remaining", "0"))
+                .andExpect(header().exists("X-RateLimit-Reset"))
+                .andExpect(header().exists("Retry-After"))
+                .andExpect(jsonPath("$.success").value(false));
+    }
+
+    /**
+     * Test that only configured API keys get their own bucket; any other key is limited by the client address.
+     */
+    @Test
+    @DisplayName("unknown API keys should share the rate limit of the client address")
+    void testScrapeGoogleResults_UnknownApiKeyUsesAddress() throws Exception {
+        when(scraperService.scrape(anyString(), anyInt(), anyString()))
+                .thenReturn(new ScrapeOutcome(Collections.emptyList(), ScrapeOutcome.CacheStatus.MISS, 0));
+
+        mockMvc.perform(get("/api/scrape").param("keyword", "test keyword").with(remoteAddr("10.0.0.96"))
+                        .header(ClientIdentity.API_KEY_HEADER, "random-1"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/scrape").param("keyword", "test keyword").with(remoteAddr("10.0.0.96"))
+                        .header(ClientIdentity.API_KEY_HEADER, "random-2"))
+                .andExpect(status().isTooManyRequests());
+        mockMvc.perform(get("/api/scrape").param("keyword", "test keyword").with(remoteAddr("10.0.0.96"))
+                        .header(ClientIdentity.API_KEY_HEADER, "allowed-key"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-RateLimit-Limit", "1000"));
+        verify(scraperService).scrape(anyString(), anyInt(), eq("key:7ed80fabb2a8300d"));
+    }
+
+    /**
+     * Test that the batch response keeps the request order even when keywords finish out of order,
+     * and that a failed keyword is reported without failing the batch.
+     */
+    @Test
+    @DisplayName("batch should keep the request order and report per-keyword failures")
+    void testScrapeBatch_OrderAndPartialFailure() throws Exception {
+        stubBatchLimits();
+        stubBatchCompletingInReverse();
+
+        MvcResult pending = mockMvc.perform(post("/api/scrape/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new BatchScrapeRequestModel(List.of("first", "second"), null))))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(pending))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.results[0].keyword").value("first"))
+                .andExpect(jsonPath("$.results[0].success").value(false))
+                .andExpect(jsonPath("$.results[1].keyword").value("second"))
+                .andExpect(jsonPath("$.results[1].success").value(true))
+                .andExpect(jsonPath("$.succeeded").value(1))
+                .andExpect(jsonPath("$.failed").value(1));
+    }
+
+    /**
+     * Test that a synchronous batch over its cap is rejected and points the client to the stream endpoint.
+     */
+    @Test
+    @DisplayName("batch should reject more keywords than the synchronous cap")
+    void testScrapeBatch_OverSyncCap() throws Exception {
+        stubBatchLimits();
+
+        MvcResult pending = mockMvc.perform(post("/api/scrape/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new BatchScrapeRequestModel(List.of("a", "b", "c"), null))))
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(pending))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.success").value(false))
+                .andExpect(jsonPath("$.message").value(org.hamcrest.Matchers.containsString("/api/scrape/stream")));
+        verify(batchScrapeService, never()).scrapeEach(anyList(), any(), anyString(), any());
+    }
+
+    /**
+     * Test that the NDJSON stream sends one line per keyword in completion order, failures included.
+     */
+    @Test
+    @DisplayName("stream should send results in completion order")
+    void testStreamBatch_CompletionOrder() throws Exception {
+        stubBatchLimits();
+        stubBatchCompletingInReverse();
+
+        MvcResult result = mockMvc.perform(post("/api/scrape/stream")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new BatchScrapeRequestModel(List.of("first", "second"), null))))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        String[] lines = result.getResponse().getContentAsString().trim().split("\n");
+        assertEquals(2, lines.length);
+        assertEquals("second", objectMapper.readValue(lines[0], SearchResponseModel.class).getKeyword());
+        SearchResponseModel failed = objectMapper.readValue(lines[1], SearchResponseModel.class);
+        assertEquals("first", failed.getKeyword());
+        assertEquals(false, failed.isSuccess());
+    }
+
+    /**
+     * Test that a batch costs one rate limit token per keyword and is rejected when the bucket cannot cover it.
+     * A rejected batch costs nothing - the token taken by the interceptor is refunded.
+     */
+    @Test
+    @DisplayName("stream should charge one token per keyword and return 429 when the bucket cannot cover the batch")
+    void testStreamBatch_ChargesPerKeyword() throws Exception {
+        stubBatchLimits();
+        stubBatchCompletingInReverse();
+        String twoKeywords = objectMapper.writeValueAsString(new BatchScrapeRequestModel(List.of("first", "second"), null));
+
+        mockMvc.perform(post("/api/scrape/stream").with(remoteAddr("10.0.0.98"))
+                        .contentType(MediaType.APPLICATION_JSON).content(twoKeywords))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-RateLimit-Limit", "3"))
+                .andExpect(header().string("X-RateLimit-Remaining", "1"));
+        mockMvc.perform(post("/api/scrape/stream").with(remoteAddr("10.0.0.98"))
+                        .contentType(MediaType.APPLICATION_JSON).content(twoKeywords))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("X-RateLimit-Remaining", "1"))
+                .andExpect(header().exists("Retry-After"));
+        verify(batchScrapeService, times(1)).scrapeEach(anyList(), any(), anyString(), any());
+    }
+
+    /**
+     * Test that a batch larger than the client's whole bucket is rejected outright, since waiting would never help.
+     */
+    @Test
+    @DisplayName("stream should reject a batch that exceeds the client's rate limit capacity")
+    void testStreamBatch_OverRateLimitCapacity() throws Exception {
+        stubBatchLimits();
+
+        mockMvc.perform(get("/api/scrape/stream").with(remoteAddr("10.0.0.97"))
+                        .param("keywords", "a", "b", "c", "d"))
+                .andExpect(status().isBadRequest());
+        verify(batchScrapeService, never()).scrapeEach(anyList(), any(), anyString(), any());
+    }
+
+    private void stubBatchLimits() {
+        when(batchScrapeService.getMaxKeywords()).thenReturn(1000);
+        when(batchScrapeService.getSyncMaxKeywords()).thenReturn(2);
+    }
+
+    /**
+     * The second keyword finishes first; the first one fails.
+     */
+    @SuppressWarnings("unchecked")
+    private void stubBatchCompletingInReverse() {
+        when(batchScrapeService.scrapeEach(anyList(), any(), anyString(), any())).thenAnswer(invocation -> {
+            BiConsumer<Integer, SearchResponseModel> onResult = invocation.getArgument(3);
+            onResult.accept(1, new SearchResponseModel("second",
+                    List.of(new SearchResultModel("Title", "https://example.com", "Description")), true, "Úspěšně nalezeno 1 výsledků"));
+            onResult.accept(0, new SearchResponseModel("first", List.of(), false, "Chyba při získávání výsledků: blocked"));
+            return CompletableFuture.completedFuture(null);
+        });
+    }
+
+    private static org.springframework.test.web.servlet.request.RequestPostProcessor remoteAddr(String address) {
+        return request -> {
+            request.setRemoteAddr(address);
+            return request;
+        };
+    }
+}